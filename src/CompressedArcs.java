@@ -0,0 +1,159 @@
+import java.nio.ByteBuffer;
+
+//Compressed adjacency layout of graph arcs
+//arcs of each vertex are stored as pairs of variable-length numbers: zigzag-encoded difference between the head
+//of the arc and the head of the previous arc (the tail vertex for the first arc), followed by the arc weight
+//numbers are written 7 bits per byte, the highest bit of a byte is set if the number continues in the next byte
+//vertices are grouped into blocks: the byte offset of every block is stored as int and the offset of every vertex
+//relative to its block as 16-bit number, so arcs of any vertex are found without decoding other vertices
+public class CompressedArcs {
+
+    public static final int BLOCK_SIZE=16; //number of vertices per block
+    private static final int MAX_BLOCK_SPAN=0xFFFF; //relative offsets are 16-bit numbers
+
+    private final IntStore firstOut; //CSR offsets of the graph (give the number of arcs of each vertex and arc ids)
+    private final IntStore blockOffset; //byte offset of the first arc of every block
+    private final ByteBuffer vertexOffset; //byte offset of the first arc of every vertex relative to its block
+    private final ByteBuffer bytes; //encoded arcs
+
+
+    //encode arcs given in CSR layout (vertex ids start from 1)
+    public CompressedArcs(int V, IntStore firstOut, IntStore head, IntStore weight, IntStore forwardArc, boolean offHeap){
+        this.firstOut=firstOut;
+
+        //size of the encoding
+        long size=0;
+        for(int v=1;v<=V;v++){
+            int prevHead=v;
+            for(int a=firstOut.get(v); a<firstOut.get(v+1); a++){
+                int h=head.get(a);
+                size+=varIntSize(zigzag(h-prevHead)) + varIntSize(weight.get(forwardArc==null ? a : forwardArc.get(a)));
+                prevHead=h;
+            }
+        }
+        if(size>Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Compressed arcs do not fit into " + Integer.MAX_VALUE + " bytes");
+
+        this.bytes= offHeap ? ByteBuffer.allocateDirect((int)size) : ByteBuffer.allocate((int)size);
+        this.blockOffset=IntStore.allocate(V/BLOCK_SIZE+1, offHeap);
+        this.vertexOffset= offHeap ? ByteBuffer.allocateDirect(2*(V+1)) : ByteBuffer.allocate(2*(V+1));
+
+        //encode arcs
+        int pos=0;
+        for(int v=1;v<=V;v++){
+            if(v%BLOCK_SIZE==0 || v==1)
+                blockOffset.set(v/BLOCK_SIZE, pos);
+
+            int relativeOffset=pos-blockOffset.get(v/BLOCK_SIZE);
+            if(relativeOffset>MAX_BLOCK_SPAN)
+                throw new IllegalArgumentException("Arcs of vertices " + v/BLOCK_SIZE*BLOCK_SIZE + " to " + v + " take more than " + MAX_BLOCK_SPAN + " bytes in compressed layout");
+            vertexOffset.putShort(2*v, (short)relativeOffset);
+
+            int prevHead=v;
+            for(int a=firstOut.get(v); a<firstOut.get(v+1); a++){
+                int h=head.get(a);
+                pos=putVarInt(pos, zigzag(h-prevHead));
+                pos=putVarInt(pos, weight.get(forwardArc==null ? a : forwardArc.get(a)));
+                prevHead=h;
+            }
+        }
+    }
+
+
+    //returns the number of bytes used by encoded arcs and block offsets
+    public long getSizeInBytes(){
+        return bytes.capacity() + vertexOffset.capacity() + 4L*blockOffset.size();
+    }
+
+    //returns a new cursor which decodes arcs (a cursor must not be shared between threads)
+    public Cursor cursor(){
+        return new Cursor();
+    }
+
+
+    //decoding iterator over outgoing arcs of a vertex
+    //  cursor.reset(v);
+    //  while(cursor.next()){ cursor.getArc(), cursor.getHead(), cursor.getWeight() }
+    public class Cursor {
+        private int pos; //byte offset of the next arc
+        private int arc; //id of the current arc
+        private int endArc; //id past the last arc of the vertex
+        private int head; //head of the current arc
+        private int weight; //weight of the current arc
+
+        private Cursor(){}
+
+        //move to the arcs of vertex v
+        public void reset(int v){
+            pos=blockOffset.get(v/BLOCK_SIZE) + (vertexOffset.getShort(2*v) & MAX_BLOCK_SPAN);
+
+            arc=firstOut.get(v)-1;
+            endArc=firstOut.get(v+1);
+            head=v;
+        }
+
+        //decode the next arc, returns false if there are no more arcs
+        public boolean next(){
+            if(++arc>=endArc)
+                return false;
+
+            head+=unzigzag(getVarInt());
+            weight=getVarInt();
+            return true;
+        }
+
+        public int getArc(){
+            return arc;
+        }
+
+        public int getHead(){
+            return head;
+        }
+
+        public int getWeight(){
+            return weight;
+        }
+
+        private int getVarInt(){
+            int value=0;
+            int shift=0;
+            byte b;
+            do{
+                b=bytes.get(pos++);
+                value|=(b & 0x7F)<<shift;
+                shift+=7;
+            }while(b<0);
+            return value;
+        }
+    }
+
+
+    //write a non-negative number 7 bits per byte, returns the position after the number
+    private int putVarInt(int pos, int value){
+        while((value & ~0x7F)!=0){
+            bytes.put(pos++, (byte)((value & 0x7F) | 0x80));
+            value>>>=7;
+        }
+        bytes.put(pos++, (byte)value);
+        return pos;
+    }
+
+    //number of bytes of a variable-length number
+    private static int varIntSize(int value){
+        int size=1;
+        while((value & ~0x7F)!=0){
+            value>>>=7;
+            size++;
+        }
+        return size;
+    }
+
+    //map signed numbers to non-negative numbers (0, -1, 1, -2, 2 ... to 0, 1, 2, 3, 4 ...)
+    private static int zigzag(int value){
+        return (value<<1) ^ (value>>31);
+    }
+
+    private static int unzigzag(int value){
+        return (value>>>1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,396 @@
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+//Contraction hierarchy of a graph: vertices are contracted one by one in the order of their importance (rank), and
+//a shortcut u->w with the weight of u->v->w is inserted for every pair of neighbours of the contracted vertex v
+//unless a witness search finds a path from u to w without v which is not longer
+//the hierarchy keeps, for every vertex v, arcs to higher ranked vertices (upward arcs v->w, scanned by forward
+//searches) and arcs from higher ranked vertices (downward arcs u->v stored at v, scanned by backward searches);
+//every shortcut remembers the vertex it bypasses, so paths can be unpacked into arcs of the original graph
+public class ContractionHierarchy {
+
+    public static final int NO_MIDDLE=0; //middle vertex of arcs of the original graph (vertex ids start from 1)
+
+    //nodes settled by one witness search, lower while priorities are estimated (a cut search only adds shortcuts which are not needed)
+    private static final int WITNESS_SETTLE_LIMIT=1000;
+    private static final int PRIORITY_SETTLE_LIMIT=50;
+
+    private final int V;
+    private final int[] rank; //position of every vertex in the contraction order
+    private final int[] upFirst; //upward arcs of vertex v are stored at indices upFirst[v] to upFirst[v+1]-1
+    private final int[] upHead;
+    private final int[] upWeight;
+    private final int[] upMiddle; //vertex bypassed by the shortcut, or NO_MIDDLE
+    private final int[] downFirst; //downward arcs of vertex v (arcs u->v from higher ranked vertices u)
+    private final int[] downTail;
+    private final int[] downWeight;
+    private final int[] downMiddle;
+    private int noOfShortcuts;
+    private int noOfNodeScans; //nodes settled by witness searches
+
+
+    //contract all vertices of graph g
+    public ContractionHierarchy(Graph g){
+        V=g.V();
+        rank=new int[V+1];
+
+        Builder builder=new Builder(g);
+        builder.contractAll();
+
+        //upward and downward arcs of every vertex in CSR layout
+        upFirst=new int[V+2];
+        downFirst=new int[V+2];
+        for(int v=1;v<=V;v++){
+            upFirst[v+1]=upFirst[v] + builder.upSize[v];
+            downFirst[v+1]=downFirst[v] + builder.downSize[v];
+        }
+        upHead=new int[upFirst[V+1]];
+        upWeight=new int[upFirst[V+1]];
+        upMiddle=new int[upFirst[V+1]];
+        downTail=new int[downFirst[V+1]];
+        downWeight=new int[downFirst[V+1]];
+        downMiddle=new int[downFirst[V+1]];
+        for(int v=1;v<=V;v++){
+            for(int i=0;i<builder.upSize[v];i++){
+                upHead[upFirst[v]+i]=builder.up[v][3*i];
+                upWeight[upFirst[v]+i]=builder.up[v][3*i+1];
+                upMiddle[upFirst[v]+i]=builder.up[v][3*i+2];
+            }
+            for(int i=0;i<builder.downSize[v];i++){
+                downTail[downFirst[v]+i]=builder.down[v][3*i];
+                downWeight[downFirst[v]+i]=builder.down[v][3*i+1];
+                downMiddle[downFirst[v]+i]=builder.down[v][3*i+2];
+            }
+        }
+    }
+
+
+    public int getRank(int v){
+        return rank[v];
+    }
+
+    public int getFirstUpArc(int v){
+        return upFirst[v];
+    }
+
+    public int getEndUpArc(int v){
+        return upFirst[v+1];
+    }
+
+    public int getUpArcHead(int arc){
+        return upHead[arc];
+    }
+
+    public int getUpArcWeight(int arc){
+        return upWeight[arc];
+    }
+
+    public int getFirstDownArc(int v){
+        return downFirst[v];
+    }
+
+    public int getEndDownArc(int v){
+        return downFirst[v+1];
+    }
+
+    //tail of a downward arc (a higher ranked vertex)
+    public int getDownArcTail(int arc){
+        return downTail[arc];
+    }
+
+    public int getDownArcWeight(int arc){
+        return downWeight[arc];
+    }
+
+    public int getNoOfShortcuts(){
+        return noOfShortcuts;
+    }
+
+    public int getNoOfArcs(){
+        return upHead.length + downTail.length;
+    }
+
+    public int getNoOfNodeScans(){
+        return noOfNodeScans;
+    }
+
+
+    //middle vertex of the hierarchy arc from u to v (NO_MIDDLE if it is an arc of the original graph)
+    public int getMiddle(int u, int v){
+        if(rank[u]<rank[v]){
+            for(int a=upFirst[u]; a<upFirst[u+1]; a++){
+                if(upHead[a]==v)
+                    return upMiddle[a];
+            }
+        }else{
+            for(int a=downFirst[v]; a<downFirst[v+1]; a++){
+                if(downTail[a]==u)
+                    return downMiddle[a];
+            }
+        }
+        throw new IllegalArgumentException("No arc from " + u + " to " + v + " in the hierarchy");
+    }
+
+    //append the vertices of the original path of hierarchy arc u->v to path (without u, with v)
+    public void unpack(int u, int v, IntList path){
+        int middle=getMiddle(u, v);
+        if(middle==NO_MIDDLE){
+            path.add(v);
+        }else{
+            unpack(u, middle, path);
+            unpack(middle, v, path);
+        }
+    }
+
+
+    //contraction of the vertices on a dynamic copy of the graph
+    private class Builder {
+
+        //remaining graph: arcs are stored as (head, weight, middle) triples, out[v] holds arcs v->w and in[v] holds
+        //arcs u->v as (u, weight, middle); arcs of contracted vertices are removed from their neighbours
+        private final int[][] out=new int[V+1][];
+        private final int[] outSize=new int[V+1];
+        private final int[][] in=new int[V+1][];
+        private final int[] inSize=new int[V+1];
+
+        //arcs of the hierarchy, collected when a vertex is contracted
+        private final int[][] up=new int[V+1][];
+        private final int[] upSize=new int[V+1];
+        private final int[][] down=new int[V+1][];
+        private final int[] downSize=new int[V+1];
+
+        private final boolean[] contracted=new boolean[V+1];
+        private final int[] deletedNeighbours=new int[V+1]; //number of contracted neighbours of every vertex
+        private final int[] level=new int[V+1]; //length of the longest chain of contracted vertices below every vertex
+        private final int[] priority=new int[V+1];
+        private final int[] lastNeighbour=new int[V+1]; //last contracted vertex whose neighbour was updated
+        private final int[] targetMark=new int[V+1]; //out-neighbours of the contracted vertex carry the id of the current search
+        private int noOfWitnessSearches;
+        private int[] shortcuts=new int[48]; //(tail, head, weight) of shortcuts found by the last contraction
+        private int noOfFoundShortcuts;
+
+
+        private Builder(Graph g){
+            for(int v=1;v<=V;v++){
+                out[v]=new int[12];
+                in[v]=new int[12];
+            }
+
+            //copy arcs of the graph in any layout (parallel arcs keep the smallest weight, loops are dropped)
+            CompressedArcs.Cursor cursor= g.isCompressed() ? g.getArcCursor() : null;
+            for(int v=1;v<=V;v++){
+                if(cursor != null){
+                    cursor.reset(v);
+                    while(cursor.next())
+                        addArc(v, cursor.getHead(), cursor.getWeight(), NO_MIDDLE);
+                }else{
+                    for(int a=g.getFirstArc(v); a<g.getEndArc(v); a++)
+                        addArc(v, g.getArcHead(a), g.getArcWeight(a), NO_MIDDLE);
+                }
+            }
+        }
+
+        //contract vertices in the order of their priority: twice the edge difference (shortcuts added minus arcs removed)
+        //plus the number of contracted neighbours and the level, so contracted vertices are spread evenly over the graph
+        //priorities are updated lazily: a vertex whose priority grew since it was queued is queued again instead of
+        //recalculating priorities of all neighbours after every contraction
+        private void contractAll(){
+            PriorityQueue<Long> queue=new PriorityQueue<Long>();
+            for(int v=1;v<=V;v++){
+                priority[v]=calculatePriority(v);
+                queue.add(entry(priority[v], v));
+            }
+
+            int nextRank=1;
+            while(!queue.isEmpty()){
+                long e=queue.poll();
+                int v=(int)e;
+                if(contracted[v] || (int)(e>>32) != priority[v])
+                    continue; //entry is out of date
+
+                int p=calculatePriority(v);
+                if(p>priority[v] && !queue.isEmpty() && p>(int)(queue.peek()>>32)){
+                    priority[v]=p;
+                    queue.add(entry(p, v));
+                    continue;
+                }
+
+                contract(v);
+                rank[v]=nextRank++;
+                if(nextRank%100000==0)
+                    System.out.println("Contracted vertices: " + nextRank + ", shortcuts: " + noOfShortcuts);
+
+                for(int i=0;i<upSize[v];i++)
+                    updateNeighbour(up[v][3*i], v);
+                for(int i=0;i<downSize[v];i++)
+                    updateNeighbour(down[v][3*i], v);
+            }
+        }
+
+        //neighbour w of contracted vertex v (every neighbour is counted once, even if it is linked in both directions)
+        private void updateNeighbour(int w, int v){
+            if(lastNeighbour[w]==v)
+                return;
+            lastNeighbour[w]=v;
+            deletedNeighbours[w]++;
+            level[w]=Math.max(level[w], level[v]+1);
+        }
+
+        //queue entry ordered by priority, then by vertex id
+        private long entry(int p, int v){
+            return ((long)p << 32) | v;
+        }
+
+        private int calculatePriority(int v){
+            findShortcuts(v, PRIORITY_SETTLE_LIMIT);
+            return 2*(noOfFoundShortcuts - outSize[v] - inSize[v]) + deletedNeighbours[v] + level[v];
+        }
+
+        //remove vertex v from the remaining graph, its arcs become arcs of the hierarchy and shortcuts are inserted
+        private void contract(int v){
+            findShortcuts(v, WITNESS_SETTLE_LIMIT);
+
+            up[v]=Arrays.copyOf(out[v], 3*outSize[v]);
+            upSize[v]=outSize[v];
+            down[v]=Arrays.copyOf(in[v], 3*inSize[v]);
+            downSize[v]=inSize[v];
+
+            for(int i=0;i<outSize[v];i++)
+                removeArc(in, inSize, out[v][3*i], v);
+            for(int i=0;i<inSize[v];i++)
+                removeArc(out, outSize, in[v][3*i], v);
+            out[v]=null;
+            in[v]=null;
+            outSize[v]=0;
+            inSize[v]=0;
+            contracted[v]=true;
+
+            for(int i=0;i<noOfFoundShortcuts;i++){
+                addArc(shortcuts[3*i], shortcuts[3*i+1], shortcuts[3*i+2], v);
+            }
+        }
+
+        //collect shortcuts needed if v is contracted: u->v->w for every pair of neighbours without a witness path
+        private void findShortcuts(int v, int settleLimit){
+            noOfFoundShortcuts=0;
+            int maxOut=0;
+            for(int j=0;j<outSize[v];j++)
+                maxOut=Math.max(maxOut, out[v][3*j+1]);
+
+            for(int i=0;i<inSize[v];i++){
+                int u=in[v][3*i];
+                int inWeight=in[v][3*i+1];
+
+                //the search ends when all out-neighbours of v are settled
+                int noOfTargets=0;
+                noOfWitnessSearches++;
+                for(int j=0;j<outSize[v];j++){
+                    int w=out[v][3*j];
+                    if(w != u && targetMark[w] != noOfWitnessSearches){
+                        targetMark[w]=noOfWitnessSearches;
+                        noOfTargets++;
+                    }
+                }
+                SearchState witness=witnessSearch(u, v, inWeight+maxOut, noOfTargets, settleLimit);
+
+                for(int j=0;j<outSize[v];j++){
+                    int w=out[v][3*j];
+                    int weight=inWeight + out[v][3*j+1];
+                    if(w != u && witness.getDistance(w) > weight){
+                        if(3*noOfFoundShortcuts+3>shortcuts.length)
+                            shortcuts=Arrays.copyOf(shortcuts, 2*shortcuts.length);
+                        shortcuts[3*noOfFoundShortcuts]=u;
+                        shortcuts[3*noOfFoundShortcuts+1]=w;
+                        shortcuts[3*noOfFoundShortcuts+2]=weight;
+                        noOfFoundShortcuts++;
+                    }
+                }
+            }
+        }
+
+        //Dijkstra's algorithm from u on the remaining graph without vertex v, limited by distance and settled nodes
+        private SearchState witnessSearch(int u, int v, int maxDistance, int noOfTargets, int settleLimit){
+            SearchState state=SearchState.acquire(SearchState.PREPROCESSING, V);
+            VertexPriorityQueue minPQ=state.getQueue();
+            state.setDistance(u, 0);
+            minPQ.insertOrDecreaseKey(u, 0);
+
+            int noOfSettled=0;
+            while(!minPQ.isEmpty() && noOfSettled<settleLimit && noOfTargets>0){
+                int x=minPQ.extractMin();
+                noOfSettled++;
+                int dx=state.getDistance(x);
+                if(dx>maxDistance)
+                    break;
+                if(targetMark[x]==noOfWitnessSearches)
+                    noOfTargets--;
+
+                for(int i=0;i<outSize[x];i++){
+                    int y=out[x][3*i];
+                    if(y==v)
+                        continue;
+                    int distance=dx + out[x][3*i+1];
+                    if(state.getDistance(y) > distance){
+                        state.update(y, distance, x);
+                        minPQ.insertOrDecreaseKey(y, distance);
+                    }
+                }
+            }
+            noOfNodeScans+=noOfSettled;
+            return state;
+        }
+
+        //add arc u->w to the remaining graph unless a parallel arc which is not longer exists already
+        private void addArc(int u, int w, int weight, int middle){
+            if(u==w)
+                return;
+
+            for(int i=0;i<outSize[u];i++){
+                if(out[u][3*i]==w){
+                    if(out[u][3*i+1]<=weight)
+                        return;
+
+                    //shorter parallel arc replaces the existing one
+                    if(out[u][3*i+2]==NO_MIDDLE && middle != NO_MIDDLE)
+                        noOfShortcuts++;
+                    out[u][3*i+1]=weight;
+                    out[u][3*i+2]=middle;
+                    for(int j=0;j<inSize[w];j++){
+                        if(in[w][3*j]==u){
+                            in[w][3*j+1]=weight;
+                            in[w][3*j+2]=middle;
+                        }
+                    }
+                    return;
+                }
+            }
+
+            append(out, outSize, u, w, weight, middle);
+            append(in, inSize, w, u, weight, middle);
+            if(middle != NO_MIDDLE)
+                noOfShortcuts++;
+        }
+
+        private void append(int[][] arcs, int[] size, int v, int neighbour, int weight, int middle){
+            if(3*size[v]+3>arcs[v].length)
+                arcs[v]=Arrays.copyOf(arcs[v], 2*arcs[v].length);
+            int i=3*size[v]++;
+            arcs[v][i]=neighbour;
+            arcs[v][i+1]=weight;
+            arcs[v][i+2]=middle;
+        }
+
+        //remove the arc to neighbour from the arcs of vertex v, the last arc takes its place
+        private void removeArc(int[][] arcs, int[] size, int v, int neighbour){
+            for(int i=0;i<size[v];i++){
+                if(arcs[v][3*i]==neighbour){
+                    int last=3*(--size[v]);
+                    arcs[v][3*i]=arcs[v][last];
+                    arcs[v][3*i+1]=arcs[v][last+1];
+                    arcs[v][3*i+2]=arcs[v][last+2];
+                    return;
+                }
+            }
+        }
+    }
+}
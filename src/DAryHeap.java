@@ -0,0 +1,130 @@
+import java.util.Arrays;
+
+//Indexed minimum priority queue of vertex ids, stored as a d-ary heap in primitive arrays
+//no objects are allocated per operation: the heap holds vertex ids, keys and heap positions are indexed by vertex id
+//a wider heap (4-ary by default) is shallower than a binary heap, which makes insertOrDecreaseKey cheaper and keeps
+//the children of a node next to each other in memory
+public class DAryHeap implements VertexPriorityQueue {
+
+    public static final int DEFAULT_ARITY=4;
+    private static final int NOT_IN_HEAP=-1;
+
+    private final int arity; //number of children of a heap node
+    private final int[] heap; //vertex ids at heap positions 0 to N-1
+    private final int[] keys; //key (shortest path estimate) of every vertex in the heap
+    private final int[] pos; //heap position of every vertex, or NOT_IN_HEAP
+    private int N; //number of items in the heap
+
+
+    //heap for vertex ids from 0 to noOfVertices
+    public DAryHeap(int noOfVertices, int arity){
+        if(arity<2)
+            throw new IllegalArgumentException("Heap arity must be at least 2, got " + arity);
+
+        this.arity=arity;
+        this.heap=new int[noOfVertices+1];
+        this.keys=new int[noOfVertices+1];
+        this.pos=new int[noOfVertices+1];
+        Arrays.fill(pos, NOT_IN_HEAP);
+    }
+
+
+    @Override
+    public boolean isEmpty(){
+        return N==0;
+    }
+
+    @Override
+    public int size(){
+        return N;
+    }
+
+    @Override
+    public boolean contains(int v){
+        return pos[v]!=NOT_IN_HEAP;
+    }
+
+    //key of the vertex with the smallest key
+    @Override
+    public int getMinKey(){
+        return keys[heap[0]];
+    }
+
+    //insert vertex v with the given key, or lower its key if v is in the heap already
+    @Override
+    public void insertOrDecreaseKey(int v, int key){
+        int k=pos[v];
+        if(k==NOT_IN_HEAP)
+            k=N++;
+        keys[v]=key;
+        swim(v, k);
+    }
+
+    //remove the vertex with the smallest key and return its id
+    @Override
+    public int extractMin(){
+        int min=heap[0];
+        pos[min]=NOT_IN_HEAP;
+
+        int last=heap[--N];
+        if(N>0)
+            sink(last, 0);
+        return min;
+    }
+
+    //remove all vertices, in time proportional to the number of vertices left in the heap
+    @Override
+    public void clear(){
+        for(int k=0;k<N;k++)
+            pos[heap[k]]=NOT_IN_HEAP;
+        N=0;
+    }
+
+
+    //move vertex v up from position k until its parent has a smaller or equal key
+    private void swim(int v, int k){
+        int key=keys[v];
+        while(k>0){
+            int parent=(k-1)/arity;
+            int p=heap[parent];
+            if(keys[p]<=key)
+                break;
+            heap[k]=p;
+            pos[p]=k;
+            k=parent;
+        }
+        heap[k]=v;
+        pos[v]=k;
+    }
+
+    //move vertex v down from position k until all its children have greater or equal keys
+    private void sink(int v, int k){
+        int key=keys[v];
+        while(true){
+            int first=arity*k+1;
+            if(first>=N)
+                break;
+
+            //find the child with the smallest key
+            int last=Math.min(first+arity, N);
+            int minChild=first;
+            int minKey=keys[heap[first]];
+            for(int c=first+1;c<last;c++){
+                int childKey=keys[heap[c]];
+                if(childKey<minKey){
+                    minKey=childKey;
+                    minChild=c;
+                }
+            }
+
+            if(minKey>=key)
+                break;
+            int child=heap[minChild];
+            heap[k]=child;
+            pos[child]=k;
+            k=minChild;
+        }
+        heap[k]=v;
+        pos[v]=k;
+    }
+}
@@ -0,0 +1,167 @@
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+//Decompresses a gzip (.gz), bzip2 (.bz2) or xz (.xz) file on its own thread and hands the data to the parser
+//through a bounded queue of buffers, so decompression and parsing overlap
+//gzip is decompressed by java.util.zip, bzip2 and xz files are decompressed by the bzip2/xz command line tools
+//every buffer passed to the parser ends with a complete line, the incomplete last line is moved to the next buffer
+public class DecompressionPipeline {
+
+    private static final int BUFFER_SIZE=1<<20; //1 MB buffers
+    private static final int NO_OF_BUFFERS=4; //buffers in flight between decompression thread and parser
+    private static final ByteBuffer END_OF_INPUT=ByteBuffer.allocate(0); //marks the last buffer
+
+    private final File file;
+    private final BlockingQueue<ByteBuffer> filledBuffers=new ArrayBlockingQueue<ByteBuffer>(NO_OF_BUFFERS+1);
+    private final BlockingQueue<ByteBuffer> freeBuffers=new ArrayBlockingQueue<ByteBuffer>(NO_OF_BUFFERS);
+    private volatile IOException error; //error of the decompression thread
+    private long noOfBytes; //number of decompressed bytes
+
+
+    private DecompressionPipeline(File file){
+        this.file=file;
+        for(int i=0;i<NO_OF_BUFFERS;i++){
+            freeBuffers.add(ByteBuffer.allocate(BUFFER_SIZE));
+        }
+    }
+
+
+    //check if the file is compressed (by file extension)
+    public static boolean isCompressed(File file){
+        String name=file.getName();
+        return name.endsWith(".gz") || name.endsWith(".bz2") || name.endsWith(".xz");
+    }
+
+
+    //decompress the file and pass every line to the handler
+    //returns the number of decompressed bytes
+    public static long read(File file, DimacsReader.LineHandler handler) throws IOException {
+        final DecompressionPipeline pipeline=new DecompressionPipeline(file);
+
+        Thread decompressor=new Thread(new Runnable() {
+            @Override
+            public void run() {
+                pipeline.decompress();
+            }
+        }, "decompress-" + file.getName());
+        decompressor.setDaemon(true);
+        decompressor.start();
+
+        try{
+            pipeline.parse(handler);
+        }finally {
+            //stop the decompression thread if parsing failed
+            decompressor.interrupt();
+        }
+
+        return pipeline.noOfBytes;
+    }
+
+
+    //parser side: take filled buffers, parse them and give them back to the decompression thread
+    private void parse(DimacsReader.LineHandler handler) throws IOException {
+        try{
+            while(true){
+                ByteBuffer buffer=filledBuffers.take();
+                if(buffer==END_OF_INPUT)
+                    break;
+
+                DimacsReader.parse(buffer, 0, buffer.limit(), true, handler);
+                noOfBytes+=buffer.limit();
+
+                buffer.clear();
+                freeBuffers.put(buffer);
+            }
+        }catch (InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new IOException("Reading " + file.getName() + " was interrupted");
+        }
+
+        if(error != null)
+            throw error;
+    }
+
+
+    //decompression side: fill free buffers with decompressed data
+    private void decompress(){
+        Process process=null;
+        try{
+            InputStream in;
+            String name=file.getName();
+            if(name.endsWith(".gz")){
+                in=new GZIPInputStream(new FileInputStream(file), 1<<16);
+            }else{
+                process=startTool(name.endsWith(".bz2") ? "bzip2" : "xz");
+                in=process.getInputStream();
+            }
+
+            try{
+                byte[] carry=new byte[0]; //incomplete last line of the previous buffer
+                boolean endOfInput=false;
+
+                while(!endOfInput){
+                    ByteBuffer buffer=freeBuffers.take();
+                    byte[] bytes=buffer.array();
+                    int length=carry.length;
+                    System.arraycopy(carry, 0, bytes, 0, length);
+
+                    //fill the buffer
+                    while(length<bytes.length){
+                        int bytesRead=in.read(bytes, length, bytes.length-length);
+                        if(bytesRead<0){
+                            endOfInput=true;
+                            break;
+                        }
+                        length+=bytesRead;
+                    }
+
+                    //keep the incomplete last line for the next buffer
+                    int end=length;
+                    if(!endOfInput){
+                        while(end>0 && bytes[end-1]!='\n')
+                            end--;
+                        if(end==0)
+                            throw new IOException("Line in " + name + " is longer than " + BUFFER_SIZE + " bytes");
+                    }
+                    carry=Arrays.copyOfRange(bytes, end, length);
+
+                    buffer.limit(end);
+                    filledBuffers.put(buffer);
+                }
+            }finally {
+                in.close();
+            }
+
+            if(process != null && process.waitFor() != 0)
+                throw new IOException("Decompression of " + name + " failed with exit code " + process.exitValue());
+
+        }catch (IOException ex){
+            error=ex;
+        }catch (InterruptedException ex){
+            error=new IOException("Decompression of " + file.getName() + " was interrupted");
+        }finally {
+            if(process != null)
+                process.destroy();
+            filledBuffers.offer(END_OF_INPUT);
+        }
+    }
+
+
+    //start command line tool which writes decompressed file to its standard output
+    private Process startTool(String tool) throws IOException {
+        try{
+            ProcessBuilder builder=new ProcessBuilder(tool, "-dc", file.getPath());
+            builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            return builder.start();
+        }catch (IOException ex){
+            throw new IOException(tool + " is required to read " + file.getName(), ex);
+        }
+    }
+}
@@ -1,152 +1,129 @@
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.Map;
 import java.util.Stack;
 
 //Dijkstra's shortest path algorithm
 //structure of Dijkstra's algorithm was adapted from http://algs4.cs.princeton.edu/44sp/DijkstraSP.java.html
-public class Dijkstra{
+public class Dijkstra implements QueryEngine {
 
-    private Set<Vertex> settledNodes; //Set S - nodes v for which we know that shortest path estimate is equal to the shortest path distance
-    private MinPriorityQueue minPQ; //nodes in priority queue
-    private Map<Vertex, Vertex> parent; //parent nodes
-    private Map<Vertex, Integer> d; //shortest path estimate
+    private final Graph g; //graph with weighted edges
 
-    //stats
-    private StatsForQuerying stats;
-    private int noOfNodeScans=0;
-    private int noOfArcScans=0;
-    private int noOfDistImprovements=0; //number of effective relax operations
-    private long qryStartTime, qryEndTime;
 
+    public Dijkstra(Graph g){
+        this.g=g;
+    }
 
-    //g - graph with weighted edges
-    //v - source vertex
-    public Dijkstra(Graph g, Vertex src, Vertex dest, int queryId){
-        System.out.println("Simple Dijkstra's algorithm running..." + queryId);
-
-        d=new HashMap<Vertex, Integer>(); //distance vector - shortest distance estimate from source to a particular vertex
-        parent=new HashMap<Vertex, Vertex>(); //parent vector
-        settledNodes=new HashSet<Vertex>();
-
-        //initialization
-        initialization(g,src);
-
-        //dump all vertices to priority queue
-        minPQ=new MinPriorityQueue(d.entrySet());
+    @Override
+    public String getName(){
+        return "Simple Dijkstra's algorithm";
+    }
 
-        //stats
-        stats=new StatsForQuerying();
+    @Override
+    public QueryResult query(Vertex src, Vertex dest){
+        StatsForQuerying stats=new StatsForQuerying();
 
         //mark start of query
-        qryStartTime=System.nanoTime();
-        while(!minPQ.isEmpty()){
-            HeapEntry he= minPQ.extractMin();
-            noOfNodeScans++; //increment the number of node scans
-
-            Vertex vertex=he.getNode();
-            settledNodes.add(vertex);
+        long qryStartTime=System.nanoTime();
 
-            //check if the extracted node is a destination node
-            if(vertex.equals(dest))
-                break; //the while loop
-
-            //relaxation
-            //for each vertex in the adjacency list apply relax operation
-            for(Edge e: g.getAdjList(vertex)){
-                relax(e);
-
-                noOfArcScans++;
-            }
-        } //end while
+        SearchState state=SearchState.acquire(SearchState.FORWARD, g.V());
+        search(state, src.getId(), dest.getId(), stats);
 
         //mark end of query
-        qryEndTime=System.nanoTime();
-
+        long qryEndTime=System.nanoTime();
         stats.setQryExecTime(qryEndTime-qryStartTime);
-        stats.setNoOfNodesScanned(noOfNodeScans);
-        stats.setNoOfArcsScanned(noOfArcScans);
-        stats.setNoOfDistImprovements(noOfDistImprovements);
+
+        return new QueryResult(src, dest, state.getDistance(dest.getId()), null, state, null, stats);
     }
 
+    //calculate shortest path tree from root to all other vertices (used by edge flag algorithm)
+    //the returned state is valid until the next tree is calculated
+    public SearchState shortestPathTree(Vertex root){
+        return shortestPathTree(root, null);
+    }
 
-    //overloaded constructor (used by edge flag algorithm)
-    //no need to keep stats
-    public Dijkstra(Graph g, Vertex src, int id){
-        System.out.println("Edge flag calculation using Dijkstra..." + id);
+    //calculate shortest path tree from root and count scanned nodes and arcs in stats (stats may be null)
+    public SearchState shortestPathTree(Vertex root, StatsForQuerying stats){
+        SearchState state=SearchState.acquire(SearchState.PREPROCESSING, g.V());
+        search(state, root.getId(), SearchState.NO_PARENT, stats);
+        return state;
+    }
 
-        d=new HashMap<Vertex, Integer>(); //distance vector - shortest distance estimate from source to a particular vertex
-        parent=new HashMap<Vertex, Vertex>(); //parent vector
-        settledNodes=new HashSet<Vertex>();
+    //search from src until dest is settled (or all reachable vertices if dest is NO_PARENT)
+    private void search(SearchState state, int src, int dest, StatsForQuerying stats){
+        int noOfNodeScans=0;
+        int noOfArcScans=0;
+        int noOfDistImprovements=0; //number of effective relax operations
 
         //initialization
-        initialization(g,src);
+        state.setDistance(src, 0); //distance to the source vertex is set to zero
 
-        //dump all vertices to priority queue
-        minPQ=new MinPriorityQueue(d.entrySet());
+        //priority queue holds discovered vertices, starting with the source vertex
+        VertexPriorityQueue minPQ=state.getQueue();
+        minPQ.insertOrDecreaseKey(src, 0);
+        CompressedArcs.Cursor cursor= Main.GRAPH_LAYOUT==2 ? g.getArcCursor() : null; //decodes arcs of compressed layout
 
         while(!minPQ.isEmpty()){
-            HeapEntry he= minPQ.extractMin();
-            Vertex vertex=he.getNode();
-            settledNodes.add(vertex);
+            int vertex=minPQ.extractMin();
+            noOfNodeScans++; //increment the number of node scans
+            state.setSettled(vertex);
+
+            //check if the extracted node is a destination node
+            if(vertex==dest)
+                break; //the while loop
 
             //relaxation
             //for each vertex in the adjacency list apply relax operation
-            for(Edge e: g.getAdjList(vertex)){
-                relax(e);
-            }
-        }
-    }
+            if(Main.GRAPH_LAYOUT==1){
+                //scan outgoing arcs by index in CSR layout
+                for(int a=g.getFirstArc(vertex); a<g.getEndArc(vertex); a++){
+                    if(relax(state, minPQ, vertex, g.getArcHead(a), g.getArcWeight(a)))
+                        noOfDistImprovements++;
 
-    //initialization of relaxation technique
-    private void initialization(Graph g, Vertex src){
+                    noOfArcScans++;
+                }
+            }else if(Main.GRAPH_LAYOUT==2){
+                //decode outgoing arcs of compressed layout
+                cursor.reset(vertex);
+                while(cursor.next()){
+                    if(relax(state, minPQ, vertex, cursor.getHead(), cursor.getWeight()))
+                        noOfDistImprovements++;
+
+                    noOfArcScans++;
+                }
+            }else{
+                for(Edge e: g.getAdjList(g.getVertex(vertex))){
+                    if(relax(state, minPQ, vertex, e.getDestination().getId(), e.getWeight()))
+                        noOfDistImprovements++;
 
-        //populate distance vector d with nodes from graph g, set each node's shortest path estimate to infinity
-        for(Vertex v: g.getVertices()){
-            if(v != null)
-                d.put(v, (int)Double.POSITIVE_INFINITY);
-        }
-        d.put(src,0); //distance to the source vertex is set to zero
+                    noOfArcScans++;
+                }
+            }
+        } //end while
 
-        //populate the parent array with nodes
-        for(Vertex v: g.getVertices()){
-            if(v!= null)
-                parent.put(v, null);
+        if(stats != null){
+            stats.setNoOfNodesScanned(noOfNodeScans);
+            stats.setNoOfArcsScanned(noOfArcScans);
+            stats.setNoOfDistImprovements(noOfDistImprovements);
         }
     }
 
-    //relaxation
-    private void relax(Edge e){
-        Vertex src = e.getSource();
-        Vertex dest = e.getDestination();
-
-        if (d.get(dest) > d.get(src) + e.getWeight()) {
-            d.put(dest, d.get(src) + e.getWeight());
-            noOfDistImprovements++; //increment the no of distance improvements
-
-            minPQ.decreaseKey(dest, d.get(dest));
-            parent.put(dest, src);
+    //relaxation of an arc from src to dest, returns true if shortest path estimate of dest was improved
+    private static boolean relax(SearchState state, VertexPriorityQueue minPQ, int src, int dest, int weight){
+        int distance=state.getDistance(src) + weight;
+        if (state.getDistance(dest) > distance) {
+            state.update(dest, distance, src);
+            minPQ.insertOrDecreaseKey(dest, distance);
+            return true;
         }
-    }
-
-    //get shortest path estimate from source vertex to vertex v
-    private int getShortestPathEstimate(Vertex v){
-        return d.get(v);
-    }
-
-    //is there a path between source vertex and vertex v?
-    private boolean hasPathTo(Vertex v) {
-        return d.get(v) < (int)Double.POSITIVE_INFINITY;
+        return false;
     }
 
     //returns the path between source vertex and vertex v, or null if no such path exists
-    private Iterable<Edge> getPathTo(Graph g, Vertex v) {
-        if (!hasPathTo(v)) return null;
+    static Iterable<Edge> getPathTo(Graph g, SearchState state, Vertex v) {
+        if (state.getDistance(v.getId()) == SearchState.INFINITY) return null;
 
         Stack<Edge> path = new Stack<Edge>();
 
-        for (Vertex parentV = parent.get(v); parentV != null; v=parentV, parentV = parent.get(parentV)) {
+        for (int parentId = state.getParent(v.getId()); parentId != SearchState.NO_PARENT; v=g.getVertex(parentId), parentId = state.getParent(parentId)) {
+            Vertex parentV=g.getVertex(parentId);
 
             for(Edge e: g.getEdges()){
                 if(e.getSource().equals(parentV) && e.getDestination().equals(v)){
@@ -160,24 +137,22 @@ public class Dijkstra{
         return path;
     }
 
-    //return shortest path estimate vector (used by edge flag algorithm when calculating the edge flags)
-    public Map<Vertex,Integer> getDistances(){
-        return d;
-    }
-
     //print the shortest path from source vertex to destination vertex
-    public void printShortestPath(Graph g, Vertex src, Vertex dest){
+    @Override
+    public void printShortestPath(Graph g, QueryResult result){
 
         String path="";
+        Vertex src=result.getSrc();
+        Vertex dest=result.getDest();
 
         // print shortest path
-        if (hasPathTo(dest)) {
+        if (result.hasPath()) {
             System.out.println("Source: " + src.toString());
             System.out.println("Destination: " + dest.toString());
-            System.out.println("Shortest path estimate: " + getShortestPathEstimate(dest));
-            System.out.println("Total number of effective relax operations: " + noOfDistImprovements);
+            System.out.println("Shortest path estimate: " + result.getDistance());
+            System.out.println("Total number of effective relax operations: " + result.getStats().getNoOfDistImprovements());
 
-            for (Edge e : getPathTo(g,dest)) {
+            for (Edge e : getPathTo(g, result.getForwardState(), dest)) {
                 path =e+ "\n" + path;
             }
             System.out.println("Shortest path from src to dest:\n" + path);
@@ -188,7 +163,8 @@ public class Dijkstra{
         }
     }
 
-    public StatsForQuerying getStatsForQuery(){
-        return stats;
+    @Override
+    public StatsForPreprocessing getStatsForPrep(){
+        return null;
     }
 }
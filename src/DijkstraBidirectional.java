@@ -1,246 +1,171 @@
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.Map;
-import java.util.Stack;
-
 //Bidirectional Dijkstr'a shortest path algorithm
+//the search with the smaller key is expanded, the shortest s-t path found so far (mu) is updated whenever an arc is
+//relaxed to a vertex reached by the other search, and both searches stop when the sum of their smallest keys reaches mu
 //structure of Dijkstra's algorithm was adapted from http://algs4.cs.princeton.edu/44sp/DijkstraSP.java.html
-public class DijkstraBidirectional{
-
-    private Set<Vertex> settledNodes; //Set S - nodes v for which we know that shortest path estimate is equal to the shortest path distance
-
-    private MinPriorityQueue minPQ_f; //nodes in priority queue for forward search
-    private MinPriorityQueue minPQ_b; //nodes in priority queue for backward search
+public class DijkstraBidirectional implements QueryEngine {
 
-    private Map<Vertex, Vertex> parent_f; //parent nodes for forward search
-    private Map<Vertex, Vertex> parent_b; //parent nodes for backward search
+    private final Graph g; //graph with weighted edges
+    private final Graph revGraph; //reverse view of graph g used by backward search
 
-    private Map<Vertex, Integer> d_f; //shortest path estimate for forward
-    private Map<Vertex, Integer> d_b; //shortest path estimate for backward
 
-    private Vertex commonVertex; //the vertex where forward and backward Dijkstra algorithms meet
-
-    //stats
-    private StatsForQuerying stats;
-    private int noOfNodeScans=0;
-    private int noOfArcScans=0;
-    private int noOfDistImprovements=0; //number of effective relax operations
-    private long qryStartTime, qryEndTime;
+    public DijkstraBidirectional(Graph g, Graph revGraph){
+        this.g=g;
+        this.revGraph=revGraph;
+    }
 
+    @Override
+    public String getName(){
+        return "Bidirectional Dijkstra's algorithm";
+    }
 
-    //g - graph with weighted edges
-    //v - source vertex
-    public DijkstraBidirectional(Graph g, Graph revGraph, Vertex src, Vertex dest, int queryId){
-        System.out.println("Bidirectional Dijkstra's algorithm running..." + queryId);
+    @Override
+    public QueryResult query(Vertex src, Vertex dest){
+        int noOfNodeScans=0;
+        int noOfArcScans=0;
+        int noOfDistImprovements=0; //number of effective relax operations
+        int mu=SearchState.INFINITY; //length of the shortest s-t path found so far
+        int commonVertex=SearchState.NO_PARENT; //vertex of that path where forward and backward Dijkstra algorithms meet
+        StatsForQuerying stats=new StatsForQuerying();
 
-        d_f=new HashMap<Vertex, Integer>(); //distance vector - shortest distance estimate from source to a particular vertex
-        d_b=new HashMap<Vertex, Integer>(); //distance vector - shortest distance estimate from destination to a particular vertex
-        parent_f=new HashMap<Vertex, Vertex>(); //parent vector
-        parent_b=new HashMap<Vertex, Vertex>();
-        settledNodes=new HashSet<Vertex>();
+        //mark start of query
+        long qryStartTime=System.nanoTime();
 
         //initialization
-        initialization(g,src, dest);
-
-        //dump all vertices to priority queue
-        minPQ_f=new MinPriorityQueue(d_f.entrySet());
-        minPQ_b=new MinPriorityQueue(d_b.entrySet());
-
-        //stats
-        stats=new StatsForQuerying();
+        SearchState state_f=SearchState.acquire(SearchState.FORWARD, g.V()); //shortest path estimates, parent nodes and settled nodes of forward search
+        SearchState state_b=SearchState.acquire(SearchState.BACKWARD, g.V()); //shortest path estimates, parent nodes and settled nodes of backward search
+        state_f.setDistance(src.getId(), 0); //distance to the source vertex is set to zero
+        state_b.setDistance(dest.getId(), 0); //distance to the destination vertex is set to zero
+
+        //priority queues hold discovered vertices, starting with the source and the destination vertex
+        VertexPriorityQueue minPQ_f=state_f.getQueue();
+        VertexPriorityQueue minPQ_b=state_b.getQueue();
+        minPQ_f.insertOrDecreaseKey(src.getId(), 0);
+        minPQ_b.insertOrDecreaseKey(dest.getId(), 0);
+        CompressedArcs.Cursor cursor_f= Main.GRAPH_LAYOUT==2 ? g.getArcCursor() : null; //decodes arcs of compressed layout
+        CompressedArcs.Cursor cursor_b= Main.GRAPH_LAYOUT==2 ? revGraph.getArcCursor() : null;
+
+        if(src.getId()==dest.getId()){
+            mu=0;
+            commonVertex=src.getId();
+        }
 
-        //mark start of query
-        qryStartTime=System.nanoTime();
         while(!minPQ_f.isEmpty() && !minPQ_b.isEmpty()){
 
-            //operation for forward Dijkstra's algorithm
-            HeapEntry he_f= minPQ_f.extractMin();
-            noOfNodeScans++; //increment the number of node scans
-
-            Vertex vertex_f=he_f.getNode();
-            if(settledNodes.contains(vertex_f)) {
-                commonVertex = vertex_f;
-                break; //forward and backward Dijkstra algorithms meet at vertex_f
-            }
-            else {
-                settledNodes.add(vertex_f);
-            }
-
-            //relaxation
-            //for each vertex in the adjacency list apply relax operation
-            for(Edge e: g.getAdjList(vertex_f)){
+            //no path through unsettled vertices is shorter than mu
+            if((long)minPQ_f.getMinKey() + minPQ_b.getMinKey() >= mu)
+                break;
 
-                relax(e, true);
+            //expand the search with the smaller key
+            boolean isForward= minPQ_f.getMinKey() <= minPQ_b.getMinKey();
+            Graph graph= isForward ? g : revGraph;
+            SearchState state= isForward ? state_f : state_b;
+            SearchState other= isForward ? state_b : state_f;
+            VertexPriorityQueue minPQ= isForward ? minPQ_f : minPQ_b;
+            CompressedArcs.Cursor cursor= isForward ? cursor_f : cursor_b;
 
-                noOfArcScans++;
-            }
-
-
-            //operation for backward Dijkstra's algorithm
-            HeapEntry he_b= minPQ_b.extractMin();
+            int vertex=minPQ.extractMin();
             noOfNodeScans++; //increment the number of node scans
-
-            Vertex vertex_b=he_b.getNode();
-            if(settledNodes.contains(vertex_b)) {
-                commonVertex = vertex_b;
-                break; //forward and backward Dijkstra algorithms meet at vertex_b
-            }
-            else {
-                settledNodes.add(vertex_b);
-            }
+            state.setSettled(vertex);
 
             //relaxation
-            //for each vertex in the adjacency list apply relax operation
-            for(Edge e: revGraph.getAdjList(vertex_b)){
-                relax(e, false);
-
-                noOfArcScans++;
+            //for each vertex in the adjacency list apply relax operation and update the shortest s-t path
+            if(Main.GRAPH_LAYOUT==1){
+                //scan outgoing arcs by index in CSR layout
+                for(int a=graph.getFirstArc(vertex); a<graph.getEndArc(vertex); a++){
+                    int head=graph.getArcHead(a);
+                    if(relax(state, minPQ, vertex, head, graph.getArcWeight(a))){
+                        noOfDistImprovements++;
+                        if(other.getDistance(head) != SearchState.INFINITY && state.getDistance(head) + other.getDistance(head) < mu){
+                            mu=state.getDistance(head) + other.getDistance(head);
+                            commonVertex=head;
+                        }
+                    }
+
+                    noOfArcScans++;
+                }
+            }else if(Main.GRAPH_LAYOUT==2){
+                //decode outgoing arcs of compressed layout
+                cursor.reset(vertex);
+                while(cursor.next()){
+                    int head=cursor.getHead();
+                    if(relax(state, minPQ, vertex, head, cursor.getWeight())){
+                        noOfDistImprovements++;
+                        if(other.getDistance(head) != SearchState.INFINITY && state.getDistance(head) + other.getDistance(head) < mu){
+                            mu=state.getDistance(head) + other.getDistance(head);
+                            commonVertex=head;
+                        }
+                    }
+
+                    noOfArcScans++;
+                }
+            }else{
+                for(Edge e: graph.getAdjList(graph.getVertex(vertex))){
+                    int head=e.getDestination().getId();
+                    if(relax(state, minPQ, vertex, head, e.getWeight())){
+                        noOfDistImprovements++;
+                        if(other.getDistance(head) != SearchState.INFINITY && state.getDistance(head) + other.getDistance(head) < mu){
+                            mu=state.getDistance(head) + other.getDistance(head);
+                            commonVertex=head;
+                        }
+                    }
+
+                    noOfArcScans++;
+                }
             }
         } //end while
 
         //mark end of query
-        qryEndTime=System.nanoTime();
+        long qryEndTime=System.nanoTime();
 
         stats.setQryExecTime(qryEndTime-qryStartTime);
         stats.setNoOfNodesScanned(noOfNodeScans);
         stats.setNoOfArcsScanned(noOfArcScans);
         stats.setNoOfDistImprovements(noOfDistImprovements);
-    }
-
 
-    //initialization of relaxation technique
-    private void initialization(Graph g, Vertex src, Vertex dest){
-
-        //populate distance vector d with nodes from graph g, set each node's shortest path estimate to infinity
-        for(Vertex v: g.getVertices()){
-            if(v != null){
-                d_f.put(v, (int)Double.POSITIVE_INFINITY);
-                d_b.put(v, (int)Double.POSITIVE_INFINITY);
-            }
-        }
-        d_f.put(src,0); //distance to the source vertex is set to zero
-        d_b.put(dest,0);
-
-        //populate the parent array with nodes
-        for(Vertex v: g.getVertices()){
-            if(v!= null) {
-                parent_f.put(v, null);
-                parent_b.put(v, null);
-            }
-        }
-    }
-
-    //relaxation
-    private void relax(Edge e, boolean isForward){
-        Vertex src = e.getSource();
-        Vertex dest = e.getDestination();
-
-        if(isForward){
-            if (d_f.get(dest) > d_f.get(src) + e.getWeight()) {
-                d_f.put(dest, d_f.get(src) + e.getWeight());
-                noOfDistImprovements++; //increment the no of distance improvements
-
-                minPQ_f.decreaseKey(dest, d_f.get(dest));
-                parent_f.put(dest, src);
-            }
-        }else{ //backward search
-            if (d_b.get(dest) > d_b.get(src) + e.getWeight()) {
-                d_b.put(dest, d_b.get(src) + e.getWeight());
-                noOfDistImprovements++; //increment the no of distance improvements
-
-                minPQ_b.decreaseKey(dest, d_b.get(dest));
-                parent_b.put(dest, src);
-            }
-        }
-    }
-
-    //get shortest path estimate from source vertex to vertex v (used by forward Dijkstra)
-    private int getShortestPathEstimateForward(Vertex v){
-        return d_f.get(v);
-    }
-
-    //get shortest path estimate from destination vertex to vertex v (used by backward Dijkstra)
-    private int getShortestPathEstimateBackward(Vertex v){
-        return d_b.get(v);
-    }
-
-    //is there a path between source vertex and vertex v?
-    private boolean hasPathToForward(Vertex v) {
-        return d_f.get(v) < (int)Double.POSITIVE_INFINITY;
-    }
-
-    //is there a path between source vertex and vertex v?
-    private boolean hasPathToBackward(Vertex v) {
-        return d_b.get(v) < (int)Double.POSITIVE_INFINITY;
-    }
-
-    //returns the path between source vertex and vertex v, or null if no such path exists
-    private Iterable<Edge> getPathToForward(Graph g, Vertex v) {
-        if (!hasPathToForward(v)) return null;
-
-        Stack<Edge> path = new Stack<Edge>();
-
-        for (Vertex parentV = parent_f.get(v); parentV != null; v=parentV, parentV = parent_f.get(parentV)) {
-
-            for(Edge e: g.getEdges()){
-                if(e.getSource().equals(parentV) && e.getDestination().equals(v)){
-                    //push the edge to the stack
-                    path.push(e);
-
-                    break;
-                }
-            }
-        }
-        return path;
+        return new QueryResult(src, dest, mu, commonVertex==SearchState.NO_PARENT ? null : g.getVertex(commonVertex), state_f, state_b, stats);
     }
 
 
-    //returns the path between source vertex and vertex v, or null if no such path exists
-    private Iterable<Edge> getPathToBackward(Graph g, Vertex v) {
-        if (!hasPathToBackward(v)) return null;
-
-        Stack<Edge> path = new Stack<Edge>();
-
-        for (Vertex parentV = parent_b.get(v); parentV != null; v=parentV, parentV = parent_b.get(parentV)) {
-
-            for(Edge e: g.getEdges()){
-                if(e.getSource().equals(parentV) && e.getDestination().equals(v)){
-                    //push the edge to the stack
-                    path.push(e);
-
-                    break;
-                }
-            }
+    //relaxation of an arc from src to dest, returns true if shortest path estimate of dest was improved
+    private static boolean relax(SearchState state, VertexPriorityQueue minPQ, int src, int dest, int weight){
+        int distance=state.getDistance(src) + weight;
+        if (state.getDistance(dest) > distance) {
+            state.update(dest, distance, src);
+            minPQ.insertOrDecreaseKey(dest, distance);
+            return true;
         }
-        return path;
+        return false;
     }
 
 
     //print the shortest path from source vertex to destination vertex
-    public void printShortestPath(Graph g, Vertex src, Vertex dest){
+    @Override
+    public void printShortestPath(Graph g, QueryResult result){
 
         String forwardPath="";
         String backwardPath="";
+        Vertex src=result.getSrc();
+        Vertex dest=result.getDest();
+        Vertex commonVertex=result.getMeetingVertex();
 
         // print shortest path
-        if (hasPathToForward(commonVertex) && hasPathToBackward(commonVertex)) {
+        if (result.hasPath()) {
             System.out.println();
             System.out.println("Source: " + src.toString());
             System.out.println("Destination: " + dest.toString());
             System.out.println("Meeting point: " + commonVertex.toString());
-            System.out.println("Shortest path estimate from src to mp: " + getShortestPathEstimateForward(commonVertex));
-            System.out.println("Shortest path estimate from dest to mp: " + getShortestPathEstimateBackward(commonVertex));
-            System.out.println("Total shortest path estimate from src to dest: " + (getShortestPathEstimateForward(commonVertex) + getShortestPathEstimateBackward(commonVertex)));
-            System.out.println("Total number of effective relax operations: " + noOfDistImprovements);
+            System.out.println("Shortest path estimate from src to mp: " + result.getForwardState().getDistance(commonVertex.getId()));
+            System.out.println("Shortest path estimate from dest to mp: " + result.getBackwardState().getDistance(commonVertex.getId()));
+            System.out.println("Total shortest path estimate from src to dest: " + result.getDistance());
+            System.out.println("Total number of effective relax operations: " + result.getStats().getNoOfDistImprovements());
 
-            for (Edge e : getPathToForward(g,commonVertex)) {
+            for (Edge e : Dijkstra.getPathTo(g, result.getForwardState(), commonVertex)) {
                 forwardPath =e+ "\n" + forwardPath;
             }
             System.out.println("Shortest path from source to meeting point:\n" + forwardPath);
 
 
-            for (Edge e : getPathToBackward(g,commonVertex)) {
+            for (Edge e : Dijkstra.getPathTo(g, result.getBackwardState(), commonVertex)) {
                 backwardPath =e+ "\n" + backwardPath;
             }
             System.out.println("Shortest path from destination to meeting point:\n" + backwardPath);
@@ -252,7 +177,8 @@ public class DijkstraBidirectional{
     }
 
 
-    public StatsForQuerying getStatsForQuery(){
-        return stats;
+    @Override
+    public StatsForPreprocessing getStatsForPrep(){
+        return null;
     }
 }
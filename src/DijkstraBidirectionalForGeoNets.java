@@ -0,0 +1,206 @@
+//Bidirectional Dijkstra's algorithm which uses Euclidean distance as heuristic (bidirectional A* search)
+//both searches use averaged potentials: the forward potential of v is (bound(v,t) - bound(s,v))/2 and the backward
+//potential is its negation, so both searches see the same reduced arc weights and the search can stop as soon as the
+//sum of the smallest keys of both queues reaches the shortest s-t distance found so far
+//bounds are the straight line distances of the geographic lower bound, arc weights of the graph are not changed
+public class DijkstraBidirectionalForGeoNets implements QueryEngine {
+
+    private final Graph g; //graph with weighted edges
+    private final Graph revGraph; //reverse view of graph g used by backward search
+    private final GeoLowerBound lowerBound; //distance lower bound from precalculated unit vectors of the vertices
+
+
+    public DijkstraBidirectionalForGeoNets(Graph g, Graph revGraph){
+        this.g=g;
+        this.revGraph=revGraph;
+        this.lowerBound=g.getGeoLowerBound();
+    }
+
+    @Override
+    public String getName(){
+        return "Bidirectional Dijkstra's algorithm for geographical networks";
+    }
+
+    //keys are doubled to stay integral: 2*d_f(v) + bound(v,t) - bound(s,v) in the forward queue and
+    //2*d_b(v) + bound(s,v) - bound(v,t) in the backward queue, both shifted by bound(s,t)+1 so that they are never
+    //negative (the bound is symmetric and integral bounds keep the triangle inequality up to one unit)
+    @Override
+    public QueryResult query(Vertex src, Vertex dest){
+        int noOfNodeScans=0;
+        int noOfArcScans=0;
+        int noOfDistImprovements=0; //number of effective relax operations
+        StatsForQuerying stats=new StatsForQuerying();
+        int s=src.getId();
+        int t=dest.getId();
+        int mu=SearchState.INFINITY; //length of the shortest s-t path found so far
+        int commonVertex=SearchState.NO_PARENT; //vertex of that path where both searches meet
+
+        //mark start of query
+        long qryStartTime=System.nanoTime();
+
+        //initialization
+        SearchState state_f=SearchState.acquire(SearchState.FORWARD, g.V()); //forward search, caches bound(v,t) as potential
+        SearchState state_b=SearchState.acquire(SearchState.BACKWARD, g.V()); //backward search, caches bound(s,v) as potential
+        state_f.setDistance(s, 0); //distance to the source vertex is set to zero
+        state_b.setDistance(t, 0); //distance to the destination vertex is set to zero
+        int offset=lowerBound.get(s, t) + 1;
+
+        //priority queues hold discovered vertices, starting with the source and the destination vertex
+        VertexPriorityQueue minPQ_f=state_f.getQueue();
+        VertexPriorityQueue minPQ_b=state_b.getQueue();
+        minPQ_f.insertOrDecreaseKey(s, offset + forwardPotential(state_f, state_b, s, s, t));
+        minPQ_b.insertOrDecreaseKey(t, offset - forwardPotential(state_f, state_b, t, s, t));
+        if(s==t){
+            mu=0;
+            commonVertex=s;
+        }
+        CompressedArcs.Cursor cursor_f= Main.GRAPH_LAYOUT==2 ? g.getArcCursor() : null; //decodes arcs of compressed layout
+        CompressedArcs.Cursor cursor_b= Main.GRAPH_LAYOUT==2 ? revGraph.getArcCursor() : null;
+
+        while(!minPQ_f.isEmpty() && !minPQ_b.isEmpty()){
+
+            //no path through unsettled vertices is shorter than mu
+            if((long)minPQ_f.getMinKey() + minPQ_b.getMinKey() >= 2L*mu + 2L*offset)
+                break;
+
+            //expand the search with the smaller key
+            boolean isForward= minPQ_f.getMinKey() <= minPQ_b.getMinKey();
+            Graph graph= isForward ? g : revGraph;
+            SearchState state= isForward ? state_f : state_b;
+            SearchState other= isForward ? state_b : state_f;
+            VertexPriorityQueue minPQ= isForward ? minPQ_f : minPQ_b;
+            CompressedArcs.Cursor cursor= isForward ? cursor_f : cursor_b;
+
+            int vertex=minPQ.extractMin();
+            noOfNodeScans++; //increment the number of node scans
+            state.setSettled(vertex);
+
+            //relaxation
+            //for each vertex in the adjacency list apply relax operation and update the shortest s-t path
+            if(Main.GRAPH_LAYOUT==1){
+                //scan outgoing arcs by index in CSR layout
+                for(int a=graph.getFirstArc(vertex); a<graph.getEndArc(vertex); a++){
+                    int head=graph.getArcHead(a);
+                    if(relax(state_f, state_b, isForward, vertex, head, graph.getArcWeight(a), s, t, offset)){
+                        noOfDistImprovements++;
+                        if(other.getDistance(head) != SearchState.INFINITY && state.getDistance(head) + other.getDistance(head) < mu){
+                            mu=state.getDistance(head) + other.getDistance(head);
+                            commonVertex=head;
+                        }
+                    }
+
+                    noOfArcScans++;
+                }
+            }else if(Main.GRAPH_LAYOUT==2){
+                //decode outgoing arcs of compressed layout
+                cursor.reset(vertex);
+                while(cursor.next()){
+                    int head=cursor.getHead();
+                    if(relax(state_f, state_b, isForward, vertex, head, cursor.getWeight(), s, t, offset)){
+                        noOfDistImprovements++;
+                        if(other.getDistance(head) != SearchState.INFINITY && state.getDistance(head) + other.getDistance(head) < mu){
+                            mu=state.getDistance(head) + other.getDistance(head);
+                            commonVertex=head;
+                        }
+                    }
+
+                    noOfArcScans++;
+                }
+            }else{
+                for(Edge e: graph.getAdjList(graph.getVertex(vertex))){
+                    int head=e.getDestination().getId();
+                    if(relax(state_f, state_b, isForward, vertex, head, e.getWeight(), s, t, offset)){
+                        noOfDistImprovements++;
+                        if(other.getDistance(head) != SearchState.INFINITY && state.getDistance(head) + other.getDistance(head) < mu){
+                            mu=state.getDistance(head) + other.getDistance(head);
+                            commonVertex=head;
+                        }
+                    }
+
+                    noOfArcScans++;
+                }
+            }
+        } //end while
+
+        //mark end of query
+        long qryEndTime=System.nanoTime();
+
+        stats.setQryExecTime(qryEndTime-qryStartTime);
+        stats.setNoOfNodesScanned(noOfNodeScans);
+        stats.setNoOfArcsScanned(noOfArcScans);
+        stats.setNoOfDistImprovements(noOfDistImprovements);
+
+        return new QueryResult(src, dest, mu, commonVertex==SearchState.NO_PARENT ? null : g.getVertex(commonVertex), state_f, state_b, stats);
+    }
+
+    //relaxation of an arc of the forward or the backward search, returns true if shortest path estimate of dest was improved
+    private boolean relax(SearchState state_f, SearchState state_b, boolean isForward, int src, int dest, int weight, int s, int t, int offset){
+        SearchState state= isForward ? state_f : state_b;
+        int distance=state.getDistance(src) + weight;
+        if (state.getDistance(dest) > distance) {
+            int p=forwardPotential(state_f, state_b, dest, s, t);
+            state.update(dest, distance, src);
+            state.getQueue().insertOrDecreaseKey(dest, 2*distance + offset + (isForward ? p : -p));
+            return true;
+        }
+        return false;
+    }
+
+    //doubled forward potential bound(v,t) - bound(s,v), both bounds are calculated once per query and vertex
+    private int forwardPotential(SearchState state_f, SearchState state_b, int v, int s, int t){
+        int toTarget=state_f.getPotential(v);
+        if(toTarget==SearchState.NO_POTENTIAL){
+            toTarget=lowerBound.get(v, t);
+            state_f.setPotential(v, toTarget);
+        }
+
+        int fromSource=state_b.getPotential(v);
+        if(fromSource==SearchState.NO_POTENTIAL){
+            fromSource=lowerBound.get(s, v);
+            state_b.setPotential(v, fromSource);
+        }
+        return toTarget - fromSource;
+    }
+
+
+    //print the shortest path from source vertex to destination vertex
+    @Override
+    public void printShortestPath(Graph g, QueryResult result){
+
+        String forwardPath="";
+        String backwardPath="";
+        Vertex src=result.getSrc();
+        Vertex dest=result.getDest();
+
+        // print shortest path
+        if (result.hasPath()) {
+            Vertex commonVertex=result.getMeetingVertex();
+
+            System.out.println();
+            System.out.println("Source: " + src.toString());
+            System.out.println("Destination: " + dest.toString());
+            System.out.println("Meeting point: " + commonVertex.toString());
+            System.out.println("Shortest path estimate: " + result.getDistance());
+            System.out.println("Total number of effective relax operations: " + result.getStats().getNoOfDistImprovements());
+
+            for (Edge e : Dijkstra.getPathTo(g, result.getForwardState(), commonVertex)) {
+                forwardPath =e+ "\n" + forwardPath;
+            }
+            System.out.println("Shortest path from source to meeting point:\n" + forwardPath);
+
+            for (Edge e : Dijkstra.getPathTo(g, result.getBackwardState(), commonVertex)) {
+                backwardPath =e+ "\n" + backwardPath;
+            }
+            System.out.println("Shortest path from destination to meeting point:\n" + backwardPath);
+        }
+        else {
+            System.out.printf("%s to %s         no path\n", src.toString(), dest.toString());
+        }
+    }
+
+
+    @Override
+    public StatsForPreprocessing getStatsForPrep(){
+        return null;
+    }
+}
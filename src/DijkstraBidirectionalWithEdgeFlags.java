@@ -1,232 +1,166 @@
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.Map;
-import java.util.Stack;
-
 //Dijkstra'a algorithm based on edge flags
+//the search with the smaller key is expanded, the shortest s-t path found so far (mu) is updated whenever an arc is
+//relaxed to a vertex reached by the other search, and both searches stop when the sum of their smallest keys reaches mu
 //structure of Dijkstra's algorithm was adapted from http://algs4.cs.princeton.edu/44sp/DijkstraSP.java.html
-public class DijkstraBidirectionalWithEdgeFlags{
-
-    private Set<Vertex> settledNodes; //Set S - nodes v for which we know that shortest path estimate is equal to the shortest path distance
-
-    private MinPriorityQueue minPQ_f; //nodes in priority queue for forward search
-    private MinPriorityQueue minPQ_b; //nodes in priority queue for backward search
-    private Map<Vertex, Vertex> parent_f; //parent nodes for forward search
-    private Map<Vertex, Vertex> parent_b; //parent nodes for backward search
-    private Map<Vertex, Integer> d_f; //shortest path estimate for forward
-    private Map<Vertex, Integer> d_b; //shortest path estimate for backward
-    private Vertex commonVertex; //the vertex where forward and backward Dijkstra algorithms meet
-
-    //stats
-    private StatsForQuerying statsQry;
-    private StatsForPreprocessing statsPrep;
-    private int noOfNodeScans=0;
-    private int noOfArcScans=0;
-    private int noOfDistImprovements=0;  //number of effective relax operations
-    private long qryStartTime, qryEndTime;
-
-    //g - graph with weighted edges
-    //v - source vertex
-    public DijkstraBidirectionalWithEdgeFlags(Graph g, Graph revGraph, Vertex src, Vertex dest, int queryId){
-
-        System.out.println("Bidirectional Dijkstra's algorithm with edge flags is running..."+ queryId);
-
-        d_f=new HashMap<Vertex, Integer>(); //distance vector - shortest distance estimate from source to a particular vertex
-        d_b=new HashMap<Vertex, Integer>(); //distance vector - shortest distance estimate from destination to a particular vertex
-        parent_f=new HashMap<Vertex, Vertex>(); //parent vector
-        parent_b=new HashMap<Vertex, Vertex>();
-        settledNodes=new HashSet<Vertex>();
+public class DijkstraBidirectionalWithEdgeFlags implements QueryEngine {
+
+    private final Graph g; //graph with weighted edges
+    private final Graph revGraph; //reverse view of graph g used by backward search
+    private final StatsForPreprocessing statsPrep;
+
+
+    //both graphs are partitioned and edge flags are calculated (or read from file) when the engine is created
+    public DijkstraBidirectionalWithEdgeFlags(Graph g, Graph revGraph){
+        this.g=g;
+        this.revGraph=revGraph;
 
         //stats
         statsPrep=new StatsForPreprocessing();
 
         g.preprocess(statsPrep);
         revGraph.preprocess(statsPrep);
+    }
+
+    @Override
+    public String getName(){
+        return "Bidirectional Dijkstra's algorithm with edge flags";
+    }
+
+    @Override
+    public QueryResult query(Vertex src, Vertex dest){
+        int noOfNodeScans=0;
+        int noOfArcScans=0;
+        int noOfDistImprovements=0;  //number of effective relax operations
+        int mu=SearchState.INFINITY; //length of the shortest s-t path found so far
+        int commonVertex=SearchState.NO_PARENT; //vertex of that path where forward and backward Dijkstra algorithms meet
+        StatsForQuerying statsQry=new StatsForQuerying();
 
         //SHORTEST PATH CALCULATION STEP
         int target_region=dest.getRegion(); //get the region ID where destination node belongs to (to be used by forward Dijkstra algorithm)
         int source_region=src.getRegion(); //get the region ID where destination node belongs to (to be used by backward Dijkstra algorithm)
 
-        //initialization
-        initialization(g,src, dest);
-
-        //dump all vertices to priority queue
-        minPQ_f=new MinPriorityQueue(d_f.entrySet());
-        minPQ_b=new MinPriorityQueue(d_b.entrySet());
-
-        //stats
-        statsQry=new StatsForQuerying();
-
         //mark start of query
-        qryStartTime=System.nanoTime();
-        while(!minPQ_f.isEmpty() && !minPQ_b.isEmpty()){
-            //operations for forward Dijkstra's algorithm
-            HeapEntry he_f= minPQ_f.extractMin();
-            noOfNodeScans++; //increment the number of node scans
+        long qryStartTime=System.nanoTime();
 
-            Vertex vertex_f=he_f.getNode();
-
-            //check if extracted node is the meeting point
-            if(settledNodes.contains(vertex_f)) {
-                commonVertex = vertex_f;
-                break; //forward and backward Dijkstra algorithms meet at vertex_f
-            }
-            else {
-                settledNodes.add(vertex_f);
-            }
-
-            //relaxation
-            //selectively apply relax operation for each vertex in the adjacency list
-            for(Edge e: g.getAdjList(vertex_f)){
-
-                if(!e.isFlagged(vertex_f, target_region)) continue; //skip edges which cannot be on the shortest path to the destination node
-
-                relax(e, true);
-
-                noOfArcScans++;
-            }
+        //initialization
+        SearchState state_f=SearchState.acquire(SearchState.FORWARD, g.V()); //shortest path estimates, parent nodes and settled nodes of forward search
+        SearchState state_b=SearchState.acquire(SearchState.BACKWARD, g.V()); //shortest path estimates, parent nodes and settled nodes of backward search
+        state_f.setDistance(src.getId(), 0); //distance to the source vertex is set to zero
+        state_b.setDistance(dest.getId(), 0); //distance to the destination vertex is set to zero
+
+        //priority queues hold discovered vertices, starting with the source and the destination vertex
+        VertexPriorityQueue minPQ_f=state_f.getQueue();
+        VertexPriorityQueue minPQ_b=state_b.getQueue();
+        minPQ_f.insertOrDecreaseKey(src.getId(), 0);
+        minPQ_b.insertOrDecreaseKey(dest.getId(), 0);
+        CompressedArcs.Cursor cursor_f= Main.GRAPH_LAYOUT==2 ? g.getArcCursor() : null; //decodes arcs of compressed layout
+        CompressedArcs.Cursor cursor_b= Main.GRAPH_LAYOUT==2 ? revGraph.getArcCursor() : null;
+
+        if(src.getId()==dest.getId()){
+            mu=0;
+            commonVertex=src.getId();
+        }
 
+        while(!minPQ_f.isEmpty() && !minPQ_b.isEmpty()){
 
+            //no path through unsettled vertices is shorter than mu
+            if((long)minPQ_f.getMinKey() + minPQ_b.getMinKey() >= mu)
+                break;
 
-            //operations for backward Dijkstra's algorithm
-            HeapEntry he_b= minPQ_b.extractMin();
+            //expand the search with the smaller key
+            //forward search scans edges flagged for the region of the destination node and backward search scans
+            //edges of the reverse graph flagged for the region of the source node
+            boolean isForward= minPQ_f.getMinKey() <= minPQ_b.getMinKey();
+            Graph graph= isForward ? g : revGraph;
+            SearchState state= isForward ? state_f : state_b;
+            SearchState other= isForward ? state_b : state_f;
+            VertexPriorityQueue minPQ= isForward ? minPQ_f : minPQ_b;
+            CompressedArcs.Cursor cursor= isForward ? cursor_f : cursor_b;
+            int region= isForward ? target_region : source_region;
+
+            int vertex=minPQ.extractMin();
             noOfNodeScans++; //increment the number of node scans
-
-            Vertex vertex_b=he_b.getNode();
-            if(settledNodes.contains(vertex_b)) {
-                commonVertex = vertex_b;
-                break; //forward and backward Dijkstra algorithms meet at vertex_b
-            }
-            else {
-                settledNodes.add(vertex_b);
-            }
+            state.setSettled(vertex);
 
             //relaxation
-            //selectively apply relax operation for each vertex in the adjacency list
-            for(Edge e: revGraph.getAdjList(vertex_b)){
-
-                if(!e.isFlagged(vertex_b, source_region)) continue; //skip edges which cannot be on the shortest path to the source node
-
-                relax(e, false);
-
-                noOfArcScans++;
+            //selectively apply relax operation for each vertex in the adjacency list and update the shortest s-t path
+            if(Main.GRAPH_LAYOUT==1){
+                //scan outgoing arcs by index in CSR layout
+                for(int a=graph.getFirstArc(vertex); a<graph.getEndArc(vertex); a++){
+
+                    if(!graph.isArcFlagged(a, region)) continue; //skip edges which cannot be on the shortest path
+
+                    int head=graph.getArcHead(a);
+                    if(relax(state, minPQ, vertex, head, graph.getArcWeight(a))){
+                        noOfDistImprovements++;
+                        if(other.getDistance(head) != SearchState.INFINITY && state.getDistance(head) + other.getDistance(head) < mu){
+                            mu=state.getDistance(head) + other.getDistance(head);
+                            commonVertex=head;
+                        }
+                    }
+
+                    noOfArcScans++;
+                }
+            }else if(Main.GRAPH_LAYOUT==2){
+                //decode outgoing arcs of compressed layout
+                cursor.reset(vertex);
+                while(cursor.next()){
+
+                    if(!graph.isArcFlagged(cursor.getArc(), region)) continue; //skip edges which cannot be on the shortest path
+
+                    int head=cursor.getHead();
+                    if(relax(state, minPQ, vertex, head, cursor.getWeight())){
+                        noOfDistImprovements++;
+                        if(other.getDistance(head) != SearchState.INFINITY && state.getDistance(head) + other.getDistance(head) < mu){
+                            mu=state.getDistance(head) + other.getDistance(head);
+                            commonVertex=head;
+                        }
+                    }
+
+                    noOfArcScans++;
+                }
+            }else{
+                Vertex v=graph.getVertex(vertex);
+                int a=graph.getFirstArc(vertex); //edges of the adjacency list are the arcs of the vertex in CSR order
+                for(Edge e: graph.getAdjList(v)){
+
+                    if(!graph.isArcFlagged(a++, region)) continue; //skip edges which cannot be on the shortest path
+
+                    int head=e.getDestination().getId();
+                    if(relax(state, minPQ, vertex, head, e.getWeight())){
+                        noOfDistImprovements++;
+                        if(other.getDistance(head) != SearchState.INFINITY && state.getDistance(head) + other.getDistance(head) < mu){
+                            mu=state.getDistance(head) + other.getDistance(head);
+                            commonVertex=head;
+                        }
+                    }
+
+                    noOfArcScans++;
+                }
             }
         } //end while
 
         //mark end of query
-        qryEndTime=System.nanoTime();
+        long qryEndTime=System.nanoTime();
 
         statsQry.setQryExecTime(qryEndTime-qryStartTime);
         statsQry.setNoOfNodesScanned(noOfNodeScans);
         statsQry.setNoOfArcsScanned(noOfArcScans);
         statsQry.setNoOfDistImprovements(noOfDistImprovements);
-    }
-
 
-    //initialization of relaxation technique
-    private void initialization(Graph g, Vertex src, Vertex dest){
-
-        //populate distance vector d with nodes from graph g, set each node's shortest path estimate to infinity
-        for(Vertex v: g.getVertices()){
-            if(v != null) {
-                d_f.put(v, (int) Double.POSITIVE_INFINITY);
-                d_b.put(v, (int) Double.POSITIVE_INFINITY);
-            }
-        }
-        d_f.put(src,0); //distance to the source vertex is set to zero
-        d_b.put(dest,0); //distance to the destination vertex is set to zero
-
-        //populate the parent array with nodes
-        for(Vertex v: g.getVertices()){
-            if(v!= null) {
-                parent_f.put(v, null);
-                parent_b.put(v, null);
-            }
-        }
-    }
-
-    //relaxation
-    private void relax(Edge e, boolean isForward){
-        Vertex src = e.getSource();
-        Vertex dest = e.getDestination();
-
-        if(isForward){ //relax operation of forward search
-            if (d_f.get(dest) > d_f.get(src) + e.getWeight()) {
-                d_f.put(dest, d_f.get(src) + e.getWeight());
-                noOfDistImprovements++; //increment the no of distance improvements
-
-                minPQ_f.decreaseKey(dest, d_f.get(dest));
-                parent_f.put(dest, src);
-            }
-        }else{ //relax op of backward search
-            if (d_b.get(dest) > d_b.get(src) + e.getWeight()) {
-                d_b.put(dest, d_b.get(src) + e.getWeight());
-                noOfDistImprovements++; //increment the no of distance improvements
-
-                minPQ_b.decreaseKey(dest, d_b.get(dest));
-                parent_b.put(dest, src);
-            }
-        }
-
-    }
-
-
-    //get shortest path estimate from source vertex to vertex v
-    private int getShortestPathEstimateForward(Vertex v){
-        return d_f.get(v);
-    }
-
-    //get shortest path estimate from destination vertex to vertex v
-    private int getShortestPathEstimateBackward(Vertex v){
-        return d_b.get(v);
+        return new QueryResult(src, dest, mu, commonVertex==SearchState.NO_PARENT ? null : g.getVertex(commonVertex), state_f, state_b, statsQry);
     }
 
-    //is there a path between source vertex and vertex v?
-    private boolean hasPathToForward(Vertex v) {
-        return d_f.get(v) < (int)Double.POSITIVE_INFINITY;
-    }
-
-    //is there a path between destination vertex and vertex v?
-    private boolean hasPathToBackward(Vertex v) {
-        return d_b.get(v) < (int)Double.POSITIVE_INFINITY;
-    }
-
-    //returns the path between source vertex and vertex v, or null if no such path exists
-    private Iterable<Edge> getPathToForward(Graph g, Vertex v) {
-        if (!hasPathToForward(v)) return null;
-
-        Stack<Edge> path = new Stack<Edge>();
 
-        for (Vertex parentV = parent_f.get(v); parentV != null; v=parentV, parentV = parent_f.get(parentV)) {
-
-            for(Edge e: g.getEdges()){
-                if(e.getSource().equals(parentV) && e.getDestination().equals(v)){
-                    path.push(e);
-                    break;
-                }
-            }
+    //relaxation of an arc from src to dest, returns true if shortest path estimate of dest was improved
+    private static boolean relax(SearchState state, VertexPriorityQueue minPQ, int src, int dest, int weight){
+        int distance=state.getDistance(src) + weight;
+        if (state.getDistance(dest) > distance) {
+            state.update(dest, distance, src);
+            minPQ.insertOrDecreaseKey(dest, distance);
+            return true;
         }
-        return path;
-    }
-
-
-    //returns the path between destination vertex and vertex v, or null if no such path exists
-    private Iterable<Edge> getPathToBackward(Graph g, Vertex v) {
-        if (!hasPathToBackward(v)) return null;
-
-        Stack<Edge> path = new Stack<Edge>();
-
-        for (Vertex parentV = parent_b.get(v); parentV != null; v=parentV, parentV = parent_b.get(parentV)) {
-
-            for(Edge e: g.getEdges()){
-                if(e.getSource().equals(parentV) && e.getDestination().equals(v)){
-                    path.push(e);
-                    break;
-                }
-            }
-        }
-        return path;
+        return false;
     }
 
 
@@ -266,32 +200,36 @@ public class DijkstraBidirectionalWithEdgeFlags{
 
 
     //print the shortest path from source vertex to destination vertex
-    public void printShortestPath(Graph g, Vertex src, Vertex dest){
+    @Override
+    public void printShortestPath(Graph g, QueryResult result){
 
         String forwardPath="";
         String backwardPath="";
+        Vertex src=result.getSrc();
+        Vertex dest=result.getDest();
+        Vertex commonVertex=result.getMeetingVertex();
 
         // print shortest path
-        if (hasPathToForward(commonVertex) && hasPathToBackward(commonVertex)) {
+        if (result.hasPath()) {
             System.out.println();
             System.out.println("Source: " + src.toString());
             System.out.println("Destination: " + dest.toString());
             System.out.println("Meeting point: " + commonVertex.toString());
-            System.out.println("Shortest path estimate from src to mp: " + getShortestPathEstimateForward(commonVertex));
-            System.out.println("Shortest path estimate from dest to mp: " + getShortestPathEstimateBackward(commonVertex));
-            System.out.println("Total shortest path estimate from src to dest: " + (getShortestPathEstimateForward(commonVertex) + getShortestPathEstimateBackward(commonVertex)));
+            System.out.println("Shortest path estimate from src to mp: " + result.getForwardState().getDistance(commonVertex.getId()));
+            System.out.println("Shortest path estimate from dest to mp: " + result.getBackwardState().getDistance(commonVertex.getId()));
+            System.out.println("Total shortest path estimate from src to dest: " + result.getDistance());
             System.out.println("Graph partitioning method: " + getGraphPartitioningMethod());
             System.out.println("Edge flag calculation method: " + getEdgeFlagCalculationMethod());
             System.out.println("Number of preprocessed nodes: " + statsPrep.getNoOfNodesScanned());
-            System.out.println("Total number of effective relax operations: " + noOfDistImprovements);
+            System.out.println("Total number of effective relax operations: " + result.getStats().getNoOfDistImprovements());
 
-            for (Edge e : getPathToForward(g,commonVertex)) {
+            for (Edge e : Dijkstra.getPathTo(g, result.getForwardState(), commonVertex)) {
                 forwardPath =e+ "\n" + forwardPath;
             }
             System.out.println("Shortest path from source to meeting point:\n" + forwardPath);
 
 
-            for (Edge e : getPathToBackward(g,commonVertex)) {
+            for (Edge e : Dijkstra.getPathTo(g, result.getBackwardState(), commonVertex)) {
                 backwardPath =e+ "\n" + backwardPath;
             }
             System.out.println("Shortest path from destination to meeting point:\n" + backwardPath);
@@ -302,10 +240,7 @@ public class DijkstraBidirectionalWithEdgeFlags{
         }
     }
 
-    public StatsForQuerying getStatsForQuery(){
-        return statsQry;
-    }
-
+    @Override
     public StatsForPreprocessing getStatsForPrep(){
         return statsPrep;
     }
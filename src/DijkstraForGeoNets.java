@@ -1,199 +1,131 @@
-import java.util.Set;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Stack;
-
-//Dijkstra's algorithm which uses Euclidean distance as heuristic
+//Dijkstra's algorithm which uses Euclidean distance as heuristic (A* search)
+//the straight line distance to the destination (scaled to a lower bound of the arc weights) is added to the key of
+//every vertex in the priority queue, arc weights of the graph are not changed
 //structure of Dijkstra's algorithm was adapted from http://algs4.cs.princeton.edu/44sp/DijkstraSP.java.html
-public class DijkstraForGeoNets{
+public class DijkstraForGeoNets implements QueryEngine {
 
-    private Set<Vertex> settledNodes; //Set S - nodes v for which we know that shortest path estimate is equal to the shortest path distance
-    private MinPriorityQueue minPQ; //nodes in priority queue
-    private Map<Vertex, Vertex> parent; //parent nodes
-    private Map<Vertex, Integer> d; //shortest path estimate
+    private final Graph g; //graph with weighted edges
+    private final GeoLowerBound lowerBound; //distance lower bound from precalculated unit vectors of the vertices
 
-    //stats
-    private StatsForQuerying stats;
-    private int noOfNodeScans=0;
-    private int noOfArcScans=0;
-    private int noOfDistImprovements=0; //number of effective relax operations
-    private long qryStartTime, qryEndTime;
 
-    //g - graph with weighted edges
-    //v - source vertex
-    public DijkstraForGeoNets(Graph g, Vertex src, Vertex dest, int queryId){
-        System.out.println("Dijkstra's algorithm for geographical networks is running..." + queryId);
+    public DijkstraForGeoNets(Graph g){
+        this.g=g;
+        this.lowerBound=g.getGeoLowerBound();
+    }
 
-        d=new HashMap<Vertex, Integer>(); //distance vector - shortest path estimate from src vertex to every other vertex
-        parent=new HashMap<Vertex, Vertex>(); //parent vector
-        settledNodes=new HashSet<Vertex>();
+    @Override
+    public String getName(){
+        return "Dijkstra's algorithm for geographical networks";
+    }
 
-        //initialization
-        initialization(g,src);
+    @Override
+    public QueryResult query(Vertex src, Vertex dest){
+        int noOfNodeScans=0;
+        int noOfArcScans=0;
+        int noOfDistImprovements=0; //number of effective relax operations
+        StatsForQuerying stats=new StatsForQuerying();
 
-        //dump all vertices to priority queue
-        minPQ=new MinPriorityQueue(d.entrySet());
+        //mark start of query
+        long qryStartTime=System.nanoTime();
 
-        //stats
-        stats=new StatsForQuerying();
+        //initialization
+        SearchState state=SearchState.acquire(SearchState.FORWARD, g.V());
+        state.setDistance(src.getId(), 0); //distance to the source vertex is set to zero
+
+        //priority queue holds discovered vertices ordered by shortest path estimate plus potential (A* search),
+        //starting with the source vertex
+        VertexPriorityQueue minPQ=state.getQueue();
+        minPQ.insertOrDecreaseKey(src.getId(), potential(state, src.getId(), dest));
+        CompressedArcs.Cursor cursor= Main.GRAPH_LAYOUT==2 ? g.getArcCursor() : null; //decodes arcs of compressed layout
 
-        //mark start of query
-        qryStartTime=System.nanoTime();
         while(!minPQ.isEmpty()){
-            HeapEntry he= minPQ.extractMin();
+            int vertex= minPQ.extractMin();
             noOfNodeScans++; //increment the number of node scans
-
-            Vertex vertex=he.getNode();
-            settledNodes.add(vertex);
+            state.setSettled(vertex);
 
             //check if the extracted node is a destination node
-            if(vertex.equals(dest))
+            if(vertex==dest.getId())
                 break; //while loop
 
-            //re-weight edges adjacent to the node
-            for(Edge e: g.getAdjList(vertex)){
-                reWeight(e, dest);
-            }
+            //relaxation
+            //for each vertex in the adjacency list apply relax operation
+            if(Main.GRAPH_LAYOUT==1){
+                //scan outgoing arcs by index in CSR layout
+                for(int a=g.getFirstArc(vertex); a<g.getEndArc(vertex); a++){
+                    if(relax(state, minPQ, vertex, g.getArcHead(a), g.getArcWeight(a), dest))
+                        noOfDistImprovements++;
 
-            //relax edges adjacent to the node
-            for(Edge e: g.getAdjList(vertex)){
-                relax(e);
+                    noOfArcScans++;
+                }
+            }else if(Main.GRAPH_LAYOUT==2){
+                //decode outgoing arcs of compressed layout
+                cursor.reset(vertex);
+                while(cursor.next()){
+                    if(relax(state, minPQ, vertex, cursor.getHead(), cursor.getWeight(), dest))
+                        noOfDistImprovements++;
+
+                    noOfArcScans++;
+                }
+            }else{
+                for(Edge e: g.getAdjList(g.getVertex(vertex))){
+                    if(relax(state, minPQ, vertex, e.getDestination().getId(), e.getWeight(), dest))
+                        noOfDistImprovements++;
 
-                noOfArcScans++;
+                    noOfArcScans++;
+                }
             }
         } //end while
 
         //mark end of query
-        qryEndTime=System.nanoTime();
+        long qryEndTime=System.nanoTime();
 
         stats.setQryExecTime(qryEndTime-qryStartTime);
         stats.setNoOfNodesScanned(noOfNodeScans);
         stats.setNoOfArcsScanned(noOfArcScans);
         stats.setNoOfDistImprovements(noOfDistImprovements);
-    }
-
-    //initialization of relaxation technique
-    private void initialization(Graph g, Vertex src){
-
-        //populate distance vector d with nodes from graph g
-        // set each node's shortest path estimate to infinity
-        for(Vertex v: g.getVertices()){
-            if(v != null)
-                d.put(v, (int)Double.POSITIVE_INFINITY);
-        }
-        d.put(src,0); //distance to the source vertex is set to zero
 
-        //populate the parent array with nodes
-        for(Vertex v: g.getVertices()){
-            if(v != null)
-                parent.put(v, null); //set the parent of all nodes to null
-        }
+        return new QueryResult(src, dest, state.getDistance(dest.getId()), null, state, null, stats);
     }
 
-    //relaxation
-    private void relax(Edge e){
-        Vertex src = e.getSource();
-        Vertex dest = e.getDestination();
-
-        if (d.get(dest) > d.get(src) + e.getWeight()) {
-            d.put(dest, d.get(src) + e.getWeight());
-            noOfDistImprovements++; //increment the no of distance improvements
-
-            minPQ.decreaseKey(dest, d.get(dest));
-            parent.put(dest, src);
+    //relaxation of an arc from src to dest, returns true if shortest path estimate of dest was improved
+    //the key of dest in the priority queue is its shortest path estimate plus its potential
+    private boolean relax(SearchState state, VertexPriorityQueue minPQ, int src, int dest, int weight, Vertex target){
+        int distance=state.getDistance(src) + weight;
+        if (state.getDistance(dest) > distance) {
+            state.update(dest, distance, src);
+            minPQ.insertOrDecreaseKey(dest, distance + potential(state, dest, target));
+            return true;
         }
+        return false;
     }
 
-    private void reWeight(Edge e, Vertex dest){
-        Vertex begin = e.getSource();
-        Vertex end = e.getDestination();
-
-        int beginToDest=dist(begin, dest); //straight line distance from node begin to dest
-        int endToDest=dist(end, dest); //straight line distance from node end to dest
-        int newWeight = e.getWeight() - beginToDest + endToDest;
-        e.reWeight(newWeight);
-    }
-
-    //distance calculation code was taken from http://www.geodatasource.com/developers/java
-    //distance is returned in unit used by DIMACS
-    private int dist(Vertex a, Vertex b){
-
-        //convert lon/lat into x/y coordinate system
-        double latA=(double)a.getLatitude() * 0.000001;
-        double lonA=(double)a.getLongitude() * 0.000001;
-
-        double latB=(double)b.getLatitude() * 0.000001;
-        double lonB=(double)b.getLongitude() * 0.000001;
-
-        double theta = lonA - lonB;
-        double dist = Math.sin(deg2rad(latA)) * Math.sin(deg2rad(latB)) +
-                Math.cos(deg2rad(latA)) * Math.cos(deg2rad(latB)) * Math.cos(deg2rad(theta));
-
-        dist = Math.acos(dist);
-        dist = rad2deg(dist);
-        dist = dist * 60 * 1.1515 * 1.609344;  //in kilometers
-        dist=dist*1000; //in meters
-
-        //the formula used to ajdust the arc weight is new_cost = (int)(TIGER_Line-Cost * 10 + 0.5) as per DIMACS rules
-        int new_cost = (int)(dist * 10 + 0.5);
-
-        return new_cost;
-    }
-
-	//this function converts decimal degrees to radians
-    private double deg2rad(double deg) {
-        return (deg * Math.PI / 180.0);
-    }
-
-	//this function converts radians to decimal degrees
-    private double rad2deg(double rad) {
-        return (rad * 180 / Math.PI);
-    }
-
-    //get shortest path estimate from source vertex to vertex v
-    private int getShortestPathEstimate(Vertex v){
-        return d.get(v);
-    }
-
-    //is there a path between source vertex and vertex v?
-    private boolean hasPathTo(Vertex v) {
-        return d.get(v) < (int)Double.POSITIVE_INFINITY;
-    }
-
-    //returns the path between source vertex and vertex v, or null if no such path exists
-    private Iterable<Edge> getPathTo(Graph g, Vertex v) {
-        if (!hasPathTo(v)) return null;
-
-        Stack<Edge> path = new Stack<Edge>();
-        for (Vertex parentV = parent.get(v); parentV != null; v=parentV, parentV = parent.get(parentV)) {
-
-            for(Edge e: g.getEdges()){
-                if(e.getSource().equals(parentV) && e.getDestination().equals(v)){
-                    //push the edge to the stack
-                    path.push(e);
-                    break;
-                }
-            }
+    //lower bound of the distance from vertex v to the target, calculated once per query and vertex
+    private int potential(SearchState state, int v, Vertex target){
+        int p=state.getPotential(v);
+        if(p==SearchState.NO_POTENTIAL){
+            p=lowerBound.get(v, target.getId());
+            state.setPotential(v, p);
         }
-        return path;
+        return p;
     }
 
-
     //print the shortest path from source vertex to destination vertex
-    public void printShortestPath(Graph g, Vertex src, Vertex dest){
+    @Override
+    public void printShortestPath(Graph g, QueryResult result){
 
         String path="";
+        Vertex src=result.getSrc();
+        Vertex dest=result.getDest();
 
         // print shortest path
-        if (hasPathTo(dest)) {
+        if (result.hasPath()) {
             System.out.println();
             System.out.println("Source: " + src.toString());
             System.out.println("Destination: " + dest.toString());
-            System.out.println("Shortest path estimate: " + getShortestPathEstimate(dest));
-            System.out.println("Total number of effective relax operations: " + noOfDistImprovements);
+            System.out.println("Shortest path estimate: " + result.getDistance());
+            System.out.println("Total number of effective relax operations: " + result.getStats().getNoOfDistImprovements());
 
-            for (Edge e : getPathTo(g,dest)) {
+            for (Edge e : Dijkstra.getPathTo(g, result.getForwardState(), dest)) {
                 path =e+ "\n" + path;
             }
             System.out.println("Shortest path: " + path);
@@ -205,7 +137,8 @@ public class DijkstraForGeoNets{
     }
 
 
-    public StatsForQuerying getStatsForQuery(){
-        return stats;
+    @Override
+    public StatsForPreprocessing getStatsForPrep(){
+        return null;
     }
 }
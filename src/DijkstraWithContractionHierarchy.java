@@ -0,0 +1,209 @@
+//Contraction hierarchies: bidirectional Dijkstra's algorithm on the contraction hierarchy of the graph
+//the forward search from the source only scans arcs to higher ranked vertices and the backward search from the
+//destination only scans arcs from higher ranked vertices, so both searches climb the hierarchy and meet at the
+//highest ranked vertex of the shortest path
+//stall-on-demand: a settled vertex whose distance is improved by an arc from a higher ranked settled vertex is not on
+//a shortest path of the search, so its arcs are not scanned
+public class DijkstraWithContractionHierarchy implements QueryEngine {
+
+    private final Graph g; //graph with weighted edges
+    private final ContractionHierarchy ch;
+    private final StatsForPreprocessing statsPrep;
+
+
+    //vertices of graph g are contracted when the engine is created
+    public DijkstraWithContractionHierarchy(Graph g){
+        this.g=g;
+        statsPrep=new StatsForPreprocessing();
+        g.contract(statsPrep);
+        ch=g.getContractionHierarchy();
+    }
+
+    @Override
+    public String getName(){
+        return "Contraction hierarchies algorithm";
+    }
+
+    @Override
+    public QueryResult query(Vertex src, Vertex dest){
+        int noOfNodeScans=0;
+        int noOfArcScans=0;
+        int noOfDistImprovements=0; //number of effective relax operations
+        StatsForQuerying stats=new StatsForQuerying();
+        int s=src.getId();
+        int t=dest.getId();
+        int mu=SearchState.INFINITY; //length of the shortest s-t path found so far
+        int commonVertex=SearchState.NO_PARENT; //highest ranked vertex of that path
+
+        //mark start of query
+        long qryStartTime=System.nanoTime();
+
+        //initialization
+        SearchState state_f=SearchState.acquire(SearchState.FORWARD, g.V());
+        SearchState state_b=SearchState.acquire(SearchState.BACKWARD, g.V());
+        state_f.setDistance(s, 0); //distance to the source vertex is set to zero
+        state_b.setDistance(t, 0); //distance to the destination vertex is set to zero
+
+        //priority queues hold discovered vertices, starting with the source and the destination vertex
+        VertexPriorityQueue minPQ_f=state_f.getQueue();
+        VertexPriorityQueue minPQ_b=state_b.getQueue();
+        minPQ_f.insertOrDecreaseKey(s, 0);
+        minPQ_b.insertOrDecreaseKey(t, 0);
+        if(s==t){
+            mu=0;
+            commonVertex=s;
+        }
+
+        //a search stops when its smallest key reaches mu, the other one continues
+        while(true){
+            boolean forwardDone= minPQ_f.isEmpty() || minPQ_f.getMinKey() >= mu;
+            boolean backwardDone= minPQ_b.isEmpty() || minPQ_b.getMinKey() >= mu;
+            if(forwardDone && backwardDone)
+                break;
+
+            //expand the search with the smaller key
+            boolean isForward= backwardDone || (!forwardDone && minPQ_f.getMinKey() <= minPQ_b.getMinKey());
+            SearchState state= isForward ? state_f : state_b;
+            SearchState other= isForward ? state_b : state_f;
+            VertexPriorityQueue minPQ= isForward ? minPQ_f : minPQ_b;
+
+            int vertex=minPQ.extractMin();
+            noOfNodeScans++; //increment the number of node scans
+            state.setSettled(vertex);
+            int distance=state.getDistance(vertex);
+
+            //update the shortest s-t path
+            if(other.getDistance(vertex) != SearchState.INFINITY && distance + other.getDistance(vertex) < mu){
+                mu=distance + other.getDistance(vertex);
+                commonVertex=vertex;
+            }
+
+            if(isForward){
+                //stall-on-demand: arcs u->vertex from higher ranked vertices u
+                if(isStalled(state, vertex, distance, ch.getFirstDownArc(vertex), ch.getEndDownArc(vertex), true))
+                    continue;
+
+                //relaxation of arcs to higher ranked vertices
+                for(int a=ch.getFirstUpArc(vertex); a<ch.getEndUpArc(vertex); a++){
+                    if(relax(state, minPQ, vertex, ch.getUpArcHead(a), distance + ch.getUpArcWeight(a)))
+                        noOfDistImprovements++;
+
+                    noOfArcScans++;
+                }
+            }else{
+                //stall-on-demand: arcs vertex->w to higher ranked vertices w
+                if(isStalled(state, vertex, distance, ch.getFirstUpArc(vertex), ch.getEndUpArc(vertex), false))
+                    continue;
+
+                //relaxation of arcs from higher ranked vertices (in reverse direction)
+                for(int a=ch.getFirstDownArc(vertex); a<ch.getEndDownArc(vertex); a++){
+                    if(relax(state, minPQ, vertex, ch.getDownArcTail(a), distance + ch.getDownArcWeight(a)))
+                        noOfDistImprovements++;
+
+                    noOfArcScans++;
+                }
+            }
+        } //end while
+
+        //mark end of query
+        long qryEndTime=System.nanoTime();
+
+        stats.setQryExecTime(qryEndTime-qryStartTime);
+        stats.setNoOfNodesScanned(noOfNodeScans);
+        stats.setNoOfArcsScanned(noOfArcScans);
+        stats.setNoOfDistImprovements(noOfDistImprovements);
+
+        return new QueryResult(src, dest, mu, commonVertex==SearchState.NO_PARENT ? null : g.getVertex(commonVertex), state_f, state_b, stats);
+    }
+
+    //relaxation of a hierarchy arc from src to dest, returns true if shortest path estimate of dest was improved
+    private static boolean relax(SearchState state, VertexPriorityQueue minPQ, int src, int dest, int distance){
+        if (state.getDistance(dest) > distance) {
+            state.update(dest, distance, src);
+            minPQ.insertOrDecreaseKey(dest, distance);
+            return true;
+        }
+        return false;
+    }
+
+    //true if a higher ranked vertex reached by the search gives a shorter path to vertex than its distance
+    //(arcs first to end-1 are down arcs of vertex for the forward search and up arcs of vertex for the backward search)
+    private boolean isStalled(SearchState state, int vertex, int distance, int first, int end, boolean isForward){
+        for(int a=first; a<end; a++){
+            int u= isForward ? ch.getDownArcTail(a) : ch.getUpArcHead(a);
+            int d=state.getDistance(u);
+            if(d != SearchState.INFINITY && d + (isForward ? ch.getDownArcWeight(a) : ch.getUpArcWeight(a)) < distance)
+                return true;
+        }
+        return false;
+    }
+
+
+    //vertices of the original graph on the shortest path, from source to destination
+    private IntList unpackPath(QueryResult result){
+        int top=result.getMeetingVertex().getId();
+
+        //hierarchy path from source to the meeting point, collected backwards
+        IntList upward=new IntList();
+        for(int v=top; v != SearchState.NO_PARENT; v=result.getForwardState().getParent(v))
+            upward.add(v);
+
+        IntList path=new IntList();
+        path.add(upward.get(upward.size()-1));
+        for(int i=upward.size()-1; i>0; i--)
+            ch.unpack(upward.get(i), upward.get(i-1), path);
+
+        //hierarchy path from the meeting point to destination
+        SearchState state_b=result.getBackwardState();
+        for(int v=top; state_b.getParent(v) != SearchState.NO_PARENT; v=state_b.getParent(v))
+            ch.unpack(v, state_b.getParent(v), path);
+
+        return path;
+    }
+
+    //shortest arc of the original graph from vertex u to vertex v
+    private Edge getEdge(Graph g, int u, int v){
+        Edge edge=null;
+        for(Edge e: g.getAdjList(g.getVertex(u))){
+            if(e.getDestination().getId()==v && (edge==null || e.getWeight()<edge.getWeight()))
+                edge=e;
+        }
+        return edge;
+    }
+
+
+    //print the shortest path from source vertex to destination vertex
+    @Override
+    public void printShortestPath(Graph g, QueryResult result){
+
+        String path="";
+        Vertex src=result.getSrc();
+        Vertex dest=result.getDest();
+
+        // print shortest path
+        if (result.hasPath()) {
+            System.out.println();
+            System.out.println("Source: " + src.toString());
+            System.out.println("Destination: " + dest.toString());
+            System.out.println("Meeting point: " + result.getMeetingVertex().toString());
+            System.out.println("Shortest path estimate: " + result.getDistance());
+            System.out.println("Number of shortcuts: " + ch.getNoOfShortcuts());
+            System.out.println("Total number of effective relax operations: " + result.getStats().getNoOfDistImprovements());
+
+            //shortcuts are unpacked into arcs of the original graph
+            IntList vertices=unpackPath(result);
+            for(int i=1; i<vertices.size(); i++){
+                path +=getEdge(g, vertices.get(i-1), vertices.get(i)) + "\n";
+            }
+            System.out.println("Shortest path:\n" + path);
+        }
+        else {
+            System.out.printf("%s to %s         no path\n", src.toString(), dest.toString());
+        }
+    }
+
+    @Override
+    public StatsForPreprocessing getStatsForPrep(){
+        return statsPrep;
+    }
+}
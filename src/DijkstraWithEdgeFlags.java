@@ -1,148 +1,120 @@
-import java.util.Set;
-import java.util.Map;
-import java.util.Stack;
-import java.util.HashMap;
-import java.util.HashSet;
-
 //Dijkstra's algorithm based on edge flags
 //structure of Dijkstra's algorithm was adapted from http://algs4.cs.princeton.edu/44sp/DijkstraSP.java.html
-public class DijkstraWithEdgeFlags{
-
-    private Set<Vertex> settledNodes; //Set S - nodes v for which we know that shortest path estimate is equal to the shortest path distance
-    private MinPriorityQueue minPQ; //nodes in priority queue
-    private Map<Vertex, Vertex> parent; //parent nodes
-    private Map<Vertex, Integer> d; //shortest path estimate
-
-    //stats
-    private StatsForQuerying statsQry;
-    private StatsForPreprocessing statsPrep;
-    private int noOfNodeScans=0;
-    private int noOfArcScans=0;
-    private int noOfDistImprovements=0; //number of effective relax operations
-    private long qryStartTime, qryEndTime;
+public class DijkstraWithEdgeFlags implements QueryEngine {
 
+    private final Graph g; //graph with weighted edges
+    private final StatsForPreprocessing statsPrep;
 
-    //g - graph with weighted edges
-    //v - source vertex
-    public DijkstraWithEdgeFlags(Graph g, Vertex src, Vertex dest, int queryId){
 
-        System.out.println("Dijkstra's algorithm with edge flags is running..." + queryId);
-
-        d=new HashMap<Vertex, Integer>(); //distance vector - shortest distance estimate from source to a particular vertex
-        parent=new HashMap<Vertex, Vertex>(); //parent vector
-        settledNodes=new HashSet<Vertex>();
+    //graph is partitioned and edge flags are calculated (or read from file) when the engine is created
+    public DijkstraWithEdgeFlags(Graph g){
+        this.g=g;
 
         //stats
         statsPrep=new StatsForPreprocessing();
         g.preprocess(statsPrep);
+    }
 
+    @Override
+    public String getName(){
+        return "Dijkstra's algorithm with edge flags";
+    }
+
+    @Override
+    public QueryResult query(Vertex src, Vertex dest){
+        int noOfNodeScans=0;
+        int noOfArcScans=0;
+        int noOfDistImprovements=0; //number of effective relax operations
+        StatsForQuerying statsQry=new StatsForQuerying();
 
         //SHORTEST PATH CALCULATION STEP
         //get the region ID where destination node belongs to
         int target_region=dest.getRegion();
+        int destId=dest.getId();
 
-        //initialization
-        initialization(g,src);
+        //mark start of query
+        long qryStartTime=System.nanoTime();
 
-        //dump all vertices to priority queue
-        minPQ=new MinPriorityQueue(d.entrySet());
+        //initialization
+        SearchState state=SearchState.acquire(SearchState.FORWARD, g.V());
+        state.setDistance(src.getId(), 0); //distance to the source vertex is set to zero
 
-        //stats
-        statsQry=new StatsForQuerying();
+        //priority queue holds discovered vertices, starting with the source vertex
+        VertexPriorityQueue minPQ=state.getQueue();
+        minPQ.insertOrDecreaseKey(src.getId(), 0);
+        CompressedArcs.Cursor cursor= Main.GRAPH_LAYOUT==2 ? g.getArcCursor() : null; //decodes arcs of compressed layout
 
-        //mark start of query
-        qryStartTime=System.nanoTime();
         while(!minPQ.isEmpty()){
-            HeapEntry he= minPQ.extractMin();
+            int vertex= minPQ.extractMin();
             noOfNodeScans++; //increment the number of node scans
-
-            Vertex vertex=he.getNode();
-            settledNodes.add(vertex);
+            state.setSettled(vertex);
 
             //check if extracted node is destination node
-            if(vertex.equals(dest)){
+            if(vertex==destId){
                 break; //end the computation
             }
 
             //relaxation
             //selectively apply relax operation for each vertex in the adjacency list
-            for(Edge e: g.getAdjList(vertex)){
+            if(Main.GRAPH_LAYOUT==1){
+                //scan outgoing arcs by index in CSR layout
+                for(int a=g.getFirstArc(vertex); a<g.getEndArc(vertex); a++){
+
+                    if(!g.isArcFlagged(a, target_region)) continue; //skip edges which cannot be on the shortest path to the destination node
+
+                    if(relax(state, minPQ, vertex, g.getArcHead(a), g.getArcWeight(a)))
+                        noOfDistImprovements++;
+
+                    noOfArcScans++;
+                }
+            }else if(Main.GRAPH_LAYOUT==2){
+                //decode outgoing arcs of compressed layout
+                cursor.reset(vertex);
+                while(cursor.next()){
 
-                if(!e.isFlagged(vertex, target_region)) continue; //skip edges which cannot be on the shortest path to the destination node
+                    if(!g.isArcFlagged(cursor.getArc(), target_region)) continue; //skip edges which cannot be on the shortest path to the destination node
 
-                relax(e);
+                    if(relax(state, minPQ, vertex, cursor.getHead(), cursor.getWeight()))
+                        noOfDistImprovements++;
 
-                noOfArcScans++;
+                    noOfArcScans++;
+                }
+            }else{
+                Vertex v=g.getVertex(vertex);
+                int a=g.getFirstArc(vertex); //edges of the adjacency list are the arcs of the vertex in CSR order
+                for(Edge e: g.getAdjList(v)){
+
+                    if(!g.isArcFlagged(a++, target_region)) continue; //skip edges which cannot be on the shortest path to the destination node
+
+                    if(relax(state, minPQ, vertex, e.getDestination().getId(), e.getWeight()))
+                        noOfDistImprovements++;
+
+                    noOfArcScans++;
+                }
             }
         } //end while
 
         //mark end of query
-        qryEndTime=System.nanoTime();
+        long qryEndTime=System.nanoTime();
 
         statsQry.setQryExecTime(qryEndTime-qryStartTime);
         statsQry.setNoOfNodesScanned(noOfNodeScans);
         statsQry.setNoOfArcsScanned(noOfArcScans);
         statsQry.setNoOfDistImprovements(noOfDistImprovements);
-    }
-
-
-    //initialization of relaxation technique
-    private void initialization(Graph g, Vertex src){
 
-        //populate distance vector d with nodes from graph g, set each node's shortest path estimate to infinity
-        for(Vertex v: g.getVertices()){
-            if(v != null)
-                d.put(v, (int)Double.POSITIVE_INFINITY);
-        }
-        d.put(src,0); //distance to the source vertex is set to zero
-
-        //populate the parent array with nodes
-        for(Vertex v: g.getVertices()){
-            if(v!= null)
-                parent.put(v, null);
-        }
+        return new QueryResult(src, dest, state.getDistance(destId), null, state, null, statsQry);
     }
 
-    //relaxation
-    private void relax(Edge e){
-        Vertex src = e.getSource();
-        Vertex dest = e.getDestination();
 
-        if (d.get(dest) > d.get(src) + e.getWeight()) {
-            d.put(dest, d.get(src) + e.getWeight());
-            noOfDistImprovements++; //increment the no of distance improvements
-
-            minPQ.decreaseKey(dest, d.get(dest));
-            parent.put(dest, src);
+    //relaxation of an arc from src to dest, returns true if shortest path estimate of dest was improved
+    private static boolean relax(SearchState state, VertexPriorityQueue minPQ, int src, int dest, int weight){
+        int distance=state.getDistance(src) + weight;
+        if (state.getDistance(dest) > distance) {
+            state.update(dest, distance, src);
+            minPQ.insertOrDecreaseKey(dest, distance);
+            return true;
         }
-    }
-
-    //get shortest path estimate from source vertex to vertex v
-    private int getShortestPathEstimate(Vertex v){
-        return d.get(v);
-    }
-
-    //is there a path between source vertex and vertex v?
-    private boolean hasPathTo(Vertex v) {
-        return d.get(v) < (int)Double.POSITIVE_INFINITY;
-    }
-
-    //returns the path between source vertex and vertex v, or null if no such path exists
-    private Iterable<Edge> getPathTo(Graph g, Vertex v) {
-        if (!hasPathTo(v)) return null;
-
-        Stack<Edge> path = new Stack<Edge>();
-
-        for (Vertex parentV = parent.get(v); parentV != null; v=parentV, parentV = parent.get(parentV)) {
-
-            for(Edge e: g.getEdges()){
-                if(e.getSource().equals(parentV) && e.getDestination().equals(v)){
-                    path.push(e);
-                    break;
-                }
-            }
-        }
-        return path;
+        return false;
     }
 
 
@@ -182,22 +154,25 @@ public class DijkstraWithEdgeFlags{
 
 
     //print the shortest path from source vertex to destination vertex
-    public void printShortestPath(Graph g, Vertex src, Vertex dest){
+    @Override
+    public void printShortestPath(Graph g, QueryResult result){
 
         String path="";
+        Vertex src=result.getSrc();
+        Vertex dest=result.getDest();
 
         // print shortest path
-        if (hasPathTo(dest)) {
+        if (result.hasPath()) {
             System.out.println();
             System.out.println("Source: " + src.toString());
             System.out.println("Destination: " + dest.toString());
-            System.out.println("Shortest path estimate: " + getShortestPathEstimate(dest));
+            System.out.println("Shortest path estimate: " + result.getDistance());
             System.out.println("Graph partitioning method: " + getGraphPartitioningMethod());
             System.out.println("Edge flag calculation method: " + getEdgeFlagCalculationMethod());
             System.out.println("Number of preprocessed nodes: " + statsPrep.getNoOfNodesScanned());
-            System.out.println("Total number of effective relax operations: " + noOfDistImprovements);
+            System.out.println("Total number of effective relax operations: " + result.getStats().getNoOfDistImprovements());
 
-            for (Edge e : getPathTo(g,dest)) {
+            for (Edge e : Dijkstra.getPathTo(g, result.getForwardState(), dest)) {
                 path =e+ "\n" + path;
             }
             System.out.println("Shortest path:\n" + path);
@@ -209,10 +184,7 @@ public class DijkstraWithEdgeFlags{
     }
 
 
-    public StatsForQuerying getStatsForQuery(){
-        return statsQry;
-    }
-
+    @Override
     public StatsForPreprocessing getStatsForPrep(){
         return statsPrep;
     }
@@ -0,0 +1,87 @@
+import java.io.File;
+import java.text.DecimalFormat;
+
+//Hub labeling: the shortest path distance is the smallest sum of distances over the common hubs of the forward label
+//of the source and the backward label of the destination, no search is run
+//labels are built from the contraction hierarchy of the graph and written to the label file of the graph in the input
+//directory when the engine is created for the first time, the next runs map the label file
+public class DijkstraWithHubLabels implements QueryEngine {
+
+    private final HubLabels labels;
+    private final StatsForPreprocessing statsPrep;
+
+
+    public DijkstraWithHubLabels(Graph g, File labelFile){
+        statsPrep=new StatsForPreprocessing();
+
+        HubLabels hubLabels=HubLabels.open(labelFile, g);
+        if(hubLabels != null){
+            statsPrep.setReadFromFile(true);
+        }else{
+            g.contract(statsPrep);
+            long contractionTime=statsPrep.getPrepExecTime();
+
+            System.out.println("Hub labelling started");
+            long prepStartTime=System.nanoTime();
+            hubLabels=new HubLabels(g, g.getContractionHierarchy());
+            long prepEndTime=System.nanoTime();
+            statsPrep.setPrepExecTime(contractionTime + prepEndTime-prepStartTime);
+            statsPrep.setReadFromFile(false);
+            System.out.println("Hub labelling ended");
+
+            hubLabels.write(labelFile, g);
+        }
+        labels=hubLabels;
+
+        System.out.println("Forward label entries: " + labels.getNoOfForwardEntries());
+        System.out.println("Backward label entries: " + labels.getNoOfBackwardEntries());
+        System.out.println("Average label size: " + new DecimalFormat("0.##").format(labels.getAvgLabelSize()));
+    }
+
+    @Override
+    public String getName(){
+        return "Hub labeling algorithm";
+    }
+
+    @Override
+    public QueryResult query(Vertex src, Vertex dest){
+        StatsForQuerying stats=new StatsForQuerying();
+
+        //mark start of query
+        long qryStartTime=System.nanoTime();
+
+        int distance=labels.getDistance(src.getId(), dest.getId(), stats);
+
+        //mark end of query
+        long qryEndTime=System.nanoTime();
+
+        stats.setQryExecTime(qryEndTime-qryStartTime);
+
+        return new QueryResult(src, dest, distance, null, null, null, stats);
+    }
+
+
+    //print the shortest path distance from source vertex to destination vertex (labels do not store paths)
+    @Override
+    public void printShortestPath(Graph g, QueryResult result){
+        Vertex src=result.getSrc();
+        Vertex dest=result.getDest();
+
+        if (result.hasPath()) {
+            System.out.println();
+            System.out.println("Source: " + src.toString());
+            System.out.println("Destination: " + dest.toString());
+            System.out.println("Shortest path estimate: " + result.getDistance());
+            System.out.println("Number of label entries: " + result.getStats().getNoOfLabelEntries());
+            System.out.println("Number of common hubs: " + result.getStats().getNoOfDistImprovements());
+        }
+        else {
+            System.out.printf("%s to %s         no path\n", src.toString(), dest.toString());
+        }
+    }
+
+    @Override
+    public StatsForPreprocessing getStatsForPrep(){
+        return statsPrep;
+    }
+}
@@ -0,0 +1,351 @@
+//ALT algorithm: A* search with potentials from landmarks and triangle inequality
+//landmarks are selected and their distances are calculated when the engine is created; queries run either a
+//unidirectional A* search or a bidirectional one (alt_search config parameter)
+//bidirectional search uses averaged potentials: the forward potential of v is (bound(v,t) - bound(s,v))/2 and the
+//backward potential is its negation, so both searches see the same reduced arc weights and the search can stop as
+//soon as the sum of the smallest keys of both queues reaches the shortest s-t distance found so far
+public class DijkstraWithLandmarks implements QueryEngine {
+
+    private final Graph g; //graph with weighted edges
+    private final Graph revGraph; //reverse view of graph g used by backward search
+    private final boolean bidirectional;
+    private final Landmarks landmarks;
+    private final StatsForPreprocessing statsPrep;
+
+
+    //landmarks are selected and their distances are calculated when the engine is created
+    public DijkstraWithLandmarks(Graph g, Graph revGraph){
+        this.g=g;
+        this.revGraph=revGraph;
+        this.bidirectional= Main.ALT_SEARCH==1;
+
+        System.out.println("Preprocessing started");
+        statsPrep=new StatsForPreprocessing();
+        long prepStartTime=System.nanoTime();
+
+        landmarks=new Landmarks(g, revGraph, Main.LANDMARKS, Main.LANDMARK_SELECTION);
+
+        long prepEndTime=System.nanoTime();
+        statsPrep.setPrepExecTime(prepEndTime-prepStartTime);
+        statsPrep.setNoOfNodesScanned(landmarks.getNoOfNodeScans());
+        statsPrep.setReadFromFile(false);
+        System.out.println("Preprocessing ended");
+    }
+
+    @Override
+    public String getName(){
+        return bidirectional ? "Bidirectional ALT algorithm" : "ALT algorithm";
+    }
+
+    @Override
+    public QueryResult query(Vertex src, Vertex dest){
+        return bidirectional ? queryBidirectional(src, dest) : queryUnidirectional(src, dest);
+    }
+
+
+    //A* search from src until dest is settled, keys are shortest path estimates plus bound(v,dest)
+    private QueryResult queryUnidirectional(Vertex src, Vertex dest){
+        int noOfNodeScans=0;
+        int noOfArcScans=0;
+        int noOfDistImprovements=0; //number of effective relax operations
+        StatsForQuerying stats=new StatsForQuerying();
+        int t=dest.getId();
+
+        //mark start of query
+        long qryStartTime=System.nanoTime();
+
+        //initialization
+        SearchState state=SearchState.acquire(SearchState.FORWARD, g.V());
+        state.setDistance(src.getId(), 0); //distance to the source vertex is set to zero
+
+        //priority queue holds discovered vertices, starting with the source vertex
+        VertexPriorityQueue minPQ=state.getQueue();
+        int p=toTarget(state, src.getId(), t);
+        if(p != SearchState.INFINITY)
+            minPQ.insertOrDecreaseKey(src.getId(), p);
+        CompressedArcs.Cursor cursor= Main.GRAPH_LAYOUT==2 ? g.getArcCursor() : null; //decodes arcs of compressed layout
+
+        while(!minPQ.isEmpty()){
+            int vertex=minPQ.extractMin();
+            noOfNodeScans++; //increment the number of node scans
+            state.setSettled(vertex);
+
+            //check if the extracted node is a destination node
+            if(vertex==t)
+                break; //while loop
+
+            //relaxation
+            //for each vertex in the adjacency list apply relax operation
+            if(Main.GRAPH_LAYOUT==1){
+                //scan outgoing arcs by index in CSR layout
+                for(int a=g.getFirstArc(vertex); a<g.getEndArc(vertex); a++){
+                    if(relax(state, minPQ, vertex, g.getArcHead(a), g.getArcWeight(a), t))
+                        noOfDistImprovements++;
+
+                    noOfArcScans++;
+                }
+            }else if(Main.GRAPH_LAYOUT==2){
+                //decode outgoing arcs of compressed layout
+                cursor.reset(vertex);
+                while(cursor.next()){
+                    if(relax(state, minPQ, vertex, cursor.getHead(), cursor.getWeight(), t))
+                        noOfDistImprovements++;
+
+                    noOfArcScans++;
+                }
+            }else{
+                for(Edge e: g.getAdjList(g.getVertex(vertex))){
+                    if(relax(state, minPQ, vertex, e.getDestination().getId(), e.getWeight(), t))
+                        noOfDistImprovements++;
+
+                    noOfArcScans++;
+                }
+            }
+        } //end while
+
+        //mark end of query
+        long qryEndTime=System.nanoTime();
+
+        stats.setQryExecTime(qryEndTime-qryStartTime);
+        stats.setNoOfNodesScanned(noOfNodeScans);
+        stats.setNoOfArcsScanned(noOfArcScans);
+        stats.setNoOfDistImprovements(noOfDistImprovements);
+
+        return new QueryResult(src, dest, state.getDistance(t), null, state, null, stats);
+    }
+
+    //relaxation of an arc from src to dest, returns true if shortest path estimate of dest was improved
+    //vertices which cannot reach the target are not inserted into the priority queue
+    private boolean relax(SearchState state, VertexPriorityQueue minPQ, int src, int dest, int weight, int target){
+        int distance=state.getDistance(src) + weight;
+        if (state.getDistance(dest) > distance) {
+            int p=toTarget(state, dest, target);
+            if(p==SearchState.INFINITY)
+                return false;
+
+            state.update(dest, distance, src);
+            minPQ.insertOrDecreaseKey(dest, distance + p);
+            return true;
+        }
+        return false;
+    }
+
+
+    //bidirectional A* search with averaged potentials
+    //keys are doubled to stay integral: 2*d_f(v) + bound(v,t) - bound(s,v) in the forward queue and
+    //2*d_b(v) + bound(s,v) - bound(v,t) in the backward queue
+    private QueryResult queryBidirectional(Vertex src, Vertex dest){
+        int noOfNodeScans=0;
+        int noOfArcScans=0;
+        int noOfDistImprovements=0; //number of effective relax operations
+        StatsForQuerying stats=new StatsForQuerying();
+        int s=src.getId();
+        int t=dest.getId();
+        int mu=SearchState.INFINITY; //length of the shortest s-t path found so far
+        int commonVertex=SearchState.NO_PARENT; //vertex of that path where both searches meet
+
+        //mark start of query
+        long qryStartTime=System.nanoTime();
+
+        //initialization
+        SearchState state_f=SearchState.acquire(SearchState.FORWARD, g.V()); //forward search, caches bound(v,t) as potential
+        SearchState state_b=SearchState.acquire(SearchState.BACKWARD, g.V()); //backward search, caches bound(s,v) as potential
+        state_f.setDistance(s, 0); //distance to the source vertex is set to zero
+        state_b.setDistance(t, 0); //distance to the destination vertex is set to zero
+
+        //priority queues hold discovered vertices, starting with the source and the destination vertex
+        VertexPriorityQueue minPQ_f=state_f.getQueue();
+        VertexPriorityQueue minPQ_b=state_b.getQueue();
+        int p=forwardPotential(state_f, state_b, s, s, t);
+        if(p != SearchState.INFINITY){
+            minPQ_f.insertOrDecreaseKey(s, p);
+            minPQ_b.insertOrDecreaseKey(t, -forwardPotential(state_f, state_b, t, s, t));
+        }
+        if(s==t){
+            mu=0;
+            commonVertex=s;
+        }
+        CompressedArcs.Cursor cursor_f= Main.GRAPH_LAYOUT==2 ? g.getArcCursor() : null; //decodes arcs of compressed layout
+        CompressedArcs.Cursor cursor_b= Main.GRAPH_LAYOUT==2 ? revGraph.getArcCursor() : null;
+
+        while(!minPQ_f.isEmpty() && !minPQ_b.isEmpty()){
+
+            //no path through unsettled vertices is shorter than mu
+            if((long)minPQ_f.getMinKey() + minPQ_b.getMinKey() >= 2L*mu)
+                break;
+
+            //expand the search with the smaller key
+            boolean isForward= minPQ_f.getMinKey() <= minPQ_b.getMinKey();
+            Graph graph= isForward ? g : revGraph;
+            SearchState state= isForward ? state_f : state_b;
+            SearchState other= isForward ? state_b : state_f;
+            VertexPriorityQueue minPQ= isForward ? minPQ_f : minPQ_b;
+            CompressedArcs.Cursor cursor= isForward ? cursor_f : cursor_b;
+
+            int vertex=minPQ.extractMin();
+            noOfNodeScans++; //increment the number of node scans
+            state.setSettled(vertex);
+
+            //relaxation
+            //for each vertex in the adjacency list apply relax operation and update the shortest s-t path
+            if(Main.GRAPH_LAYOUT==1){
+                //scan outgoing arcs by index in CSR layout
+                for(int a=graph.getFirstArc(vertex); a<graph.getEndArc(vertex); a++){
+                    int head=graph.getArcHead(a);
+                    if(relax(state_f, state_b, isForward, vertex, head, graph.getArcWeight(a), s, t)){
+                        noOfDistImprovements++;
+                        if(other.getDistance(head) != SearchState.INFINITY && state.getDistance(head) + other.getDistance(head) < mu){
+                            mu=state.getDistance(head) + other.getDistance(head);
+                            commonVertex=head;
+                        }
+                    }
+
+                    noOfArcScans++;
+                }
+            }else if(Main.GRAPH_LAYOUT==2){
+                //decode outgoing arcs of compressed layout
+                cursor.reset(vertex);
+                while(cursor.next()){
+                    int head=cursor.getHead();
+                    if(relax(state_f, state_b, isForward, vertex, head, cursor.getWeight(), s, t)){
+                        noOfDistImprovements++;
+                        if(other.getDistance(head) != SearchState.INFINITY && state.getDistance(head) + other.getDistance(head) < mu){
+                            mu=state.getDistance(head) + other.getDistance(head);
+                            commonVertex=head;
+                        }
+                    }
+
+                    noOfArcScans++;
+                }
+            }else{
+                for(Edge e: graph.getAdjList(graph.getVertex(vertex))){
+                    int head=e.getDestination().getId();
+                    if(relax(state_f, state_b, isForward, vertex, head, e.getWeight(), s, t)){
+                        noOfDistImprovements++;
+                        if(other.getDistance(head) != SearchState.INFINITY && state.getDistance(head) + other.getDistance(head) < mu){
+                            mu=state.getDistance(head) + other.getDistance(head);
+                            commonVertex=head;
+                        }
+                    }
+
+                    noOfArcScans++;
+                }
+            }
+        } //end while
+
+        //mark end of query
+        long qryEndTime=System.nanoTime();
+
+        stats.setQryExecTime(qryEndTime-qryStartTime);
+        stats.setNoOfNodesScanned(noOfNodeScans);
+        stats.setNoOfArcsScanned(noOfArcScans);
+        stats.setNoOfDistImprovements(noOfDistImprovements);
+
+        return new QueryResult(src, dest, mu, commonVertex==SearchState.NO_PARENT ? null : g.getVertex(commonVertex), state_f, state_b, stats);
+    }
+
+    //relaxation of an arc of the forward or the backward search, returns true if shortest path estimate of dest was improved
+    //vertices which cannot be on an s-t path are not inserted into the priority queue
+    private boolean relax(SearchState state_f, SearchState state_b, boolean isForward, int src, int dest, int weight, int s, int t){
+        SearchState state= isForward ? state_f : state_b;
+        int distance=state.getDistance(src) + weight;
+        if (state.getDistance(dest) > distance) {
+            int p=forwardPotential(state_f, state_b, dest, s, t);
+            if(p==SearchState.INFINITY)
+                return false;
+
+            state.update(dest, distance, src);
+            state.getQueue().insertOrDecreaseKey(dest, 2*distance + (isForward ? p : -p));
+            return true;
+        }
+        return false;
+    }
+
+    //doubled forward potential bound(v,t) - bound(s,v), or INFINITY if v cannot be on an s-t path
+    private int forwardPotential(SearchState state_f, SearchState state_b, int v, int s, int t){
+        int toTarget=toTarget(state_f, v, t);
+        int fromSource=state_b.getPotential(v);
+        if(fromSource==SearchState.NO_POTENTIAL){
+            fromSource=landmarks.get(s, v);
+            state_b.setPotential(v, fromSource);
+        }
+
+        if(toTarget==SearchState.INFINITY || fromSource==SearchState.INFINITY)
+            return SearchState.INFINITY;
+        return toTarget - fromSource;
+    }
+
+    //lower bound of the distance from vertex v to the target, calculated once per query and vertex
+    private int toTarget(SearchState state, int v, int t){
+        int p=state.getPotential(v);
+        if(p==SearchState.NO_POTENTIAL){
+            p=landmarks.get(v, t);
+            state.setPotential(v, p);
+        }
+        return p;
+    }
+
+
+    //get landmark selection method used
+    private String getLandmarkSelectionMethod(){
+        String landmarkSelectionMethod=null;
+        switch(Main.LANDMARK_SELECTION){
+            case Landmarks.FARTHEST:
+                landmarkSelectionMethod="Farthest";
+                break;
+            case Landmarks.AVOID:
+                landmarkSelectionMethod="Avoid";
+                break;
+        }
+
+        return landmarkSelectionMethod;
+    }
+
+
+    //print the shortest path from source vertex to destination vertex
+    @Override
+    public void printShortestPath(Graph g, QueryResult result){
+
+        String forwardPath="";
+        String backwardPath="";
+        Vertex src=result.getSrc();
+        Vertex dest=result.getDest();
+        Vertex commonVertex= result.getMeetingVertex() != null ? result.getMeetingVertex() : dest;
+
+        // print shortest path
+        if (result.hasPath()) {
+            System.out.println();
+            System.out.println("Source: " + src.toString());
+            System.out.println("Destination: " + dest.toString());
+            if(bidirectional)
+                System.out.println("Meeting point: " + commonVertex.toString());
+            System.out.println("Shortest path estimate: " + result.getDistance());
+            System.out.println("Landmark selection method: " + getLandmarkSelectionMethod());
+            System.out.println("Number of landmarks: " + landmarks.getNoOfLandmarks());
+            System.out.println("Total number of effective relax operations: " + result.getStats().getNoOfDistImprovements());
+
+            for (Edge e : Dijkstra.getPathTo(g, result.getForwardState(), commonVertex)) {
+                forwardPath =e+ "\n" + forwardPath;
+            }
+
+            if(bidirectional){
+                System.out.println("Shortest path from source to meeting point:\n" + forwardPath);
+
+                for (Edge e : Dijkstra.getPathTo(g, result.getBackwardState(), commonVertex)) {
+                    backwardPath =e+ "\n" + backwardPath;
+                }
+                System.out.println("Shortest path from destination to meeting point:\n" + backwardPath);
+            }else{
+                System.out.println("Shortest path:\n" + forwardPath);
+            }
+        }
+        else {
+            System.out.printf("%s to %s         no path\n", src.toString(), dest.toString());
+        }
+    }
+
+    @Override
+    public StatsForPreprocessing getStatsForPrep(){
+        return statsPrep;
+    }
+}
@@ -0,0 +1,192 @@
+//Multi-level Dijkstra's algorithm on the overlay of customizable route planning
+//the overlay is built on the regions of the graph partition (rectangular, quad-tree or kd-tree partitioning) when
+//the engine is created; a query is a bidirectional Dijkstra's search which scans the original graph only in the cells
+//of level 1 containing the source or the destination, and at every other vertex the search graph of the highest level
+//at which its cell contains neither of them (clique arcs of its cell and arcs to other cells of that level)
+//arc weights can be changed between queries: cells containing changed arcs are customized again before the next query
+public class DijkstraWithOverlay implements QueryEngine {
+
+    private final Graph g; //graph with weighted edges
+    private final Graph revGraph; //reverse view of graph g used by backward search
+    private final Overlay overlay;
+    private final StatsForPreprocessing statsPrep;
+
+
+    //graph is partitioned and the overlay is built and customized when the engine is created
+    public DijkstraWithOverlay(Graph g, Graph revGraph){
+        this.g=g;
+        this.revGraph=revGraph;
+
+        System.out.println("Preprocessing started");
+        statsPrep=new StatsForPreprocessing();
+        long prepStartTime=System.nanoTime();
+
+        g.partitionIntoRegions();
+        overlay=new Overlay(g, revGraph, Main.OVERLAY_LEVELS);
+        overlay.customize(statsPrep);
+
+        long prepEndTime=System.nanoTime();
+        statsPrep.setPrepExecTime(prepEndTime-prepStartTime);
+        statsPrep.setReadFromFile(false);
+        System.out.println("Preprocessing ended");
+    }
+
+    @Override
+    public String getName(){
+        return "Multi-level Dijkstra's algorithm";
+    }
+
+    //change the weight of the arc (an outgoing arc of vertex tail), the overlay is customized before the next query
+    public void updateArcWeight(int tail, int arc, int weight){
+        overlay.updateArcWeight(tail, arc, weight);
+        statsPrep.setNoOfWeightUpdates(1);
+    }
+
+    //customize cells whose arcs have changed, returns the number of recalculated cells
+    //recalculated cells and customization time are added to the preprocessing stats of the engine
+    public int customize(){
+        long startTime=System.nanoTime();
+        int noOfCells=overlay.customize(new StatsForPreprocessing());
+        statsPrep.setCustomizationTime(System.nanoTime()-startTime);
+        statsPrep.setNoOfCellsRecalculated(noOfCells);
+        System.out.println("Customization complete: " + noOfCells + " cells recalculated");
+        return noOfCells;
+    }
+
+    @Override
+    public QueryResult query(Vertex src, Vertex dest){
+        if(!overlay.isCustomized())
+            customize();
+
+        int noOfNodeScans=0;
+        StatsForQuerying stats=new StatsForQuerying();
+        int s=src.getId();
+        int t=dest.getId();
+        int mu=SearchState.INFINITY; //length of the shortest s-t path found so far
+        int commonVertex=SearchState.NO_PARENT; //vertex of that path where both searches meet
+
+        //mark start of query
+        long qryStartTime=System.nanoTime();
+
+        //initialization
+        SearchState state_f=SearchState.acquire(SearchState.FORWARD, g.V());
+        SearchState state_b=SearchState.acquire(SearchState.BACKWARD, g.V());
+        state_f.setDistance(s, 0); //distance to the source vertex is set to zero
+        state_b.setDistance(t, 0); //distance to the destination vertex is set to zero
+
+        //priority queues hold discovered vertices, starting with the source and the destination vertex
+        VertexPriorityQueue minPQ_f=state_f.getQueue();
+        VertexPriorityQueue minPQ_b=state_b.getQueue();
+        minPQ_f.insertOrDecreaseKey(s, 0);
+        minPQ_b.insertOrDecreaseKey(t, 0);
+        CompressedArcs.Cursor cursor_f= g.isCompressed() ? g.getArcCursor() : null; //decodes arcs of compressed layout
+        CompressedArcs.Cursor cursor_b= revGraph.isCompressed() ? revGraph.getArcCursor() : null;
+
+        while(!minPQ_f.isEmpty() && !minPQ_b.isEmpty()){
+
+            //no path through unsettled vertices is shorter than mu
+            if((long)minPQ_f.getMinKey() + minPQ_b.getMinKey() >= mu)
+                break;
+
+            //expand the search with the smaller key
+            boolean isForward= minPQ_f.getMinKey() <= minPQ_b.getMinKey();
+            SearchState state= isForward ? state_f : state_b;
+            SearchState other= isForward ? state_b : state_f;
+            VertexPriorityQueue minPQ= isForward ? minPQ_f : minPQ_b;
+
+            int vertex=minPQ.extractMin();
+            noOfNodeScans++; //increment the number of node scans
+            state.setSettled(vertex);
+
+            //update the shortest s-t path (checking settled vertices is enough: of two consecutive vertices of a shortest
+            //path settled by different searches, the one settled later sees the distance of the other search)
+            if(other.getDistance(vertex) != SearchState.INFINITY && state.getDistance(vertex) + other.getDistance(vertex) < mu){
+                mu=state.getDistance(vertex) + other.getDistance(vertex);
+                commonVertex=vertex;
+            }
+
+            //relaxation on the search graph of the query level of the vertex
+            overlay.scan(state, vertex, overlay.getQueryLevel(vertex, s, t), isForward, 0, Overlay.NO_CELL, isForward ? cursor_f : cursor_b, stats);
+        } //end while
+
+        //mark end of query
+        long qryEndTime=System.nanoTime();
+
+        stats.setQryExecTime(qryEndTime-qryStartTime);
+        stats.setNoOfNodesScanned(noOfNodeScans);
+
+        return new QueryResult(src, dest, mu, commonVertex==SearchState.NO_PARENT ? null : g.getVertex(commonVertex), state_f, state_b, stats);
+    }
+
+
+    //vertices of the original graph on the shortest path, from source to destination
+    private IntList unpackPath(QueryResult result){
+        int s=result.getSrc().getId();
+        int t=result.getDest().getId();
+        int meetingVertex=result.getMeetingVertex().getId();
+
+        //path of the forward search, collected backwards
+        IntList forward=new IntList();
+        for(int v=meetingVertex; v != SearchState.NO_PARENT; v=result.getForwardState().getParent(v))
+            forward.add(v);
+
+        //arcs are unpacked on the level they were scanned at (the level of their tail in the forward search and the
+        //level of their head in the backward search)
+        IntList path=new IntList();
+        path.add(s);
+        for(int i=forward.size()-1; i>0; i--)
+            overlay.unpack(forward.get(i), forward.get(i-1), overlay.getQueryLevel(forward.get(i), s, t), path);
+
+        SearchState state_b=result.getBackwardState();
+        for(int v=meetingVertex; state_b.getParent(v) != SearchState.NO_PARENT; v=state_b.getParent(v))
+            overlay.unpack(v, state_b.getParent(v), overlay.getQueryLevel(state_b.getParent(v), s, t), path);
+
+        return path;
+    }
+
+    //shortest arc of the original graph from vertex u to vertex v
+    private Edge getEdge(Graph g, int u, int v){
+        Edge edge=null;
+        for(Edge e: g.getAdjList(g.getVertex(u))){
+            if(e.getDestination().getId()==v && (edge==null || e.getWeight()<edge.getWeight()))
+                edge=e;
+        }
+        return edge;
+    }
+
+
+    //print the shortest path from source vertex to destination vertex
+    @Override
+    public void printShortestPath(Graph g, QueryResult result){
+
+        String path="";
+        Vertex src=result.getSrc();
+        Vertex dest=result.getDest();
+
+        // print shortest path
+        if (result.hasPath()) {
+            System.out.println();
+            System.out.println("Source: " + src.toString());
+            System.out.println("Destination: " + dest.toString());
+            System.out.println("Meeting point: " + result.getMeetingVertex().toString());
+            System.out.println("Shortest path estimate: " + result.getDistance());
+            System.out.println("Number of overlay levels: " + overlay.getNoOfLevels());
+            System.out.println("Total number of effective relax operations: " + result.getStats().getNoOfDistImprovements());
+
+            //clique arcs are unpacked into arcs of the original graph
+            IntList vertices=unpackPath(result);
+            for(int i=1; i<vertices.size(); i++){
+                path +=getEdge(g, vertices.get(i-1), vertices.get(i)) + "\n";
+            }
+            System.out.println("Shortest path:\n" + path);
+        }
+        else {
+            System.out.printf("%s to %s         no path\n", src.toString(), dest.toString());
+        }
+    }
+
+    @Override
+    public StatsForPreprocessing getStatsForPrep(){
+        return statsPrep;
+    }
+}
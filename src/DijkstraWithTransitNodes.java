@@ -0,0 +1,92 @@
+import java.text.DecimalFormat;
+
+//Transit node routing: the distance between vertices of different regions of the graph partition is read from a table
+//of distances between transit nodes (boundary nodes of the regions) and the distances of the source and destination
+//to their access nodes, no search is run
+//locality filter: queries whose source and destination are in the same region may not pass any transit node, they are
+//answered by bidirectional Dijkstra's algorithm
+public class DijkstraWithTransitNodes implements QueryEngine {
+
+    private final Graph g; //graph with weighted edges
+    private final TransitNodes transitNodes;
+    private final QueryEngine localEngine; //engine of queries inside a region
+    private final StatsForPreprocessing statsPrep;
+
+
+    //graph is partitioned, transit nodes are selected and their distances are calculated when the engine is created
+    public DijkstraWithTransitNodes(Graph g, Graph revGraph){
+        this.g=g;
+        this.localEngine=new DijkstraBidirectional(g, revGraph);
+
+        System.out.println("Preprocessing started");
+        statsPrep=new StatsForPreprocessing();
+        long prepStartTime=System.nanoTime();
+
+        g.partitionIntoRegions();
+        transitNodes=new TransitNodes(g, revGraph);
+
+        long prepEndTime=System.nanoTime();
+        statsPrep.setPrepExecTime(prepEndTime-prepStartTime);
+        statsPrep.setNoOfNodesScanned(transitNodes.getNoOfNodeScans());
+        statsPrep.setReadFromFile(false);
+        System.out.println("Average number of access nodes: " + new DecimalFormat("0.##").format(transitNodes.getAvgNoOfAccessNodes()));
+        System.out.println("Preprocessing ended");
+    }
+
+    @Override
+    public String getName(){
+        return "Transit node routing algorithm";
+    }
+
+    @Override
+    public QueryResult query(Vertex src, Vertex dest){
+        //locality filter
+        if(g.getRegion(src.getId()) == g.getRegion(dest.getId()))
+            return localEngine.query(src, dest);
+
+        StatsForQuerying stats=new StatsForQuerying();
+
+        //mark start of query
+        long qryStartTime=System.nanoTime();
+
+        int distance=transitNodes.getDistance(src.getId(), dest.getId(), stats);
+
+        //mark end of query
+        long qryEndTime=System.nanoTime();
+
+        stats.setQryExecTime(qryEndTime-qryStartTime);
+
+        return new QueryResult(src, dest, distance, null, null, null, stats);
+    }
+
+
+    //print the shortest path from source vertex to destination vertex
+    //the table only stores distances, so only local queries have a path to print
+    @Override
+    public void printShortestPath(Graph g, QueryResult result){
+        if(result.getForwardState() != null){
+            localEngine.printShortestPath(g, result);
+            return;
+        }
+
+        Vertex src=result.getSrc();
+        Vertex dest=result.getDest();
+
+        if (result.hasPath()) {
+            System.out.println();
+            System.out.println("Source: " + src.toString());
+            System.out.println("Destination: " + dest.toString());
+            System.out.println("Shortest path estimate: " + result.getDistance());
+            System.out.println("Number of transit nodes: " + transitNodes.getNoOfTransitNodes());
+            System.out.println("Number of distance table lookups: " + result.getStats().getNoOfArcsScanned());
+        }
+        else {
+            System.out.printf("%s to %s         no path\n", src.toString(), dest.toString());
+        }
+    }
+
+    @Override
+    public StatsForPreprocessing getStatsForPrep(){
+        return statsPrep;
+    }
+}
@@ -0,0 +1,349 @@
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+//Byte-level reader for DIMACS files (graph .gr, coordinate .co and query .p2p files)
+//lines are parsed straight from a ByteBuffer which is filled from a FileChannel, no String is created per token
+//compressed files (.gz, .bz2, .xz) are decompressed on a separate thread by DecompressionPipeline
+public class DimacsReader {
+
+    private static final int BUFFER_SIZE=1<<20; //1 MB read buffer
+    private static final int MAX_PROBLEM_VALUES=8; //numeric fields of a problem line ('p sp 1070376 2712798')
+    private static final long MAX_CHUNK_SIZE=Integer.MAX_VALUE; //a chunk is mapped into a single ByteBuffer
+
+    private ByteBuffer buf; //bytes being parsed
+    private int pos; //current position in the buffer
+    private int end; //end of the region being parsed
+    private LineHandler handler; //receives parsed lines
+    private int[] problemValues=new int[MAX_PROBLEM_VALUES];
+
+
+    //callbacks for the line types of DIMACS files
+    //handlers override only the line types they are interested in, other lines are skipped
+    public static abstract class LineHandler {
+
+        //'p' line: numeric fields of the problem definition, e.g. number of vertices and edges
+        public void problem(int[] values, int count){}
+
+        //'a' line: arc from src to dest with weight
+        public void arc(int src, int dest, int weight){}
+
+        //'v' line: coordinates of a vertex
+        public void vertex(int id, int lon, int lat){}
+
+        //'q' line: p2p query from src to dest
+        public void query(int src, int dest){}
+    }
+
+
+    //creates a new handler for each chunk of a file read in parallel
+    public interface HandlerFactory<T extends LineHandler> {
+        T newHandler();
+    }
+
+
+    private DimacsReader(LineHandler handler){
+        this.handler=handler;
+    }
+
+
+    //read the whole file and pass every line to the handler
+    //parse throughput is printed once the file is read
+    public static void read(File file, LineHandler handler) throws IOException {
+        long startTime=System.nanoTime();
+        long noOfBytes=0;
+
+        if(DecompressionPipeline.isCompressed(file)){
+            noOfBytes=DecompressionPipeline.read(file, handler);
+            printThroughput(file.getName() + " (decompressed)", noOfBytes, System.nanoTime()-startTime);
+            return;
+        }
+
+        FileInputStream in=new FileInputStream(file);
+        try{
+            FileChannel channel=in.getChannel();
+            ByteBuffer buffer=ByteBuffer.allocateDirect(BUFFER_SIZE);
+            DimacsReader reader=new DimacsReader(handler);
+
+            boolean endOfInput=false;
+            while(!endOfInput){
+                int bytesRead=channel.read(buffer);
+                if(bytesRead<0)
+                    endOfInput=true;
+                else
+                    noOfBytes+=bytesRead;
+
+                //parse complete lines, the incomplete last line is kept for the next read
+                int parsedUpTo=reader.parse(buffer, 0, buffer.position(), endOfInput);
+                if(!endOfInput && parsedUpTo==0 && !buffer.hasRemaining())
+                    throw new IllegalArgumentException("Line in " + file.getName() + " is longer than " + BUFFER_SIZE + " bytes");
+
+                buffer.limit(buffer.position());
+                buffer.position(parsedUpTo);
+                buffer.compact();
+            }
+        }finally {
+            in.close();
+        }
+
+        printThroughput(file.getName(), noOfBytes, System.nanoTime()-startTime);
+    }
+
+
+    //split the file into line-aligned chunks and parse the chunks in parallel as fork-join tasks
+    //every chunk is parsed by its own handler, handlers are returned in file order
+    //if called from a ForkJoinPool worker the chunks are parsed by that pool, otherwise by the common pool
+    //compressed files cannot be split, they are read as a single chunk
+    public static <T extends LineHandler> List<T> readInChunks(File file, int noOfChunks, HandlerFactory<T> factory) throws IOException {
+        long startTime=System.nanoTime();
+        List<T> handlers=new ArrayList<T>();
+
+        if(DecompressionPipeline.isCompressed(file)){
+            T handler=factory.newHandler();
+            read(file, handler);
+            handlers.add(handler);
+            return handlers;
+        }
+        List<ChunkTask> tasks=new ArrayList<ChunkTask>();
+
+        FileInputStream in=new FileInputStream(file);
+        try{
+            FileChannel channel=in.getChannel();
+            long size=channel.size();
+            noOfChunks=(int)Math.max(noOfChunks, size/MAX_CHUNK_SIZE+1);
+
+            //chunk boundaries are moved to the beginning of the next line
+            long start=0;
+            for(int i=1;i<=noOfChunks && start<size;i++){
+                long end = i==noOfChunks ? size : alignToLineStart(channel, Math.max(start, size/noOfChunks*i), size);
+                if(end>start){
+                    T handler=factory.newHandler();
+                    handlers.add(handler);
+                    tasks.add(new ChunkTask(channel, start, end, handler));
+                }
+                start=end;
+            }
+
+            ForkJoinTask.invokeAll(tasks);
+        }catch (UncheckedIOException ex){
+            throw ex.getCause();
+        }finally {
+            in.close();
+        }
+
+        printThroughput(file.getName() + " (" + tasks.size() + " chunks)", file.length(), System.nanoTime()-startTime);
+        return handlers;
+    }
+
+
+    //returns the position of the first byte after the next line break at or after position
+    private static long alignToLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer=ByteBuffer.allocate(4096);
+        while(position<size){
+            buffer.clear();
+            int bytesRead=channel.read(buffer, position);
+            if(bytesRead<=0)
+                break;
+
+            for(int i=0;i<bytesRead;i++){
+                if(buffer.get(i)=='\n')
+                    return position+i+1;
+            }
+            position+=bytesRead;
+        }
+
+        return size;
+    }
+
+
+    //parses one chunk of a file mapped into memory
+    private static class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID=1L;
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final LineHandler handler;
+
+        private ChunkTask(FileChannel channel, long start, long end, LineHandler handler){
+            this.channel=channel;
+            this.start=start;
+            this.end=end;
+            this.handler=handler;
+        }
+
+        @Override
+        protected void compute(){
+            try{
+                ByteBuffer chunk=channel.map(FileChannel.MapMode.READ_ONLY, start, end-start);
+                DimacsReader.parse(chunk, 0, chunk.limit(), true, handler);
+            }catch (IOException ex){
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+
+    //parse lines stored between indices from and to of the buffer
+    //when endOfInput is false, the bytes after the last line break are not parsed
+    //returns the index of the first byte which was not parsed
+    public static int parse(ByteBuffer buffer, int from, int to, boolean endOfInput, LineHandler handler){
+        return new DimacsReader(handler).parse(buffer, from, to, endOfInput);
+    }
+
+
+    private int parse(ByteBuffer buffer, int from, int to, boolean endOfInput){
+        int parseEnd=to;
+        if(!endOfInput){
+            //find the end of the last complete line
+            while(parseEnd>from && buffer.get(parseEnd-1)!='\n')
+                parseEnd--;
+        }
+
+        this.buf=buffer;
+        this.pos=from;
+        this.end=parseEnd;
+
+        while(pos<end){
+            parseLine();
+        }
+
+        this.buf=null;
+        return parseEnd;
+    }
+
+
+    //parse one line starting at the current position and move to the beginning of the next line
+    private void parseLine(){
+        skipBlanks();
+        if(pos>=end)
+            return;
+
+        //empty line
+        if(buf.get(pos)=='\n'){
+            pos++;
+            return;
+        }
+
+        byte type=buf.get(pos++);
+        switch (type){
+            case 'a': { //arc line: a <src> <dest> <weight>
+                int src=nextInt();
+                int dest=nextInt();
+                int weight=nextInt();
+                handler.arc(src, dest, weight);
+                break;
+            }
+            case 'v': { //coordinate line: v <id> <lon> <lat>
+                int id=nextInt();
+                int lon=nextInt();
+                int lat=nextInt();
+                handler.vertex(id, lon, lat);
+                break;
+            }
+            case 'q': { //query line: q <src> <dest>
+                int src=nextInt();
+                int dest=nextInt();
+                handler.query(src, dest);
+                break;
+            }
+            case 'p': { //problem line: words are skipped and numbers are passed to the handler
+                int count=0;
+                skipBlanks();
+                while(pos<end && buf.get(pos)!='\n'){
+                    if(isNumberStart() && count<MAX_PROBLEM_VALUES)
+                        problemValues[count++]=nextInt();
+                    else
+                        skipToken();
+                    skipBlanks();
+                }
+                handler.problem(problemValues, count);
+                break;
+            }
+            default: //comment lines ('c') and unknown lines are skipped
+                break;
+        }
+
+        skipLine();
+    }
+
+
+    //read signed decimal number from the current line
+    private int nextInt(){
+        skipBlanks();
+
+        boolean negative=false;
+        if(pos<end && buf.get(pos)=='-'){
+            negative=true;
+            pos++;
+        }
+
+        int start=pos;
+        int value=0;
+        while(pos<end){
+            int digit=buf.get(pos)-'0';
+            if(digit<0 || digit>9)
+                break;
+            value=value*10+digit;
+            pos++;
+        }
+
+        if(pos==start)
+            throw new IllegalArgumentException("Number expected at byte " + pos);
+
+        return negative ? -value : value;
+    }
+
+    //check if a number starts at the current position
+    private boolean isNumberStart(){
+        byte b=buf.get(pos);
+        if(b=='-' && pos+1<end)
+            b=buf.get(pos+1);
+        return b>='0' && b<='9';
+    }
+
+    //skip spaces, tabs and carriage returns, but not line breaks
+    private void skipBlanks(){
+        while(pos<end){
+            byte b=buf.get(pos);
+            if(b!=' ' && b!='\t' && b!='\r')
+                break;
+            pos++;
+        }
+    }
+
+    //skip a word
+    private void skipToken(){
+        while(pos<end){
+            byte b=buf.get(pos);
+            if(b==' ' || b=='\t' || b=='\r' || b=='\n')
+                break;
+            pos++;
+        }
+    }
+
+    //move to the first byte after the next line break
+    private void skipLine(){
+        while(pos<end && buf.get(pos)!='\n')
+            pos++;
+        pos++;
+    }
+
+
+    //print how fast the file was parsed
+    static void printThroughput(String fileName, long noOfBytes, long elapsedTime){
+        DecimalFormat df = new DecimalFormat("0.#");
+        double megabytes=noOfBytes/(1024d*1024d);
+        double seconds=Math.max(elapsedTime, 1)/1000000000d;
+
+        System.out.println(fileName + " parsed: " + df.format(megabytes) + " MB in " + df.format(seconds*1000) + " ms (" + df.format(megabytes/seconds) + " MB/s)");
+    }
+}
@@ -0,0 +1,8 @@
+//Lower bound of the shortest path distance between two vertices, used as potential by A* searches
+//implementations: GeoLowerBound (coordinates of the vertices) and Landmarks (distances to and from landmark vertices)
+public interface DistanceLowerBound {
+
+    //lower bound of the distance from vertex v to vertex w, never greater than weight(v,x) + get(x,w) for an arc (v,x)
+    //returns SearchState.INFINITY if the bound proves that w cannot be reached from v
+    int get(int v, int w);
+}
@@ -0,0 +1,94 @@
+import java.text.DecimalFormat;
+
+//Lower bound of the shortest path distance between two vertices, calculated from their coordinates
+//every vertex is mapped to a point on the unit sphere once, so the bound is a few multiplications instead of the
+//trigonometric functions of the spherical law of cosines; the straight line (chord) between two points is never
+//longer than the great circle between them
+//chord lengths are scaled by the smallest ratio of arc weight to arc chord over all arcs of the graph, so the bound
+//never exceeds the weight of any path (in the weight metric of the graph, distance or travel time) and it is consistent:
+//bound(u,t) <= weight(u,v) + bound(v,t) for every arc (u,v)
+//the bound is only useful if arc weights follow the geographic distance: a single arc of zero weight between distinct
+//points makes the scale zero, and an arc much shorter in weight than in space shrinks it for all vertices; leaving such
+//arcs out of the scale would break admissibility, so a warning is printed when the scale collapses and the geographic
+//algorithms degrade to Dijkstra's algorithm
+public class GeoLowerBound implements DistanceLowerBound {
+
+    private static final double SAFETY_MARGIN=1e-6; //relative margin which absorbs rounding errors of floating point arithmetic
+    private static final double COLLAPSE_RATIO=0.01; //scale below this fraction of the average weight per chord gives almost no guidance
+
+    private final double[] xyz; //unit vector of vertex v at indices 3v, 3v+1 and 3v+2
+    private final double scale; //weight units per unit of chord length
+
+
+    //map vertices of graph g to unit vectors and scale chord lengths to the arc weights of g
+    public GeoLowerBound(Graph g){
+        int V=g.V();
+
+        xyz=new double[3*(V+1)];
+        for(int v=1;v<=V;v++){
+            double lat=Math.toRadians(g.getLatitude(v) * 0.000001);
+            double lon=Math.toRadians(g.getLongitude(v) * 0.000001);
+
+            xyz[3*v]=Math.cos(lat) * Math.cos(lon);
+            xyz[3*v+1]=Math.cos(lat) * Math.sin(lon);
+            xyz[3*v+2]=Math.sin(lat);
+        }
+
+        //smallest ratio of arc weight to chord length of the arc, and total weight and chord length of all arcs
+        double[] ratios={Double.MAX_VALUE, 0, 0};
+        CompressedArcs.Cursor cursor= g.isCompressed() ? g.getArcCursor() : null;
+        for(int v=1;v<=V;v++){
+            if(cursor != null){
+                cursor.reset(v);
+                while(cursor.next())
+                    ratio(ratios, v, cursor.getHead(), cursor.getWeight());
+            }else{
+                for(int a=g.getFirstArc(v); a<g.getEndArc(v); a++)
+                    ratio(ratios, v, g.getArcHead(a), g.getArcWeight(a));
+            }
+        }
+
+        //graph without arcs between distinct points gives no information about the weight metric
+        double minRatio=ratios[0];
+        scale= minRatio==Double.MAX_VALUE ? 0 : minRatio * (1-SAFETY_MARGIN);
+
+        //an arc of zero weight or far below the average weight per chord length makes the bound useless for all vertices
+        double avgRatio= ratios[2]>0 ? ratios[1]/ratios[2] : 0;
+        if(avgRatio>0 && scale < COLLAPSE_RATIO*avgRatio){
+            System.out.println("Warning: geographic lower bound collapsed to " + new DecimalFormat("0.####").format(scale)
+                    + " weight units per unit chord (average over all arcs is " + new DecimalFormat("0.####").format(avgRatio)
+                    + "), arc weights do not follow the distance between vertices and A* search scans as many vertices as Dijkstra's algorithm");
+        }
+    }
+
+
+    //lower bound of the distance between vertices v and t
+    @Override
+    public int get(int v, int t){
+        return (int)(scale * chord(v, t));
+    }
+
+    public double getScale(){
+        return scale;
+    }
+
+
+    //update the smallest ratio of weight to chord length (ratios[0]) and the total weight (ratios[1]) and chord length
+    //(ratios[2]) with the arc from u to v
+    private void ratio(double[] ratios, int u, int v, int weight){
+        double chord=chord(u, v);
+        if(chord>0){
+            ratios[0]=Math.min(ratios[0], weight/chord);
+            ratios[1]+=weight;
+            ratios[2]+=chord;
+        }
+    }
+
+    //length of the straight line between unit vectors of vertices u and v
+    private double chord(int u, int v){
+        double dx=xyz[3*u]-xyz[3*v];
+        double dy=xyz[3*u+1]-xyz[3*v+1];
+        double dz=xyz[3*u+2]-xyz[3*v+2];
+        return Math.sqrt(dx*dx + dy*dy + dz*dz);
+    }
+}
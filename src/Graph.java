@@ -3,6 +3,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.text.DecimalFormat;
 import java.util.*;
 
 //Graph class contains vertices, edges and edge weights necessary to run
@@ -11,153 +12,372 @@ import java.util.*;
 public class Graph {
     private int V; //number of vertices in graph
     private int E; //number of edges in graph
-    private List<Edge>[] adjList; //list of adjacency lists for the entire graph - array of adjacency lists
-    private List<Vertex> vertices;
+    private IntStore firstOut; //compressed sparse row (CSR) layout: outgoing arcs of vertex v are stored at indices firstOut[v] to firstOut[v+1]-1
+    private IntStore head; //CSR layout: destination vertex of each arc
+    private IntStore weight; //CSR layout: weight of each arc (reverse view shares the weights of the forward graph)
+    private IntStore forwardArc; //reverse view only: index of the forward arc each reverse arc was transposed from
+    private CompressedArcs compressedArcs; //compressed layout of heads and weights, replaces head and weight arrays once arcs are compressed
+    private IntStore lon; //longitude of each vertex (shared with the reverse graph)
+    private IntStore lat; //latitude of each vertex (shared with the reverse graph)
+    private GeoLowerBound geoLowerBound; //distance lower bound from coordinates, built on first use (the reverse view uses the one of the forward graph)
+    private ContractionHierarchy contractionHierarchy; //shortcuts and vertex ranks, built by contract()
+    private IntStore region; //region id of each vertex, -1 if vertex is not allocated to a region
+    private IntStore originalId; //id of each vertex in the input files, null if vertices were not renumbered
+    private IntStore internalId; //vertex id of each id used in the input files, null if vertices were not renumbered
+    private Edge[] edges; //compatibility view of the CSR arrays - one Edge object per arc, materialized on demand
+    private long[] arcFlags; //edge flags, bit arc*noOfFlagRegions+r is set if the arc starts a shortest path into region r
+    private int noOfFlagRegions; //number of edge flags of each arc
     private List<Region> regions;
-    private Set<Vertex> boundaryNodes;
+    private BitSet boundaryNodes; //ids of boundary nodes (nodes incident to at least one arc between two regions)
     private boolean reverseGraph;
+    private Graph reverseView; //graph with transposed arcs (the reverse view of a reverse view is the forward graph)
     private boolean preProcessed;
 
     //initialize graph by reading data about nodes, edges and edge weights
-    public Graph(Scanner in) {
+    public Graph(File graphFile) {
         try{
-            buildGraph(in);
+            buildGraph(graphFile);
             System.out.println("Graph initialization complete");
         }catch (Exception ex){
             ex.printStackTrace();
         }
     }
 
-    //generate new clone of graph which is a deep copy of original graph, but reversed edges with the same edge weights
-    private Graph(Graph g){
-        this.V=g.V();
-        this.E=g.E();
-        this.initializeGraph();
+    //reverse view of graph g: in-arcs of each vertex are stored in CSR layout (firstIn, tail, forwardArc)
+    //vertices, coordinates, regions, boundary nodes and arc weights are shared with graph g, only edge flags are kept per view
+    private Graph(Graph g, IntStore firstIn, IntStore tail, IntStore forwardArc){
+        this.V=g.V;
+        this.E=g.E;
+        this.boundaryNodes=g.boundaryNodes;
+        this.regions=g.regions;
+        this.lon=g.lon;
+        this.lat=g.lat;
+        this.region=g.region;
+        this.originalId=g.originalId;
+        this.internalId=g.internalId;
+
+        this.firstOut=firstIn;
+        this.head=tail;
+        this.weight=g.weight;
+        this.forwardArc=forwardArc;
+
+        if(Main.GRAPH_LAYOUT==0)
+            materializeEdges();
+
+        this.reverseGraph=true;
+        this.reverseView=g;
+    }
 
-        //copy node coordinates from original graph
-        for(int nodeId=1;nodeId<=this.V;nodeId++){
-            Vertex vOrig = g.getVertices().get(nodeId);
-            Vertex vCopy=this.getVertices().get(nodeId);
-            vCopy.setLongitude(vOrig.getLongitude());
-            vCopy.setLatitude(vOrig.getLatitude());
-        }
 
-        //add reverse edges
-        for(Edge e: g.getEdges()){
-            this.addEdge(e.generateReverseEdge());
+    //returns the graph with reversed arcs and the same arc weights (used by bidirectional algorithms and edge flag calculation)
+    //the in-arc index is built once by counting sort and cached
+    public Graph getReverseView(){
+        if(reverseView==null){
+            if(compressedArcs != null)
+                throw new IllegalStateException("Reverse view has to be built before arcs are compressed");
+
+            //count incoming arcs of each vertex
+            int[] firstIn=new int[V+2];
+            for(int a=0;a<E;a++){
+                firstIn[head.get(a)+1]++;
+            }
+            for(int v=1;v<=V+1;v++){
+                firstIn[v]+=firstIn[v-1];
+            }
+
+            //place arcs into slots of their head vertex, arcs of each vertex keep the order of their tail vertices
+            IntStore tail=IntStore.allocate(E, isOffHeap());
+            IntStore arcs=IntStore.allocate(E, isOffHeap());
+            int[] next=Arrays.copyOf(firstIn, V+1);
+            for(int v=1;v<=V;v++){
+                for(int a=getFirstArc(v); a<getEndArc(v); a++){
+                    int b=next[head.get(a)]++;
+                    tail.set(b, v);
+                    arcs.set(b, a);
+                }
+            }
+
+            setReverseView(toStore(firstIn), tail, arcs);
         }
 
-        reverseGraph=true;
+        return reverseView;
     }
 
-
-    public Graph generateReverseGraph(){
-        return new Graph(this);
+    //attach reverse view built from in-arc index (firstIn, tail and forward arc of each reverse arc)
+    void setReverseView(IntStore firstIn, IntStore tail, IntStore forwardArc){
+        this.reverseView=new Graph(this, firstIn, tail, forwardArc);
     }
 
-    //read .gr file from input stream
-    private void buildGraph(Scanner in){
-        //read first character in line
-        char c=in.next().charAt(0);
+    //initialize graph from arcs which were read in chunks by GraphLoader (chunks are in file order)
+    Graph(int noOfVertices, List<GraphLoader.ArcReader> chunks){
+        buildGraph(noOfVertices, chunks);
+        System.out.println("Graph initialization complete");
+    }
 
-        while(in.hasNextLine()){
+    //initialize graph from CSR arrays and coordinates restored from a snapshot (index 0 of coordinate arrays is unused)
+    Graph(int noOfVertices, IntStore firstOut, IntStore head, IntStore weight, IntStore lons, IntStore lats){
+        this.V=noOfVertices;
+        this.E=head.size();
+        this.initializeGraph();
 
-            switch (c){
-                case 'c': { //line containing comments
-                    //skip the line
-                    in.nextLine();
+        this.firstOut=firstOut;
+        this.head=head;
+        this.weight=weight;
+        this.lon=lons;
+        this.lat=lats;
 
-                    //read the byte in the next line
-                    if (in.hasNext())
-                        c = in.next().charAt(0);
+        if(Main.GRAPH_LAYOUT==0)
+            materializeEdges();
 
-                    break;
-                }
-                case 'p': { //line containing the size of graph
-                    //read the definition of a problem
-                    in.next(); //read the word 'sp'
-                    int noOfVertices = in.nextInt(); //get the number of vertices
-                    if (noOfVertices < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
-                    this.V = noOfVertices;
+        this.reverseGraph=false;
+    }
 
-                    int noOfEdges = in.nextInt(); //get the number of edges
-                    if (noOfEdges < 0) throw new IllegalArgumentException("Number of edges must be nonnegative");
-                    this.E = noOfEdges;
+    //read .gr file
+    private void buildGraph(File graphFile) throws IOException {
+        GraphLoader.ArcReader arcReader=new GraphLoader.ArcReader();
+        DimacsReader.read(graphFile, arcReader);
 
-                    //initialize the graph by adding vertices to the graph and adj. list for each vertex
-                    initializeGraph();
+        if(arcReader.getNoOfVertices()<0)
+            throw new IllegalArgumentException("Problem line is missing in " + graphFile.getName());
 
-                    //skip to the next line
-                    in.nextLine();
+        buildGraph(arcReader.getNoOfVertices(), Collections.singletonList(arcReader));
+    }
 
-                    //read the byte in the next line
-                    if (in.hasNext())
-                        c = in.next().charAt(0);
+    //build the graph from arcs collected by one or more arc readers
+    private void buildGraph(int noOfVertices, List<GraphLoader.ArcReader> chunks){
+        this.V=noOfVertices;
 
-                    break;
-                }
-                case 'a': { //the line containing information about edges
-                    //read the edge information
-                    Vertex src1 = vertices.get(in.nextInt());
-                    Vertex dest1 = vertices.get(in.nextInt());
-                    int weight1 = in.nextInt();
+        //initialize the graph by adding vertices to the graph
+        initializeGraph();
+        this.lon=IntStore.allocate(V+1, isOffHeap());
+        this.lat=IntStore.allocate(V+1, isOffHeap());
 
-                    Edge directedEdge = new Edge(src1, dest1, weight1);
-                    addEdge(directedEdge);
+        //validate vertices
+        for(GraphLoader.ArcReader chunk: chunks){
+            for(int i=0;i<chunk.getNoOfArcs();i++){
+                validateVertex(chunk.getTails()[i]);
+                validateVertex(chunk.getHeads()[i]);
+            }
+        }
 
-                    //read the byte in the next line
-                    if (in.hasNext())
-                        c = in.next().charAt(0);
+        //sort arcs of all chunks into CSR layout in the order they were read
+        buildCompressedSparseRows(chunks);
 
-                    break;
-                }
-            }//end switch
-        } //end while
+        //adjacency list layout scans Edge objects, so build them right away
+        if(Main.GRAPH_LAYOUT==0)
+            materializeEdges();
 
         reverseGraph=false;
     }
 
 
-    //initialize the graph by adding vertices
-    private void initializeGraph(){
+    //build the CSR arrays (firstOut, head, weight) from the arcs of one or more arc readers with a counting sort on the
+    //source vertex; the sort is stable, so arcs of each vertex keep the order in which they were supplied
+    //head and weight are written straight into the configured storage, so off-heap graphs need no heap copy of them
+    private void buildCompressedSparseRows(List<GraphLoader.ArcReader> chunks){
+        int noOfArcs=0;
+        int[] firstOut=new int[V+2];
 
-        this.adjList= (ArrayList<Edge>[]) new ArrayList[V+1]; //array of adjacency lists
-        this.vertices=new ArrayList<Vertex>();
-        this.boundaryNodes=new HashSet<Vertex>();
+        //count outgoing arcs of each vertex
+        for(GraphLoader.ArcReader chunk: chunks){
+            int[] tails=chunk.getTails();
+            for(int i=0;i<chunk.getNoOfArcs();i++){
+                firstOut[tails[i]+1]++;
+            }
+            noOfArcs+=chunk.getNoOfArcs();
+        }
 
-        for (int vertexId =0; vertexId <= V; vertexId++) {
+        //prefix sums give the offset of the first arc of each vertex
+        for(int v=1;v<=V+1;v++){
+            firstOut[v]+=firstOut[v-1];
+        }
 
-            if(vertexId==0){
-                vertices.add(vertexId,null); //insert dummy vertex to the 0th index of the arraylist
-            }else {
+        //place arcs into their slots
+        IntStore head=IntStore.allocate(noOfArcs, isOffHeap());
+        IntStore weight=IntStore.allocate(noOfArcs, isOffHeap());
+        int[] next=Arrays.copyOf(firstOut, V+1);
+        for(GraphLoader.ArcReader chunk: chunks){
+            int[] tails=chunk.getTails();
+            int[] heads=chunk.getHeads();
+            int[] weights=chunk.getWeights();
+            for(int i=0;i<chunk.getNoOfArcs();i++){
+                int a=next[tails[i]]++;
+                head.set(a, heads[i]);
+                weight.set(a, weights[i]);
+            }
+        }
+
+        this.E=noOfArcs;
+        this.firstOut=toStore(firstOut);
+        this.head=head;
+        this.weight=weight;
+        this.edges=null;
+    }
+
+
+    //renumber vertices along a space-filling curve (1 - Hilbert curve, 2 - Morton curve) and remap arcs to match
+    //vertices which are close in space get close ids, so searches touch fewer cache lines and memory pages
+    //vertex names keep the ids of the input files, queries are translated by getVertexByOriginalId
+    //the graph has to be renumbered before its reverse view is built and before preprocessing
+    public void reorderVertices(int curve){
+        if(preProcessed || reverseGraph || compressedArcs != null)
+            throw new IllegalStateException("Vertices can only be renumbered before preprocessing and compression of arcs");
+
+        long startTime=System.nanoTime();
+
+        //bounding box of the graph
+        long minLon=Long.MAX_VALUE, maxLon=Long.MIN_VALUE, minLat=Long.MAX_VALUE, maxLat=Long.MIN_VALUE;
+        for(int v=1;v<=V;v++){
+            minLon=Math.min(minLon, lon.get(v));
+            maxLon=Math.max(maxLon, lon.get(v));
+            minLat=Math.min(minLat, lat.get(v));
+            maxLat=Math.max(maxLat, lat.get(v));
+        }
+        long cells=1L<<SpaceFillingCurve.ORDER;
+        long width=Math.max(maxLon-minLon+1, 1);
+        long height=Math.max(maxLat-minLat+1, 1);
+
+        //sort vertices by their position on the curve, the vertex id is kept in the low 32 bits
+        //curve indices use all 32 bits, so the sign bit is flipped to make signed order of keys match unsigned order
+        long[] keys=new long[V];
+        for(int v=1;v<=V;v++){
+            int x=(int)((lon.get(v)-minLon)*cells/width);
+            int y=(int)((lat.get(v)-minLat)*cells/height);
+            long index= curve==2 ? SpaceFillingCurve.mortonIndex(x, y, SpaceFillingCurve.ORDER) : SpaceFillingCurve.hilbertIndex(x, y, SpaceFillingCurve.ORDER);
+            keys[v-1]=(index<<32 | v) ^ Long.MIN_VALUE;
+        }
+        Arrays.sort(keys);
+
+        int[] newId=new int[V+1];
+        int[] origIds=new int[V+1];
+        int[] lons=new int[V+1];
+        int[] lats=new int[V+1];
+        for(int i=0;i<V;i++){
+            int oldId=(int)keys[i];
+            newId[oldId]=i+1;
+            origIds[i+1]=getOriginalId(oldId);
+            lons[i+1]=lon.get(oldId);
+            lats[i+1]=lat.get(oldId);
+        }
 
-                //insert the vertex with id "vertexId" at position "vertexId" of arraylist
-                vertices.add(vertexId, new Vertex(vertexId, "" + vertexId));
+        int[] internalIds=new int[V+1];
+        for(int v=1;v<=V;v++){
+            internalIds[origIds[v]]=v;
+        }
 
-                //create an adjacency list for each vertex
-                adjList[vertexId] = new ArrayList<Edge>();
+        //remap arcs, arcs of each vertex keep their order
+        GraphLoader.ArcReader remapped=new GraphLoader.ArcReader();
+        remapped.problem(new int[]{V, E}, 2);
+        for(int v=1;v<=V;v++){
+            for(int a=getFirstArc(v); a<getEndArc(v); a++){
+                remapped.arc(newId[v], newId[getArcHead(a)], getArcWeight(a));
             }
         }
 
-        //collection of regions
-        this.regions= new ArrayList<Region>();
+        this.originalId=toStore(origIds);
+        this.internalId=toStore(internalIds);
+        this.lon=toStore(lons);
+        this.lat=toStore(lats);
+        this.reverseView=null;
+        this.geoLowerBound=null;
+        this.contractionHierarchy=null;
+
+        initializeGraph();
+        buildCompressedSparseRows(Collections.singletonList(remapped));
+
+        if(Main.GRAPH_LAYOUT==0)
+            materializeEdges();
+
+        System.out.println("Vertices renumbered along " + (curve==2 ? "Morton" : "Hilbert") + " curve in " + (System.nanoTime()-startTime)/1000000 + " ms");
     }
 
+    //returns the id used in the input files of a vertex
+    public int getOriginalId(int vertexId){
+        return originalId==null ? vertexId : originalId.get(vertexId);
+    }
 
-    //add edge to the graph
-    //all edges are assumed to be directed
-    private void addEdge(Edge e) {
-        Vertex v = e.getSource();
-        Vertex w = e.getDestination();
+    //returns the vertex with the id used in the input files
+    public Vertex getVertexByOriginalId(int originalVertexId){
+        return getVertex(internalId==null ? originalVertexId : internalId.get(originalVertexId));
+    }
 
-        //validate vertices
-        validateVertex(v.getId());
-        validateVertex(w.getId());
 
-        //build adjacency list
-        adjList[v.getId()].add(e);
+    //check if arrays of the graph are stored off-heap
+    private static boolean isOffHeap(){
+        return Main.GRAPH_STORAGE==1;
+    }
+
+    //move array to the configured storage (heap arrays are used without copying)
+    private static IntStore toStore(int[] values){
+        return isOffHeap() ? IntStore.copyOf(values, true) : IntStore.wrap(values);
     }
 
+
+    //build one Edge object per arc (compatibility view of CSR arrays used by preprocessing, path printing and adjacency list layout)
+    private void materializeEdges(){
+        Edge[] view=new Edge[E];
+        if(compressedArcs != null){
+            CompressedArcs.Cursor cursor=compressedArcs.cursor();
+            for(int v=1;v<=V;v++){
+                Vertex src=getVertex(v);
+                cursor.reset(v);
+                while(cursor.next()){
+                    view[cursor.getArc()]=new Edge(src, getVertex(cursor.getHead()), cursor.getWeight());
+                }
+            }
+        }else{
+            for(int v=1;v<=V;v++){
+                Vertex src=getVertex(v);
+                for(int a=firstOut.get(v); a<firstOut.get(v+1); a++){
+                    view[a]=new Edge(src, getVertex(head.get(a)), getArcWeight(a));
+                }
+            }
+        }
+        this.edges=view;
+    }
+
+
+    //replace head and weight arrays with the compressed adjacency layout (graph_layout=2)
+    //arc ids do not change, so edge flags and CSR offsets still apply; arc weights cannot be changed afterwards
+    public void compressArcs(){
+        if(compressedArcs != null)
+            return;
+
+        compressedArcs=new CompressedArcs(V, firstOut, head, weight, forwardArc, isOffHeap());
+
+        DecimalFormat df = new DecimalFormat("0.##");
+        System.out.println((reverseGraph ? "Reverse arcs" : "Arcs") + " compressed: " + df.format(8d*E/(1024*1024)) + " MB -> "
+                + df.format(compressedArcs.getSizeInBytes()/(1024d*1024d)) + " MB (" + df.format((double)compressedArcs.getSizeInBytes()/Math.max(E, 1)) + " bytes per arc)");
+
+        this.head=null;
+        this.weight=null;
+        this.forwardArc=null;
+    }
+
+    //returns a new cursor which decodes outgoing arcs of compressed layout (each search needs its own cursor)
+    public CompressedArcs.Cursor getArcCursor(){
+        return compressedArcs.cursor();
+    }
+
+    public boolean isCompressed(){
+        return compressedArcs != null;
+    }
+
+
+    //initialize the per-vertex arrays of the graph (Vertex objects are not stored, they are created on demand by getVertex)
+    private void initializeGraph(){
+
+        this.boundaryNodes=new BitSet(V+1);
+
+        //initially nodes are not allocated to regions
+        this.region=IntStore.allocate(V+1, isOffHeap());
+        this.region.fill(-1);
+
+        //collection of regions
+        this.regions= new ArrayList<Region>();
+    }
+
+
     //throw an exception unless 1 <= vertexId <= V
     private void validateVertex(int vertexId) {
         if (vertexId < 1 || vertexId > V)
@@ -185,12 +405,13 @@ public class Graph {
         return E;
     }
 
-    public List<Vertex> getVertices() {
-        return vertices;
-    }
-
+    //returns a handle of the vertex (handles of the same vertex are equal), null for the unused vertex id 0
     public Vertex getVertex(int vertexId){
-        return vertices.get(vertexId);
+        if(vertexId==0)
+            return null;
+
+        validateVertex(vertexId);
+        return new Vertex(vertexId, this);
     }
 
     private List<Region> getRegions(){
@@ -198,40 +419,185 @@ public class Graph {
     }
 
 
-    //returns the list of all edges in the graph
-    public Iterable<Edge> getEdges() {
-        ArrayList<Edge> list = new ArrayList<Edge>();
-        for (Vertex v: getVertices()) {
-            if(v != null){
-                for (Edge e: getAdjList(v)) {
-                    list.add(e);
-                }
+    //returns the offset of the first outgoing arc of vertex v in CSR layout
+    public int getFirstArc(int vertexId){
+        return firstOut.get(vertexId);
+    }
+
+    //returns the offset past the last outgoing arc of vertex v in CSR layout
+    public int getEndArc(int vertexId){
+        return firstOut.get(vertexId+1);
+    }
+
+    //returns the largest arc weight
+    public int getMaxArcWeight(){
+        int max=0;
+        if(compressedArcs != null){
+            CompressedArcs.Cursor cursor=compressedArcs.cursor();
+            for(int v=1;v<=V;v++){
+                cursor.reset(v);
+                while(cursor.next())
+                    max=Math.max(max, cursor.getWeight());
+            }
+        }else{
+            for(int a=0;a<E;a++)
+                max=Math.max(max, weight.get(a));
+        }
+        return max;
+    }
+
+    //returns the destination vertex of an arc in CSR layout
+    //compressed arcs are decoded from the beginning of the tail vertex (use getArcCursor to scan arcs)
+    public int getArcHead(int arc){
+        if(compressedArcs != null)
+            return decodeArc(arc).getHead();
+
+        return head.get(arc);
+    }
+
+    //change the weight of an arc of the forward graph (the reverse view shares the weights), arcs must not be compressed
+    //Edge objects of both views follow the new weight; the geographic lower bound and the contraction hierarchy are dropped
+    public void setArcWeight(int arc, int newWeight){
+        if(reverseGraph)
+            throw new IllegalStateException("Arc weights can only be changed on the forward graph");
+        if(compressedArcs != null || (reverseView != null && reverseView.compressedArcs != null))
+            throw new IllegalStateException("Arc weights cannot be changed once arcs are compressed");
+        if(newWeight<0)
+            throw new IllegalArgumentException("Arc weight " + newWeight + " is negative");
+
+        weight.set(arc, newWeight);
+        if(edges != null)
+            edges[arc].reWeight(newWeight);
+        if(reverseView != null && reverseView.edges != null){
+            int w=head.get(arc);
+            for(int a=reverseView.getFirstArc(w); a<reverseView.getEndArc(w); a++){
+                if(reverseView.getForwardArc(a)==arc)
+                    reverseView.edges[a].reWeight(newWeight);
             }
         }
-        return list;
+
+        geoLowerBound=null;
+        contractionHierarchy=null;
+    }
+
+    //returns the weight of an arc in CSR layout
+    public int getArcWeight(int arc){
+        if(compressedArcs != null)
+            return decodeArc(arc).getWeight();
+
+        return weight.get(forwardArc==null ? arc : forwardArc.get(arc));
+    }
+
+    //decode a single compressed arc, the tail vertex is found by binary search in CSR offsets
+    private CompressedArcs.Cursor decodeArc(int arc){
+        int lo=1, hi=V;
+        while(lo<hi){
+            int mid=(lo+hi+1)>>>1;
+            if(firstOut.get(mid)<=arc)
+                lo=mid;
+            else
+                hi=mid-1;
+        }
+
+        CompressedArcs.Cursor cursor=compressedArcs.cursor();
+        cursor.reset(lo);
+        while(cursor.next() && cursor.getArc()<arc);
+        return cursor;
+    }
+
+    //returns the longitude of a vertex
+    public int getLongitude(int vertexId){
+        return lon.get(vertexId);
+    }
+
+    //returns the latitude of a vertex
+    public int getLatitude(int vertexId){
+        return lat.get(vertexId);
+    }
+
+    public void setLongitude(int vertexId, int longitude){
+        lon.set(vertexId, longitude);
+        geoLowerBound=null;
+    }
+
+    public void setLatitude(int vertexId, int latitude){
+        lat.set(vertexId, latitude);
+        geoLowerBound=null;
+    }
+
+    //returns the region of a vertex, -1 if vertex is not allocated to a region
+    public int getRegion(int vertexId){
+        return region.get(vertexId);
+    }
+
+    public void setRegion(int vertexId, int regionId){
+        region.set(vertexId, regionId);
+    }
+
+
+    //returns the index of the forward arc a reverse arc was transposed from (arcs of the forward graph map to themselves)
+    int getForwardArc(int arc){
+        return forwardArc==null ? arc : forwardArc.get(arc);
+    }
+
+
+    //check if an arc is flagged for the target region (graph has to be preprocessed)
+    public boolean isArcFlagged(int arc, int target_region){
+        long bit=(long)arc*noOfFlagRegions + target_region;
+        return (arcFlags[(int)(bit>>>6)] & 1L<<bit) != 0;
+    }
+
+    //set the edge flag of an arc for the region
+    private void setArcFlag(int arc, int region, boolean value){
+        if(region>=0 && region<noOfFlagRegions){
+            long bit=(long)arc*noOfFlagRegions + region;
+            if(value)
+                arcFlags[(int)(bit>>>6)] |= 1L<<bit;
+            else
+                arcFlags[(int)(bit>>>6)] &= ~(1L<<bit);
+        }
+    }
+
+
+    //returns the list of all edges in the graph
+    public Iterable<Edge> getEdges() {
+        if(edges==null)
+            materializeEdges();
+
+        return Arrays.asList(edges);
     }
 
 
     //returns the list of edges adjacent to a vertex v
     public Iterable<Edge> getAdjList(Vertex v){
         if(v!=null){
-            return adjList[v.getId()];
+            if(edges==null)
+                materializeEdges();
+
+            return Arrays.asList(edges).subList(getFirstArc(v.getId()), getEndArc(v.getId()));
         }
 
         return null;
     }
 
-    //returns the pointer to specific edge
-    private Edge getEdge(int srcNodeId, int destNodeId){
-        Vertex srcNode=vertices.get(srcNodeId);
-        Vertex destNode=vertices.get(destNodeId);
-
-        for(Edge e: getAdjList(srcNode)){
-            if(e.getSource().equals(srcNode) && e.getDestination().equals(destNode))
-                return e;
+    //returns the first arc from srcNodeId to destNodeId which is not in the skipped set (parallel arcs are returned in
+    //their order), -1 if there is no such arc
+    private int getArc(int srcNodeId, int destNodeId, BitSet skipped){
+        if(compressedArcs != null){
+            CompressedArcs.Cursor cursor=compressedArcs.cursor();
+            cursor.reset(srcNodeId);
+            while(cursor.next()){
+                if(cursor.getHead()==destNodeId && !skipped.get(cursor.getArc()))
+                    return cursor.getArc();
+            }
+        }else{
+            for(int a=getFirstArc(srcNodeId); a<getEndArc(srcNodeId); a++){
+                if(getArcHead(a)==destNodeId && !skipped.get(a))
+                    return a;
+            }
         }
 
-        return null;
+        return -1;
     }
 
     //returns the string representation of this graph
@@ -239,16 +605,14 @@ public class Graph {
         StringBuilder s = new StringBuilder();
         s.append("Vertices: " + V + "   Edges: " + E + "\n\n");
 
-        for (Vertex v: getVertices()) {
-
-            if(v != null){
-                s.append(v.toString()+ "   ");
-                s.append("Adj list: ");
-                for (Edge e : getAdjList(v)) {
-                    s.append(e.toString() + "   ");
-                }
-                s.append("\n");
+        for (int vertexId=1; vertexId<=V; vertexId++) {
+            Vertex v=getVertex(vertexId);
+            s.append(v.toString()+ "   ");
+            s.append("Adj list: ");
+            for (Edge e : getAdjList(v)) {
+                s.append(e.toString() + "   ");
             }
+            s.append("\n");
         }
 
         return s.toString();
@@ -267,20 +631,18 @@ public class Graph {
 
         //iterate through each node of the graph to calculate the top-left coordinate (l,t) and
         //bottom-right coordinate of (r,b) of the bounding box
-        for(Vertex v: getVertices()){
-            if(v !=null){
-                int lon=v.getLongitude();
-                int lat=v.getLatitude();
-
-                if(lon>highestLon)
-                    highestLon=lon;
-                if(lon<lowestLon)
-                    lowestLon=lon;
-                if(lat>highestLat)
-                    highestLat=lat;
-                if(lat<lowestLat)
-                    lowestLat=lat;
-            }
+        for(int v=1;v<=V;v++){
+            int lon=getLongitude(v);
+            int lat=getLatitude(v);
+
+            if(lon>highestLon)
+                highestLon=lon;
+            if(lon<lowestLon)
+                lowestLon=lon;
+            if(lat>highestLat)
+                highestLat=lat;
+            if(lat<lowestLat)
+                lowestLat=lat;
         }
 
         //calculate the wigth (w) and height (h) of the bounding box
@@ -327,64 +689,68 @@ public class Graph {
 
 
     //enrich the vertices in the graph with coordinate information
-    public void addNodeCoordinates(Scanner in) {
-        //read first byte in line
-        char c=in.next().charAt(0);
+    public void addNodeCoordinates(File coordFile) {
+        try{
+            GraphLoader.CoordinateReader coordReader=new GraphLoader.CoordinateReader();
+            DimacsReader.read(coordFile, coordReader);
+            setNodeCoordinates(Collections.singletonList(coordReader));
+        }catch (IOException ex){
+            ex.printStackTrace();
+        }
+    }
 
+    //enrich the vertices in the graph with coordinates collected by one or more coordinate readers
+    void setNodeCoordinates(List<GraphLoader.CoordinateReader> chunks){
         //iterate through all nodes and add lon/lat data
-        while(in.hasNextLine()){
-            switch (c){
-                case 'c': case 'p': {
-                    //skip the line
-                    in.nextLine();
-
-                    //read the byte in the next line
-                    if (in.hasNext())
-                        c = in.next().charAt(0);
-
-                    break;
-                }
-
-                case 'v': {
-                    //read the node information
-                    int nodeId = in.nextInt();
-                    validateVertex(nodeId);
-
-                    Vertex v = vertices.get(nodeId);
-                    int lon = in.nextInt();
-                    int lat = in.nextInt();
-
-                    validateLongitude(lon);
-                    validateLatitude(lat);
+        for(GraphLoader.CoordinateReader chunk: chunks){
+            int[] ids=chunk.getIds();
+            int[] lons=chunk.getLongitudes();
+            int[] lats=chunk.getLatitudes();
+
+            for(int i=0;i<chunk.getNoOfVertices();i++){
+                int nodeId=ids[i];
+                validateVertex(nodeId);
+                validateLongitude(lons[i]);
+                validateLatitude(lats[i]);
+
+                lon.set(nodeId, lons[i]);
+                lat.set(nodeId, lats[i]);
+            }
+        }
 
-                    v.setLongitude(lon);
-                    v.setLatitude(lat);
+        geoLowerBound=null;
+        System.out.println("Node enrichment with coordinates complete");
+    }
 
-                    //read the byte in the next line
-                    if (in.hasNext())
-                        c = in.next().charAt(0);
+    //returns the lower bound of distances between vertices calculated from their coordinates (used by A* search)
+    //unit vectors of the vertices are calculated when the bound is first requested after coordinates were loaded
+    public GeoLowerBound getGeoLowerBound(){
+        if(reverseGraph)
+            return reverseView.getGeoLowerBound();
 
-                    break;
-                }
-            }//end switch
+        if(geoLowerBound==null){
+            geoLowerBound=new GeoLowerBound(this);
+            System.out.println("Geographic lower bound calculated: " + new DecimalFormat("0.####").format(geoLowerBound.getScale()) + " weight units per unit chord");
         }
+        return geoLowerBound;
+    }
 
-        System.out.println("Node enrichment with coordinates complete");
+    //returns the contraction hierarchy of the graph, null if the graph is not contracted
+    public ContractionHierarchy getContractionHierarchy(){
+        return contractionHierarchy;
     }
 
 
     private void allocateNodesToRegions() {
         //iterate through the nodes to allocate them into regions
-        for(Vertex v: getVertices()){
-            if(v != null){
-                for(Region r: getRegions()){
+        for(int v=1;v<=V;v++){
+            for(Region r: getRegions()){
 
-                    //check if node v is within region r
-                    if(!v.isAssignedToRegion() && belongsToRegion(v,r)){
-                        v.setRegion(r.getRegionId()); //set node's region
+                //check if node v is within region r
+                if(getRegion(v)<0 && belongsToRegion(v,r)){
+                    setRegion(v, r.getRegionId()); //set node's region
 
-                        r.addVertex(v); //add node to the region
-                    }
+                    r.addVertex(v); //add node to the region
                 }
             }
         }
@@ -392,9 +758,9 @@ public class Graph {
 
 
     //check if vertex is in region
-    private boolean belongsToRegion(Vertex vertex, Region region){
-        int x=vertex.getLongitude();
-        int y=vertex.getLatitude();
+    private boolean belongsToRegion(int vertexId, Region region){
+        int x=getLongitude(vertexId);
+        int y=getLatitude(vertexId);
 
         int l=(int)region.getP1().getX();
         int r=(int)region.getP2().getX();
@@ -410,29 +776,42 @@ public class Graph {
 
     //identify nodes which are incident to at least one interface edge
     //graph has to be partitioned into regions and nodes have to be allocated into regions prior to identifying the boundary nodes
-    private void identifyBoundaryNodes(){
-        for(Edge e: getEdges()){
-
-            Vertex v=e.getSource();
-            Vertex w=e.getDestination();
-
-            //if the edge connects two nodes which belong to different regions
-            if(v.getRegion()!=w.getRegion()){
-                //set these nodes of edge as a boundary node
-                v.setBoundaryNode();
-                boundaryNodes.add(v);
-
-                w.setBoundaryNode();
-                boundaryNodes.add(w);
+    //arcs of compressed layout are decoded by a cursor, looking up every arc by its index would decode its block again
+    public void identifyBoundaryNodes(){
+        CompressedArcs.Cursor cursor= compressedArcs != null ? compressedArcs.cursor() : null;
+        for(int v=1;v<=V;v++){
+            if(cursor != null){
+                cursor.reset(v);
+                while(cursor.next())
+                    markBoundaryNodes(v, cursor.getHead());
+            }else{
+                for(int a=getFirstArc(v); a<getEndArc(v); a++)
+                    markBoundaryNodes(v, getArcHead(a));
             }
         }
     }
 
-    //get the list of boundary nodes
-    private Set<Vertex> getBoundaryNodes(){
+    //if the arc connects two nodes which belong to different regions, set these nodes as boundary nodes
+    private void markBoundaryNodes(int v, int w){
+        if(getRegion(v)!=getRegion(w)){
+            boundaryNodes.set(v);
+            boundaryNodes.set(w);
+        }
+    }
+
+    //get the ids of boundary nodes
+    private BitSet getBoundaryNodes(){
         return boundaryNodes;
     }
 
+    public boolean isBoundaryNode(int vertexId){
+        return boundaryNodes.get(vertexId);
+    }
+
+    public void setBoundaryNode(int vertexId){
+        boundaryNodes.set(vertexId);
+    }
+
 
     //return the number of regions
     private int quadTreePartitioning(){
@@ -445,20 +824,18 @@ public class Graph {
 
         //iterate through each node of the graph to calculate the top-left coordinate (l,t) and
         //bottom-right coordinate of (r,b) of the bounding box
-        for(Vertex v: getVertices()){
-            if(v !=null){
-                int lon=v.getLongitude();
-                int lat=v.getLatitude();
-
-                if(lon>highestLon)
-                    highestLon=lon;
-                if(lon<lowestLon)
-                    lowestLon=lon;
-                if(lat>highestLat)
-                    highestLat=lat;
-                if(lat<lowestLat)
-                    lowestLat=lat;
-            }
+        for(int v=1;v<=V;v++){
+            int lon=getLongitude(v);
+            int lat=getLatitude(v);
+
+            if(lon>highestLon)
+                highestLon=lon;
+            if(lon<lowestLon)
+                lowestLon=lon;
+            if(lat>highestLat)
+                highestLat=lat;
+            if(lat<lowestLat)
+                lowestLat=lat;
         }
 
         //bottom-left
@@ -468,12 +845,10 @@ public class Graph {
         int t=highestLat+10;
 
         //create quad-tree data structure
-        QuadTree qt = new QuadTree((double)l/1000000, (double)b/1000000, (double)r/1000000, (double)t/1000000);
-        for(Vertex v: vertices)
+        QuadTree qt = new QuadTree(this, (double)l/1000000, (double)b/1000000, (double)r/1000000, (double)t/1000000);
+        for(int v=1;v<=V;v++)
         {
-            if(v != null){
-                qt.insert(v); //add nodes to quad-tree
-            }
+            qt.insert(v); //add nodes to quad-tree
         }
 
         //get list of quadrants
@@ -486,9 +861,9 @@ public class Graph {
             //create new regions for each quadrant
             Region region=new Region(region_id);
 
-            for(Vertex v: q.getVertices()){
-                if(!v.isAssignedToRegion()){
-                    v.setRegion(region.getRegionId()); //set node's region
+            for(int v: q.getVertices()){
+                if(getRegion(v)<0){
+                    setRegion(v, region.getRegionId()); //set node's region
 
                     region.addVertex(v);
                 }
@@ -508,14 +883,13 @@ public class Graph {
     //graph partitioning base don kd-tree data structure
     private int kdTreePartitioning(){
 
-        ArrayList<Vertex> listOfVertices=new ArrayList<>();
-        for(Vertex v: getVertices()){
-            if(v!=null)
-                listOfVertices.add(v);
+        int[] listOfVertices=new int[V];
+        for(int v=1;v<=V;v++){
+            listOfVertices[v-1]=v;
         }
 
         //create kd-tree data structure
-        KdTree kdTree = new KdTree(listOfVertices);
+        KdTree kdTree = new KdTree(this, listOfVertices);
         List<KdTree.KdNode> nodes=kdTree.getLeafNodes();
 
         int region_id=0;
@@ -526,9 +900,9 @@ public class Graph {
             //create new regions for each quadrant
             Region region=new Region(region_id);
 
-            for(Vertex v: node.getVertices()){
-                if(!v.isAssignedToRegion()){
-                    v.setRegion(region.getRegionId()); //set node's region
+            for(int v: node.getVertices()){
+                if(getRegion(v)<0){
+                    setRegion(v, region.getRegionId()); //set node's region
 
                     region.addVertex(v);
                 }
@@ -551,34 +925,24 @@ public class Graph {
     private int naiveEdgeFlagCalculation(){
 
         int noOfPrepNodeScans=0;
+        Dijkstra reverseDijkstra=new Dijkstra(getReverseView());
 
         //iterate through each region
         for(Region r: this.getRegions()){
             //visit nodes in each region
-            for(Vertex root: r.getVertices()){
+            for(int rootId: r.getVertices()){
+                Vertex root=getVertex(rootId);
 
                 //each root node constitutes for one node to be preprocessed
                 noOfPrepNodeScans++;
 
                 //calculate a tree of shortest paths from root to all other nodes
-                Graph reverseGraph=generateReverseGraph();
-                Dijkstra sp=new Dijkstra(reverseGraph, root, noOfPrepNodeScans); //calculate shortest path tree from root to all other vertices
+                System.out.println("Edge flag calculation using Dijkstra..." + noOfPrepNodeScans);
+                SearchState sp=reverseDijkstra.shortestPathTree(root); //calculate shortest path tree from root to all other vertices
                 int target_region=r.getRegionId(); //acquire root's region
-                Map<Vertex, Integer> distanceVector = sp.getDistances();
 
-                //iterate through all edges
-                //inspect all edges after each tree calculation
-                for (Edge e : this.getEdges()) {
-                    Vertex edgeSrc = e.getSource();
-                    Vertex edgeDest = e.getDestination();
-
-                    int distToEdgeSrc=distanceVector.get(edgeSrc); //distance from root to src node of an edge
-                    int distToEdgeDest=distanceVector.get(edgeDest); //distance from root to dest node of an edge
-
-                    if (distToEdgeSrc - distToEdgeDest == e.getWeight()) {
-                        e.setFlag(target_region);
-                    }
-                }
+                //inspect all arcs after each tree calculation
+                flagArcs(sp, target_region, false);
             }
         } //end for
 
@@ -591,40 +955,57 @@ public class Graph {
     private int enhancedEdgeFlagCalculation(){
 
         int noOfPrepNodeScans=0;
-        System.out.println("Number of boundary nodes: " + getBoundaryNodes().size());
+        System.out.println("Number of boundary nodes: " + getBoundaryNodes().cardinality());
+        Dijkstra reverseDijkstra=new Dijkstra(getReverseView());
 
         //iterate through boundary nodes
-        for(Vertex root: getBoundaryNodes()){
+        for(int rootId=getBoundaryNodes().nextSetBit(0); rootId>=0; rootId=getBoundaryNodes().nextSetBit(rootId+1)){
+            Vertex root=getVertex(rootId);
 
             //each root node constitutes as one prep node scan
             noOfPrepNodeScans++;
 
             //calculate a tree of shortest paths from root to all other nodes
-            Graph reverseGraph=generateReverseGraph();
-            Dijkstra sp = new Dijkstra(reverseGraph, root, noOfPrepNodeScans);
+            System.out.println("Edge flag calculation using Dijkstra..." + noOfPrepNodeScans);
+            SearchState sp=reverseDijkstra.shortestPathTree(root);
             int target_region = root.getRegion();
-            Map<Vertex, Integer> distanceVector = sp.getDistances();
 
-            //iterate through all edges of the original graph
-            for (Edge e : this.getEdges()) {
-                Vertex edgeSrc = e.getSource();
-                Vertex edgeDest = e.getDestination();
+            //inspect all arcs of the original graph, arcs inside the target region are flagged as well
+            flagArcs(sp, target_region, true);
+        } //end for
 
-                int distToEdgeSrc=distanceVector.get(edgeSrc); //distance from root to src node of an edge
-                int distToEdgeDest=distanceVector.get(edgeDest); //distance from root to dest node of an edge
+        return noOfPrepNodeScans;
+    }
 
-                if (distToEdgeSrc - distToEdgeDest == e.getWeight()) {
-                    e.setFlag(target_region);
-                }
 
-                //check if the dest node of the edge belong to the target region
-                if(edgeSrc.getRegion() == edgeDest.getRegion() && edgeDest.getRegion()==target_region){
-                    e.setFlag(target_region);
-                }
+    //flag every arc which is on a shortest path of the tree sp into the target region (and arcs inside the target region
+    //if insideTarget is set), arcs of compressed layout are decoded by a cursor
+    private void flagArcs(SearchState sp, int target_region, boolean insideTarget){
+        CompressedArcs.Cursor cursor= compressedArcs != null ? compressedArcs.cursor() : null;
+        for(int v=1;v<=V;v++){
+            if(cursor != null){
+                cursor.reset(v);
+                while(cursor.next())
+                    flagArc(sp, target_region, insideTarget, cursor.getArc(), v, cursor.getHead(), cursor.getWeight());
+            }else{
+                for(int a=getFirstArc(v); a<getEndArc(v); a++)
+                    flagArc(sp, target_region, insideTarget, a, v, getArcHead(a), getArcWeight(a));
             }
-        } //end for
+        }
+    }
 
-        return noOfPrepNodeScans;
+    private void flagArc(SearchState sp, int target_region, boolean insideTarget, int arc, int src, int dest, int weight){
+        int distToEdgeSrc=sp.getDistance(src); //distance from root to src node of an edge
+        int distToEdgeDest=sp.getDistance(dest); //distance from root to dest node of an edge
+
+        if (distToEdgeSrc - distToEdgeDest == weight) {
+            setArcFlag(arc, target_region, true);
+        }
+
+        //check if the dest node of the edge belong to the target region
+        if(insideTarget && getRegion(src) == getRegion(dest) && getRegion(dest)==target_region){
+            setArcFlag(arc, target_region, true);
+        }
     }
 
 
@@ -634,19 +1015,18 @@ public class Graph {
         try{
             //try reading the file from disk
             Scanner sc=new Scanner(edgeFlagData);
+            BitSet arcsRead=new BitSet(E); //parallel arcs are listed in the order of their arcs
             while(sc.hasNextLine()){
 
-                int srcVertexId=sc.nextInt();
-                int destVertexId=sc.nextInt();
-                Edge e=this.getEdge(srcVertexId, destVertexId);
+                int srcVertexId=getVertexByOriginalId(sc.nextInt()).getId();
+                int destVertexId=getVertexByOriginalId(sc.nextInt()).getId();
+                int arc=getArc(srcVertexId, destVertexId, arcsRead);
+                arcsRead.set(arc);
 
                 String edgeFlags=sc.next();
-                String[] edgeFlag=edgeFlags.split("");
-                for(int i=0; i<edgeFlag.length; i++){
+                for(int i=0; i<edgeFlags.length(); i++){
                     //variable i corresponds to the region id
-                    boolean val=false;
-                    if(edgeFlag[i].equals("1")) val=true;
-                    e.setFlag(i,val);
+                    setArcFlag(arc, i, edgeFlags.charAt(i)=='1');
                 }
             }
 
@@ -669,18 +1049,25 @@ public class Graph {
             FileWriter writer = new FileWriter(edgeFlagData);
 
             // Writes the content to the file
-            //iterate through the edges
+            //iterate through the arcs
+            CompressedArcs.Cursor cursor= compressedArcs != null ? compressedArcs.cursor() : null;
             boolean firstLine=true;
-            for(Edge e: this.getEdges()){
-                if(!firstLine)
-                    writer.write("\n");
+            for(int v=1;v<=V;v++){
+                if(cursor != null)
+                    cursor.reset(v);
+                for(int a=getFirstArc(v); a<getEndArc(v); a++){
+                    if(!firstLine)
+                        writer.write("\n");
+
+                    //ids of the input files are written, so the data does not depend on vertex order
+                    int w= cursor != null && cursor.next() ? cursor.getHead() : getArcHead(a);
+                    writer.write(getOriginalId(v)+ "\t" + getOriginalId(w)+"\t");
+                    for(int r=0;r<noOfFlagRegions;r++){
+                        writer.write(isArcFlagged(a, r)?"1":"0");
+                    }
 
-                writer.write(e.getSource().getId()+ "\t" + e.getDestination().getId()+"\t");
-                for(boolean val: e.getAllFlags()){
-                    writer.write(val?"1":"0");
+                    firstLine=false;
                 }
-
-                firstLine=false;
             }
 
             writer.flush();
@@ -695,28 +1082,41 @@ public class Graph {
 
 
     //partition the graph in to regions
+    //regions are shared between the graph and its reverse view, so the graph is partitioned only once
     private void partitionGraph(){
-        int noOfRegions=0;
+        int noOfRegions=partitionIntoRegions();
+
+        //allocate the bit array which contains the edge flags (one flag per arc and region), by default all flags are 0
+        long noOfWords=((long)E*noOfRegions + 63) >>> 6;
+        if(noOfWords > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Edge flags of " + E + " arcs and " + noOfRegions + " regions are too large, use fewer regions");
+        this.noOfFlagRegions=noOfRegions;
+        this.arcFlags=new long[(int)noOfWords];
+    }
 
-        switch(Main.GRAPH_PARTITIONING){
-            case 0: {
-                noOfRegions= this.rectangularPartitioning(); //rectangular graph partitioning
-                break;
-            }
-            case 1:{
-                noOfRegions= this.quadTreePartitioning(); //quad tree partitioning
-                break;
-            }
-            case 2:{
-                noOfRegions= this.kdTreePartitioning(); //kd tree partitioning
-                break;
+
+    //partition the graph into regions by the method of partitioning_type config parameter, unless it is partitioned already
+    //regions are numbered in spatial order (row by row, or in the order of leaves of quad-tree and kd-tree)
+    //return the number of regions
+    public int partitionIntoRegions(){
+        if(regions.isEmpty()){
+            switch(Main.GRAPH_PARTITIONING){
+                case 0: {
+                    this.rectangularPartitioning(); //rectangular graph partitioning
+                    break;
+                }
+                case 1:{
+                    this.quadTreePartitioning(); //quad tree partitioning
+                    break;
+                }
+                case 2:{
+                    this.kdTreePartitioning(); //kd tree partitioning
+                    break;
+                }
             }
         }
 
-        //set the size of array which contains the edge flags (should be equal to number of regions)
-        for(Edge e: this.getEdges()){
-            e.setEdgeFlagArraySize(noOfRegions);
-        }
+        return regions.size();
     }
 
 
@@ -785,4 +1185,29 @@ public class Graph {
             System.out.println("Preprocessing ended");
         }
     }
+
+
+    //contraction hierarchies preprocessing: vertices are contracted in the order of their edge difference and
+    //shortcuts are inserted where witness searches find no path around the contracted vertex
+    public void contract(StatsForPreprocessing statsPrep){
+        if(contractionHierarchy==null){
+
+            System.out.println("Preprocessing started");
+            long prepStartTime, prepEndTime;
+
+            //mark start of prep
+            prepStartTime=System.nanoTime();
+
+            contractionHierarchy=new ContractionHierarchy(this);
+
+            //mark end of prep
+            prepEndTime=System.nanoTime();
+            statsPrep.setPrepExecTime(prepEndTime-prepStartTime);
+            statsPrep.setNoOfNodesScanned(contractionHierarchy.getNoOfNodeScans());
+            statsPrep.setReadFromFile(false);
+
+            System.out.println("Shortcuts added: " + contractionHierarchy.getNoOfShortcuts() + ", arcs in hierarchy: " + contractionHierarchy.getNoOfArcs());
+            System.out.println("Preprocessing ended");
+        }
+    }
 }
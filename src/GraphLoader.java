@@ -0,0 +1,178 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+//Loads graph (.gr) and coordinate (.co) files
+//each file is split into line-aligned chunks which are parsed on a fork-join pool, coordinates are loaded alongside arcs
+public class GraphLoader {
+
+    //load the graph and enrich its vertices with coordinates
+    //noOfThreads - size of the fork-join pool (0 = one thread per core, 1 = read both files sequentially on the calling thread)
+    public static Graph load(final File graphFile, final File coordFile, int noOfThreads){
+        if(noOfThreads<=0)
+            noOfThreads=Runtime.getRuntime().availableProcessors();
+
+        if(noOfThreads==1){
+            Graph g=new Graph(graphFile);
+            g.addNodeCoordinates(coordFile);
+            return g;
+        }
+
+        final int noOfChunks=noOfThreads;
+        ForkJoinPool pool=new ForkJoinPool(noOfThreads);
+        try{
+            //start loading coordinates, the pool parses their chunks while arcs are being parsed
+            ForkJoinTask<List<CoordinateReader>> coordTask=pool.submit(new Callable<List<CoordinateReader>>() {
+                @Override
+                public List<CoordinateReader> call() throws IOException {
+                    return DimacsReader.readInChunks(coordFile, noOfChunks, new DimacsReader.HandlerFactory<CoordinateReader>() {
+                        @Override
+                        public CoordinateReader newHandler() {
+                            return new CoordinateReader();
+                        }
+                    });
+                }
+            });
+
+            List<ArcReader> arcChunks=pool.submit(new Callable<List<ArcReader>>() {
+                @Override
+                public List<ArcReader> call() throws IOException {
+                    return DimacsReader.readInChunks(graphFile, noOfChunks, new DimacsReader.HandlerFactory<ArcReader>() {
+                        @Override
+                        public ArcReader newHandler() {
+                            return new ArcReader();
+                        }
+                    });
+                }
+            }).get();
+
+            //the problem line is in one of the chunks (normally the first one)
+            int noOfVertices=-1;
+            for(ArcReader chunk: arcChunks){
+                if(chunk.getNoOfVertices()>=0)
+                    noOfVertices=chunk.getNoOfVertices();
+            }
+            if(noOfVertices<0)
+                throw new IllegalArgumentException("Problem line is missing in " + graphFile.getName());
+
+            Graph g=new Graph(noOfVertices, arcChunks);
+            g.setNodeCoordinates(coordTask.get());
+            return g;
+
+        }catch (InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Graph loading was interrupted", ex);
+        }catch (ExecutionException ex){
+            throw new IllegalArgumentException("Could not load graph from " + graphFile.getName() + " and " + coordFile.getName(), ex.getCause());
+        }finally {
+            pool.shutdown();
+        }
+    }
+
+
+    //collects the problem line and arcs of a .gr file (or of one chunk of it)
+    //vertices are validated once all chunks are merged into the graph
+    public static class ArcReader extends DimacsReader.LineHandler {
+        private int noOfVertices=-1; //-1 until the problem line is read
+        private int[] tails=new int[16];
+        private int[] heads=new int[16];
+        private int[] weights=new int[16];
+        private int noOfArcs=0;
+
+        @Override
+        public void problem(int[] values, int count){
+            //read the definition of a problem: p sp <vertices> <edges>
+            if(count<2) throw new IllegalArgumentException("Problem line must define the number of vertices and edges");
+            if (values[0] < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+            if (values[1] < 0) throw new IllegalArgumentException("Number of edges must be nonnegative");
+
+            noOfVertices=values[0];
+
+            //reserve space for all arcs declared in the problem line
+            if(values[1]>tails.length)
+                grow(values[1]);
+        }
+
+        @Override
+        public void arc(int src, int dest, int weight){
+            //grow arc arrays if there are more arcs than declared in the problem line
+            if(noOfArcs==tails.length)
+                grow(2*tails.length);
+
+            tails[noOfArcs]=src;
+            heads[noOfArcs]=dest;
+            weights[noOfArcs]=weight;
+            noOfArcs++;
+        }
+
+        private void grow(int newLength){
+            tails=Arrays.copyOf(tails, newLength);
+            heads=Arrays.copyOf(heads, newLength);
+            weights=Arrays.copyOf(weights, newLength);
+        }
+
+        public int getNoOfVertices() {
+            return noOfVertices;
+        }
+
+        public int getNoOfArcs() {
+            return noOfArcs;
+        }
+
+        public int[] getTails() {
+            return tails;
+        }
+
+        public int[] getHeads() {
+            return heads;
+        }
+
+        public int[] getWeights() {
+            return weights;
+        }
+    }
+
+
+    //collects vertex coordinates of a .co file (or of one chunk of it)
+    public static class CoordinateReader extends DimacsReader.LineHandler {
+        private int[] ids=new int[16];
+        private int[] lons=new int[16];
+        private int[] lats=new int[16];
+        private int noOfVertices=0;
+
+        @Override
+        public void vertex(int id, int lon, int lat){
+            if(noOfVertices==ids.length){
+                ids=Arrays.copyOf(ids, 2*ids.length);
+                lons=Arrays.copyOf(lons, 2*lons.length);
+                lats=Arrays.copyOf(lats, 2*lats.length);
+            }
+
+            ids[noOfVertices]=id;
+            lons[noOfVertices]=lon;
+            lats[noOfVertices]=lat;
+            noOfVertices++;
+        }
+
+        public int getNoOfVertices() {
+            return noOfVertices;
+        }
+
+        public int[] getIds() {
+            return ids;
+        }
+
+        public int[] getLongitudes() {
+            return lons;
+        }
+
+        public int[] getLatitudes() {
+            return lats;
+        }
+    }
+}
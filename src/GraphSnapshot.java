@@ -0,0 +1,246 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+//Binary snapshot of a loaded graph: vertices, coordinates, forward arcs and in-arc index of the reverse view in CSR layout
+//the snapshot is written once and reopened through FileChannel.map, so text DIMACS files do not have to be parsed again
+//in off-heap storage mode (graph_storage=1) the read-only mapped regions are used by the graph directly (arc weights and
+//coordinates are copied to direct buffers, so they can be changed), otherwise they are copied to the heap
+//the snapshot carries length, modification time and CRC32 checksum of the source .gr/.co files to detect stale snapshots
+//
+//file layout (little-endian):
+//  header: magic, version, V, E, then length, last modified time and checksum of .gr and .co files
+//  int[V+2] firstOut, int[E] head, int[E] weight - forward graph
+//  int[V+2] firstIn, int[E] tail, int[E] forward arc - reverse view
+//  int[V+1] longitude, int[V+1] latitude
+public class GraphSnapshot {
+
+    private static final int MAGIC=0x47534E50; //"GSNP"
+    private static final int VERSION=2;
+    private static final int HEADER_SIZE=64; //in bytes
+    private static final int BUFFER_SIZE=1<<20; //write buffer size in bytes
+    private static final long MAX_MAPPED_REGION=1L<<30; //source files are checksummed in regions of at most 1 GB
+
+    private final Graph graph;
+
+    private GraphSnapshot(Graph graph){
+        this.graph=graph;
+    }
+
+    //returns the graph, its reverse view is restored as well
+    public Graph getGraph() {
+        return graph;
+    }
+
+
+    //returns the snapshot file of a graph file (stored in the input directory)
+    public static File getSnapshotFile(File graphFile){
+        String graphFileName=graphFile.getName();
+        return new File(".//input//" + graphFileName.substring(0, graphFileName.indexOf('.')) + ".snap");
+    }
+
+
+    //reopen snapshot of graph and its reverse view
+    //returns null if snapshot does not exist, has another version or was made from different source files
+    public static GraphSnapshot open(File snapshotFile, File graphFile, File coordFile){
+        if(!snapshotFile.exists())
+            return null;
+
+        long startTime=System.nanoTime();
+
+        try{
+            RandomAccessFile file=new RandomAccessFile(snapshotFile, "r");
+            try{
+                FileChannel channel=file.getChannel();
+                if(channel.size()<HEADER_SIZE){
+                    System.out.println("Graph snapshot " + snapshotFile.getName() + " is incomplete, it will be rebuilt");
+                    return null;
+                }
+                ByteBuffer header=channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+                if(header.getInt()!=MAGIC || header.getInt()!=VERSION){
+                    System.out.println("Graph snapshot " + snapshotFile.getName() + " has unsupported format, it will be rebuilt");
+                    return null;
+                }
+
+                int V=header.getInt();
+                int E=header.getInt();
+
+                //a snapshot which was not written completely is rebuilt (mapping beyond its end would read zeros)
+                if(channel.size() != getSize(V, E)){
+                    System.out.println("Graph snapshot " + snapshotFile.getName() + " is incomplete, it will be rebuilt");
+                    return null;
+                }
+
+                if(!isUpToDate(header, graphFile) || !isUpToDate(header, coordFile)){
+                    System.out.println("Graph snapshot " + snapshotFile.getName() + " is stale, it will be rebuilt");
+                    return null;
+                }
+
+                //map arrays
+                long position=HEADER_SIZE;
+                IntStore firstOut=readInts(channel, position, V+2); position+=4L*(V+2);
+                IntStore head=readInts(channel, position, E); position+=4L*E;
+                IntStore weight=readWritableInts(channel, position, E); position+=4L*E;
+                IntStore firstIn=readInts(channel, position, V+2); position+=4L*(V+2);
+                IntStore tail=readInts(channel, position, E); position+=4L*E;
+                IntStore forwardArc=readInts(channel, position, E); position+=4L*E;
+                IntStore lons=readWritableInts(channel, position, V+1); position+=4L*(V+1);
+                IntStore lats=readWritableInts(channel, position, V+1);
+
+                Graph g=new Graph(V, firstOut, head, weight, lons, lats);
+                g.setReverseView(firstIn, tail, forwardArc);
+
+                System.out.println("Graph snapshot " + snapshotFile.getName() + " opened in " + (System.nanoTime()-startTime)/1000000 + " ms");
+                return new GraphSnapshot(g);
+            }finally {
+                file.close();
+            }
+        }catch (IOException ex){
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+
+    //write snapshot of graph and its reverse view
+    //the snapshot is written to a temporary file which replaces the snapshot file when it is complete, so an interrupted
+    //write never leaves a snapshot which looks valid
+    public static void write(File snapshotFile, Graph g, File graphFile, File coordFile){
+        File tempFile=new File(snapshotFile.getPath() + ".tmp");
+        try{
+            FileOutputStream out=new FileOutputStream(tempFile);
+            try{
+                FileChannel channel=out.getChannel();
+                ByteBuffer buffer=ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+                //header
+                buffer.putInt(MAGIC);
+                buffer.putInt(VERSION);
+                buffer.putInt(g.V());
+                buffer.putInt(g.E());
+                putSourceFileInfo(buffer, graphFile);
+                putSourceFileInfo(buffer, coordFile);
+                while(buffer.position()<HEADER_SIZE)
+                    buffer.put((byte)0);
+
+                //arcs of forward graph and reverse view (arc weights are only stored for the forward graph)
+                for(Graph graph: new Graph[]{g, g.getReverseView()}){
+                    for(int v=0;v<=graph.V()+1;v++){
+                        buffer=putInt(channel, buffer, v<=graph.V() ? graph.getFirstArc(v) : graph.getEndArc(graph.V()));
+                    }
+                    for(int a=0;a<graph.E();a++){
+                        buffer=putInt(channel, buffer, graph.getArcHead(a));
+                    }
+                    for(int a=0;a<graph.E();a++){
+                        buffer=putInt(channel, buffer, graph==g ? graph.getArcWeight(a) : graph.getForwardArc(a));
+                    }
+                }
+
+                //coordinates
+                for(int v=0;v<=g.V();v++){
+                    buffer=putInt(channel, buffer, v==0 ? 0 : g.getLongitude(v));
+                }
+                for(int v=0;v<=g.V();v++){
+                    buffer=putInt(channel, buffer, v==0 ? 0 : g.getLatitude(v));
+                }
+
+                buffer.flip();
+                while(buffer.hasRemaining())
+                    channel.write(buffer);
+                channel.force(true);
+            }finally {
+                out.close();
+            }
+
+            Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("Graph snapshot is written to disk");
+        }catch (IOException ex){
+            ex.printStackTrace();
+            tempFile.delete();
+        }
+    }
+
+
+    //append int to the buffer, the buffer is written to the channel when it is full
+    private static ByteBuffer putInt(FileChannel channel, ByteBuffer buffer, int value) throws IOException {
+        if(buffer.remaining()<4){
+            buffer.flip();
+            while(buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.clear();
+        }
+        return buffer.putInt(value);
+    }
+
+    //read an array of ints from a mapped region of the snapshot
+    //off-heap stores use the read-only mapped region directly, heap stores copy it
+    private static IntStore readInts(FileChannel channel, long position, int length) throws IOException {
+        IntBuffer ints=channel.map(FileChannel.MapMode.READ_ONLY, position, 4L*length).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        if(Main.GRAPH_STORAGE==1)
+            return IntStore.wrap(ints);
+
+        int[] values=new int[length];
+        ints.get(values);
+        return IntStore.wrap(values);
+    }
+
+    //read an array of ints which can be changed (arc weights and coordinates), off-heap stores copy the mapped region
+    //into a direct buffer, so changes do not touch the file
+    private static IntStore readWritableInts(FileChannel channel, long position, int length) throws IOException {
+        IntBuffer ints=channel.map(FileChannel.MapMode.READ_ONLY, position, 4L*length).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        return IntStore.copyOf(ints, Main.GRAPH_STORAGE==1);
+    }
+
+    //size of the snapshot of a graph with V vertices and E arcs in bytes
+    private static long getSize(int V, int E){
+        return HEADER_SIZE + 4L*(2*(V+2) + 4L*E + 2*(V+1));
+    }
+
+
+    //store length, modification time and checksum of a source file
+    private static void putSourceFileInfo(ByteBuffer buffer, File sourceFile) throws IOException {
+        buffer.putLong(sourceFile.length());
+        buffer.putLong(sourceFile.lastModified());
+        buffer.putLong(checksum(sourceFile));
+    }
+
+    //check if source file matches the one the snapshot was made from
+    //the checksum is only calculated if length matches, but modification time does not
+    private static boolean isUpToDate(ByteBuffer header, File sourceFile) throws IOException {
+        long length=header.getLong();
+        long lastModified=header.getLong();
+        long checksum=header.getLong();
+
+        if(length!=sourceFile.length())
+            return false;
+        if(lastModified==sourceFile.lastModified())
+            return true;
+
+        return checksum==checksum(sourceFile);
+    }
+
+    //calculate CRC32 checksum of the file contents
+    private static long checksum(File sourceFile) throws IOException {
+        CRC32 crc=new CRC32();
+        RandomAccessFile file=new RandomAccessFile(sourceFile, "r");
+        try{
+            FileChannel channel=file.getChannel();
+            long size=channel.size();
+            for(long position=0; position<size; position+=MAX_MAPPED_REGION){
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_MAPPED_REGION, size-position)));
+            }
+        }finally {
+            file.close();
+        }
+        return crc.getValue();
+    }
+}
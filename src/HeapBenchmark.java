@@ -0,0 +1,164 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.List;
+
+//Compares priority queues on operation traces of Dijkstra's algorithm
+//queries of a .p2p file are run on the graph once, every insertOrDecreaseKey and extractMin operation is recorded,
+//then the recorded trace is replayed on every priority queue, so all queues do exactly the same work
+public class HeapBenchmark {
+
+    private static final int EXTRACT_MIN=0; //vertex ids start from 1, so 0 marks an extractMin operation
+    private static final int NEW_QUERY=-1; //marks the start of a query (the queue is emptied)
+    private static final int WARM_UP_ROUNDS=3; //rounds run before measuring (JIT compilation)
+
+    private static final String[] QUEUES={"MinPriorityQueue", "binary (DAryHeap)", "4-ary (DAryHeap)", "8-ary (DAryHeap)", "pairing (PairingHeap)", "radix (RadixHeap)"};
+
+    private static int[] trace=new int[1<<20]; //pairs of (vertex id, key), (EXTRACT_MIN, 0) or (NEW_QUERY, 0)
+    private static int traceLength;
+    private static int noOfOperations;
+    private static long checksum; //keeps results of replayed operations alive
+
+
+    public static void main(String[] a){
+        //a[0] - graph (.gr) file
+        //a[1] - query (.p2p) file
+        //a[2] - number of queries used to record the trace (optional, all queries by default)
+        //a[3] - number of measured rounds (optional, 10 by default)
+
+        File graphFile=new File(a[0]);
+        File probFile=new File(a[1]);
+        for(File f: new File[]{graphFile, probFile}){
+            if (!f.exists())
+                throw new IllegalArgumentException("Could not open file", new FileNotFoundException(f.getPath()));
+        }
+
+        Main.GRAPH_LAYOUT=1;
+        Main.HEAP_ARITY=DAryHeap.DEFAULT_ARITY;
+        Graph g=new Graph(graphFile);
+        List<Query> queries=Main.loadQueries(probFile);
+        int noOfQueries= a.length>2 ? Math.min(Integer.parseInt(a[2]), queries.size()) : queries.size();
+        int noOfRounds= a.length>3 ? Integer.parseInt(a[3]) : 10;
+
+        //record operations of Dijkstra's algorithm
+        for(int i=0;i<noOfQueries;i++){
+            Query q=queries.get(i);
+            record(g, g.getVertexByOriginalId(q.getSrcVertex()).getId(), g.getVertexByOriginalId(q.getDestVertex()).getId());
+        }
+        System.out.println("Recorded " + noOfOperations + " operations of " + noOfQueries + " queries");
+
+        //replay the trace on every priority queue
+        long[] time=new long[QUEUES.length];
+        for(int round=0;round<WARM_UP_ROUNDS+noOfRounds;round++){
+            for(int queue=0;queue<QUEUES.length;queue++){
+                VertexPriorityQueue pq=createQueue(queue, g.V());
+
+                long start=System.nanoTime();
+                if(queue==0)
+                    checksum+=replay(g);
+                else
+                    checksum+=replay(pq);
+
+                if(round>=WARM_UP_ROUNDS)
+                    time[queue]+=System.nanoTime()-start;
+            }
+        }
+
+        System.out.printf("%-28s %12s%n", "queue", "ns/operation");
+        for(int queue=0;queue<QUEUES.length;queue++){
+            System.out.printf("%-28s %12.1f%n", QUEUES[queue], (double)time[queue]/noOfRounds/noOfOperations);
+        }
+        System.out.println("Checksum: " + checksum);
+    }
+
+
+    //run Dijkstra's algorithm from src to dest and append its queue operations to the trace
+    private static void record(Graph g, int src, int dest){
+        int[] d=new int[g.V()+1];
+        Arrays.fill(d, SearchState.INFINITY);
+        DAryHeap heap=new DAryHeap(g.V(), DAryHeap.DEFAULT_ARITY);
+
+        d[src]=0;
+        heap.insertOrDecreaseKey(src, 0);
+        add(NEW_QUERY, 0);
+        add(src, 0);
+        while(!heap.isEmpty()){
+            int v=heap.extractMin();
+            add(EXTRACT_MIN, 0);
+            if(v==dest)
+                break;
+
+            for(int arc=g.getFirstArc(v); arc<g.getEndArc(v); arc++){
+                int w=g.getArcHead(arc);
+                int distance=d[v] + g.getArcWeight(arc);
+                if(distance<d[w]){
+                    d[w]=distance;
+                    heap.insertOrDecreaseKey(w, distance);
+                    add(w, distance);
+                }
+            }
+        }
+    }
+
+    private static void add(int v, int key){
+        if(traceLength+2>trace.length)
+            trace=Arrays.copyOf(trace, 2*trace.length);
+        trace[traceLength++]=v;
+        trace[traceLength++]=key;
+        if(v!=NEW_QUERY)
+            noOfOperations++;
+    }
+
+
+    //create queue with the given index in QUEUES (MinPriorityQueue is replayed through vertex objects)
+    private static VertexPriorityQueue createQueue(int queue, int noOfVertices){
+        switch(queue){
+            case 1:
+                return new DAryHeap(noOfVertices, 2);
+            case 2:
+                return new DAryHeap(noOfVertices, 4);
+            case 3:
+                return new DAryHeap(noOfVertices, 8);
+            case 4:
+                return new PairingHeap(noOfVertices);
+            case 5:
+                return new RadixHeap(noOfVertices);
+            default:
+                return null;
+        }
+    }
+
+
+    //replay the trace on a priority queue of vertex ids
+    private static long replay(VertexPriorityQueue pq){
+        long checksum=0;
+        for(int i=0;i<traceLength;i+=2){
+            int v=trace[i];
+            if(v==EXTRACT_MIN){
+                checksum+=pq.extractMin();
+            }else if(v==NEW_QUERY){
+                pq.clear();
+            }else{
+                pq.insertOrDecreaseKey(v, trace[i+1]);
+            }
+        }
+        return checksum;
+    }
+
+    //replay the trace on the binary heap of HeapEntry objects
+    private static long replay(Graph g){
+        long checksum=0;
+        MinPriorityQueue pq=null;
+        for(int i=0;i<traceLength;i+=2){
+            int v=trace[i];
+            if(v==EXTRACT_MIN){
+                checksum+=pq.extractMin().getNode().getId();
+            }else if(v==NEW_QUERY){
+                pq=new MinPriorityQueue();
+            }else{
+                pq.insertOrDecreaseKey(g.getVertex(v), trace[i+1]);
+            }
+        }
+        return checksum;
+    }
+}
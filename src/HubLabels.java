@@ -0,0 +1,361 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+//Hub labels: every vertex v has a forward label of (hub, d(v,hub)) pairs and a backward label of (hub, d(hub,v)) pairs
+//such that every shortest s-t path contains a hub of both the forward label of s and the backward label of t, so
+//d(s,t) is the minimum of d(s,h) + d(h,t) over the common hubs of the two labels (merge-join of labels sorted by hub)
+//labels are built from the contraction hierarchy in decreasing rank: the label of v is v itself and the labels of its
+//upward (downward) neighbours shifted by the arc weights; a hub whose distance is improved through the other hubs of
+//the label is not on a shortest path and is removed
+//
+//labels are stored in a file which is reopened through FileChannel.map by the next runs
+//file layout (little-endian):
+//  header: magic, version, V, E, number of forward and backward label entries, hash of the arcs of the graph
+//  int[V+2] first entry of the forward label of every vertex, int[2*entries] hub and distance of forward label entries
+//  int[V+2] first entry of the backward label of every vertex, int[2*entries] hub and distance of backward label entries
+public class HubLabels {
+
+    private static final int MAGIC=0x48554C42; //"HULB"
+    private static final int VERSION=1;
+    private static final int HEADER_SIZE=64; //in bytes
+    private static final int BUFFER_SIZE=1<<20; //write buffer size in bytes
+
+    private final int V;
+    private final IntStore forwardFirst; //forward label of v is stored at entries forwardFirst[v] to forwardFirst[v+1]-1
+    private final IntStore forwardLabels; //hub of entry i at index 2i, distance at index 2i+1, sorted by hub within a label
+    private final IntStore backwardFirst;
+    private final IntStore backwardLabels;
+
+
+    private HubLabels(int V, IntStore forwardFirst, IntStore forwardLabels, IntStore backwardFirst, IntStore backwardLabels){
+        this.V=V;
+        this.forwardFirst=forwardFirst;
+        this.forwardLabels=forwardLabels;
+        this.backwardFirst=backwardFirst;
+        this.backwardLabels=backwardLabels;
+    }
+
+    //build labels of graph g from its contraction hierarchy
+    public HubLabels(Graph g, ContractionHierarchy ch){
+        V=g.V();
+
+        int[] order=new int[V+1]; //vertex of every rank
+        for(int v=1;v<=V;v++)
+            order[ch.getRank(v)]=v;
+
+        int[][] forward=new int[V+1][]; //labels while they are built, hub and distance of entry i at indices 2i and 2i+1
+        int[][] backward=new int[V+1][];
+        int[] best=new int[V+1]; //smallest distance of every hub of the label being built
+        Arrays.fill(best, SearchState.INFINITY);
+        long noOfForwardEntries=0;
+        long noOfBackwardEntries=0;
+
+        for(int r=V;r>=1;r--){
+            int v=order[r];
+            forward[v]=label(ch, v, true, forward, backward, best, new IntList());
+            backward[v]=label(ch, v, false, backward, forward, best, new IntList());
+            noOfForwardEntries+=forward[v].length/2;
+            noOfBackwardEntries+=backward[v].length/2;
+
+            if((V-r+1)%100000==0)
+                System.out.println("Labelled vertices: " + (V-r+1));
+        }
+        if(2*Math.max(noOfForwardEntries, noOfBackwardEntries) > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Hub labels of " + V + " vertices are too large");
+
+        forwardFirst=IntStore.allocate(V+2, false);
+        forwardLabels=IntStore.allocate((int)(2*noOfForwardEntries), false);
+        backwardFirst=IntStore.allocate(V+2, false);
+        backwardLabels=IntStore.allocate((int)(2*noOfBackwardEntries), false);
+        flatten(forward, forwardFirst, forwardLabels);
+        flatten(backward, backwardFirst, backwardLabels);
+    }
+
+
+    //label of vertex v: v itself and the labels of the upward (forward) or downward (backward) neighbours of v
+    //shifted by the arc weights, without hubs which are reached at a smaller distance through other hubs of the label
+    //(labels of the neighbours and the opposite labels of the hubs are built already, they have higher ranks)
+    private static int[] label(ContractionHierarchy ch, int v, boolean isForward, int[][] labels, int[][] opposite, int[] best, IntList hubs){
+        addHub(v, 0, best, hubs);
+        int first= isForward ? ch.getFirstUpArc(v) : ch.getFirstDownArc(v);
+        int end= isForward ? ch.getEndUpArc(v) : ch.getEndDownArc(v);
+        for(int a=first; a<end; a++){
+            int u= isForward ? ch.getUpArcHead(a) : ch.getDownArcTail(a);
+            int weight= isForward ? ch.getUpArcWeight(a) : ch.getDownArcWeight(a);
+            int[] neighbour=labels[u];
+            for(int i=0;i<neighbour.length;i+=2)
+                addHub(neighbour[i], neighbour[i+1] + weight, best, hubs);
+        }
+
+        //sort candidate hubs by id
+        long[] entries=new long[hubs.size()];
+        for(int i=0;i<hubs.size();i++){
+            int h=hubs.get(i);
+            entries[i]=((long)h<<32) | best[h];
+            best[h]=SearchState.INFINITY;
+        }
+        Arrays.sort(entries);
+        int[] candidates=new int[2*entries.length];
+        for(int i=0;i<entries.length;i++){
+            candidates[2*i]=(int)(entries[i]>>>32);
+            candidates[2*i+1]=(int)entries[i];
+        }
+
+        //pruning: d(v,h) through another hub of the label is shorter than the candidate distance
+        int size=0;
+        int[] label=new int[candidates.length];
+        for(int i=0;i<candidates.length;i+=2){
+            int h=candidates[i];
+            if(h==v || candidates[i+1] <= distance(candidates, opposite[h])){
+                label[size++]=h;
+                label[size++]=candidates[i+1];
+            }
+        }
+        return Arrays.copyOf(label, size);
+    }
+
+    private static void addHub(int h, int distance, int[] best, IntList hubs){
+        if(best[h]==SearchState.INFINITY)
+            hubs.add(h);
+        if(distance<best[h])
+            best[h]=distance;
+    }
+
+    //smallest sum of distances over the common hubs of two labels (merge-join of labels sorted by hub)
+    private static int distance(int[] forward, int[] backward){
+        long best=SearchState.INFINITY;
+        int i=0, j=0;
+        while(i<forward.length && j<backward.length){
+            if(forward[i]<backward[j]){
+                i+=2;
+            }else if(forward[i]>backward[j]){
+                j+=2;
+            }else{
+                best=Math.min(best, (long)forward[i+1] + backward[j+1]);
+                i+=2;
+                j+=2;
+            }
+        }
+        return (int)best;
+    }
+
+    //store labels one after the other
+    private static void flatten(int[][] labels, IntStore first, IntStore entries){
+        int position=0;
+        for(int v=0;v<labels.length;v++){
+            first.set(v, position/2);
+            if(labels[v]==null)
+                continue;
+
+            for(int x: labels[v])
+                entries.set(position++, x);
+        }
+        first.set(labels.length, position/2);
+    }
+
+
+    //shortest path distance from s to t, INFINITY if there is no path
+    //stats count the label entries read by the merge-join as scanned arcs and common hubs as distance improvements
+    public int getDistance(int s, int t, StatsForQuerying stats){
+        long best=SearchState.INFINITY;
+        int noOfEntries=0;
+        int noOfCommonHubs=0;
+        int i=forwardFirst.get(s), endI=forwardFirst.get(s+1);
+        int j=backwardFirst.get(t), endJ=backwardFirst.get(t+1);
+        while(i<endI && j<endJ){
+            int hubI=forwardLabels.get(2*i);
+            int hubJ=backwardLabels.get(2*j);
+            noOfEntries++;
+            if(hubI<hubJ){
+                i++;
+            }else if(hubI>hubJ){
+                j++;
+            }else{
+                best=Math.min(best, (long)forwardLabels.get(2*i+1) + backwardLabels.get(2*j+1));
+                noOfCommonHubs++;
+                i++;
+                j++;
+            }
+        }
+        stats.setNoOfArcsScanned(noOfEntries);
+        stats.setNoOfDistImprovements(noOfCommonHubs);
+        stats.setNoOfLabelEntries(forwardFirst.get(s+1)-forwardFirst.get(s) + backwardFirst.get(t+1)-backwardFirst.get(t));
+        return (int)best;
+    }
+
+    public int getNoOfForwardEntries(){
+        return forwardFirst.get(V+1);
+    }
+
+    public int getNoOfBackwardEntries(){
+        return backwardFirst.get(V+1);
+    }
+
+    //average number of hubs of forward and backward labels
+    public double getAvgLabelSize(){
+        return (double)(getNoOfForwardEntries() + getNoOfBackwardEntries()) / (2*V);
+    }
+
+
+    //returns the label file of a graph (stored in the input directory next to the snapshot of the graph)
+    public static File getLabelFile(File graphFile){
+        String graphFileName=graphFile.getName();
+        return new File(".//input//" + graphFileName.substring(0, graphFileName.indexOf('.')) + ".hl");
+    }
+
+    //reopen labels of graph g, in off-heap storage mode (graph_storage=1) the mapped regions are used directly
+    //returns null if the file does not exist, has another version or was made from another graph
+    public static HubLabels open(File labelFile, Graph g){
+        if(!labelFile.exists())
+            return null;
+
+        try{
+            RandomAccessFile file=new RandomAccessFile(labelFile, "r");
+            try{
+                FileChannel channel=file.getChannel();
+                if(channel.size()<HEADER_SIZE){
+                    System.out.println("Hub labels " + labelFile.getName() + " are incomplete, they will be rebuilt");
+                    return null;
+                }
+                ByteBuffer header=channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+                if(header.getInt()!=MAGIC || header.getInt()!=VERSION){
+                    System.out.println("Hub labels " + labelFile.getName() + " have unsupported format, they will be rebuilt");
+                    return null;
+                }
+
+                int V=header.getInt();
+                int E=header.getInt();
+                int noOfForwardEntries=header.getInt();
+                int noOfBackwardEntries=header.getInt();
+                if(noOfForwardEntries<0 || noOfBackwardEntries<0 || channel.size()!=getSize(V, noOfForwardEntries, noOfBackwardEntries)){
+                    System.out.println("Hub labels " + labelFile.getName() + " are incomplete, they will be rebuilt");
+                    return null;
+                }
+                if(V!=g.V() || E!=g.E() || header.getLong()!=hash(g)){
+                    System.out.println("Hub labels " + labelFile.getName() + " were made from another graph, they will be rebuilt");
+                    return null;
+                }
+
+                long position=HEADER_SIZE;
+                IntStore forwardFirst=readInts(channel, position, V+2); position+=4L*(V+2);
+                IntStore forwardLabels=readInts(channel, position, 2*noOfForwardEntries); position+=8L*noOfForwardEntries;
+                IntStore backwardFirst=readInts(channel, position, V+2); position+=4L*(V+2);
+                IntStore backwardLabels=readInts(channel, position, 2*noOfBackwardEntries);
+
+                System.out.println("Hub labels " + labelFile.getName() + " opened");
+                return new HubLabels(V, forwardFirst, forwardLabels, backwardFirst, backwardLabels);
+            }finally {
+                file.close();
+            }
+        }catch (IOException ex){
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    //write labels of graph g
+    //labels are written to a temporary file which replaces the label file when it is complete
+    public void write(File labelFile, Graph g){
+        File tempFile=new File(labelFile.getPath() + ".tmp");
+        try{
+            FileOutputStream out=new FileOutputStream(tempFile);
+            try{
+                FileChannel channel=out.getChannel();
+                ByteBuffer buffer=ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+                //header
+                buffer.putInt(MAGIC);
+                buffer.putInt(VERSION);
+                buffer.putInt(V);
+                buffer.putInt(g.E());
+                buffer.putInt(getNoOfForwardEntries());
+                buffer.putInt(getNoOfBackwardEntries());
+                buffer.putLong(hash(g));
+                while(buffer.position()<HEADER_SIZE)
+                    buffer.put((byte)0);
+
+                for(IntStore store: new IntStore[]{forwardFirst, forwardLabels, backwardFirst, backwardLabels}){
+                    for(int i=0;i<store.size();i++)
+                        buffer=putInt(channel, buffer, store.get(i));
+                }
+
+                buffer.flip();
+                while(buffer.hasRemaining())
+                    channel.write(buffer);
+                channel.force(true);
+            }finally {
+                out.close();
+            }
+
+            Files.move(tempFile.toPath(), labelFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("Hub labels are written to disk");
+        }catch (IOException ex){
+            ex.printStackTrace();
+            tempFile.delete();
+        }
+    }
+
+    //size of the label file in bytes
+    private static long getSize(int V, int noOfForwardEntries, int noOfBackwardEntries){
+        return HEADER_SIZE + 4L*(V+2) + 8L*noOfForwardEntries + 4L*(V+2) + 8L*noOfBackwardEntries;
+    }
+
+
+    //append int to the buffer, the buffer is written to the channel when it is full
+    private static ByteBuffer putInt(FileChannel channel, ByteBuffer buffer, int value) throws IOException {
+        if(buffer.remaining()<4){
+            buffer.flip();
+            while(buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.clear();
+        }
+        return buffer.putInt(value);
+    }
+
+    //read an array of ints from a mapped region of the label file
+    private static IntStore readInts(FileChannel channel, long position, int length) throws IOException {
+        IntBuffer ints=channel.map(FileChannel.MapMode.READ_ONLY, position, 4L*length).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        if(Main.GRAPH_STORAGE==1)
+            return IntStore.wrap(ints);
+
+        int[] values=new int[length];
+        ints.get(values);
+        return IntStore.wrap(values);
+    }
+
+    //hash of tails, heads and weights of all arcs (independent of the order of the arcs, so it is the same in every
+    //graph layout), labels are only valid for the graph they were made from
+    private static long hash(Graph g){
+        long hash=0;
+        CompressedArcs.Cursor cursor= g.isCompressed() ? g.getArcCursor() : null;
+        for(int v=1;v<=g.V();v++){
+            if(cursor != null){
+                cursor.reset(v);
+                while(cursor.next())
+                    hash+=mix(v, cursor.getHead(), cursor.getWeight());
+            }else{
+                for(int a=g.getFirstArc(v); a<g.getEndArc(v); a++)
+                    hash+=mix(v, g.getArcHead(a), g.getArcWeight(a));
+            }
+        }
+        return hash;
+    }
+
+    //scramble the bits of an arc (finalizer of the SplitMix64 generator)
+    private static long mix(int tail, int head, int weight){
+        long z=((long)tail<<32 | (head & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L + weight;
+        z=(z ^ (z>>>30)) * 0xBF58476D1CE4E5B9L;
+        z=(z ^ (z>>>27)) * 0x94D049BB133111EBL;
+        return z ^ (z>>>31);
+    }
+}
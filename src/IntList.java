@@ -0,0 +1,21 @@
+import java.util.Arrays;
+
+//growable list of ints (vertex ids of paths)
+public class IntList {
+    private int[] items=new int[16];
+    private int size;
+
+    public void add(int item){
+        if(size==items.length)
+            items=Arrays.copyOf(items, 2*size);
+        items[size++]=item;
+    }
+
+    public int get(int i){
+        return items[i];
+    }
+
+    public int size(){
+        return size;
+    }
+}
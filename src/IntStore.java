@@ -0,0 +1,108 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+//Fixed-size array of ints used by Graph to store topology, weights, coordinates and region ids
+//values are kept either on the Java heap (int[]) or off-heap in a direct or memory-mapped ByteBuffer
+public abstract class IntStore {
+
+    public abstract int get(int index);
+
+    public abstract void set(int index, int value);
+
+    public abstract int size();
+
+
+    //allocate a store filled with zeros
+    public static IntStore allocate(int size, boolean offHeap){
+        if(offHeap)
+            return new OffHeapIntStore(ByteBuffer.allocateDirect(4*size).order(ByteOrder.nativeOrder()).asIntBuffer());
+
+        return new HeapIntStore(new int[size]);
+    }
+
+    //copy values into a new store
+    public static IntStore copyOf(int[] values, boolean offHeap){
+        if(!offHeap)
+            return new HeapIntStore(values.clone());
+
+        IntStore store=allocate(values.length, true);
+        ((OffHeapIntStore)store).buffer.put(values, 0, values.length);
+        return store;
+    }
+
+    //copy values of the buffer (e.g. memory-mapped file region) into a new store
+    public static IntStore copyOf(IntBuffer values, boolean offHeap){
+        IntStore store=allocate(values.remaining(), offHeap);
+        if(offHeap)
+            ((OffHeapIntStore)store).buffer.put(values.duplicate());
+        else
+            values.duplicate().get(((HeapIntStore)store).values);
+        return store;
+    }
+
+    //use the array as a heap store without copying it
+    public static IntStore wrap(int[] values){
+        return new HeapIntStore(values);
+    }
+
+    //use the buffer (e.g. memory-mapped file region) as an off-heap store without copying it
+    public static IntStore wrap(IntBuffer buffer){
+        return new OffHeapIntStore(buffer);
+    }
+
+    //set all values to value
+    public void fill(int value){
+        for(int i=0;i<size();i++){
+            set(i, value);
+        }
+    }
+
+
+    private static final class HeapIntStore extends IntStore {
+        private final int[] values;
+
+        private HeapIntStore(int[] values){
+            this.values=values;
+        }
+
+        @Override
+        public int get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public void set(int index, int value) {
+            values[index]=value;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
+
+    private static final class OffHeapIntStore extends IntStore {
+        private final IntBuffer buffer;
+
+        private OffHeapIntStore(IntBuffer buffer){
+            this.buffer=buffer;
+        }
+
+        @Override
+        public int get(int index) {
+            return buffer.get(index);
+        }
+
+        @Override
+        public void set(int index, int value) {
+            buffer.put(index, value);
+        }
+
+        @Override
+        public int size() {
+            return buffer.capacity();
+        }
+    }
+}
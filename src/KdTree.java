@@ -1,5 +1,5 @@
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 
 //Kd-tree data structure
@@ -12,50 +12,60 @@ public class KdTree{
     private static final int X_AXIS = 0;
     private static final int Y_AXIS = 1;
 
-    public KdTree(List<Vertex> list) {
-        this.root = createNode(list, 0);
+    //g - graph which stores coordinates of vertices
+    //list - ids of vertices
+    public KdTree(Graph g, int[] list) {
+        this.root = createNode(g, list, 0);
     }
 
-    private static KdNode createNode(List<Vertex> list, int depth) {
-        if (list == null || list.size() == 0) {
+    private static KdNode createNode(Graph g, int[] list, int depth) {
+        if (list == null || list.length == 0) {
             return null;
         }
 
+        //sort vertices by coordinate of the axis (x axis on even depth, y axis on odd depth)
+        //coordinate and vertex id are packed into one long, so primitive sort can be used
         int axis = depth % 2;
-        if (axis == X_AXIS)
-            Collections.sort(list, Vertex.X_COMPARATOR);
-        else //if (axis == Y_AXIS)
-            Collections.sort(list, Vertex.Y_COMPARATOR);
+        long[] keys = new long[list.length];
+        for (int i = 0; i < list.length; i++) {
+            keys[i] = (long)coordinate(g, list[i], axis) << 32 | list[i];
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < list.length; i++) {
+            list[i] = (int)keys[i];
+        }
 
 
         KdNode node = null;
-        List<Vertex> less = new ArrayList<Vertex>(list.size());
-        List<Vertex> more = new ArrayList<Vertex>(list.size());
 
-        if (list.size() > 0) {
-            int medianIndex = list.size() / 2;
+        if (list.length > 0) {
+            int medianIndex = list.length / 2;
 
-            if(list.size()<=Main.MAX_VERTICES_PER_REGION){
+            if(list.length<=Main.MAX_VERTICES_PER_REGION){
                 return new KdNode(list);
             }else{
 
-                node= new KdNode();
-                for (Vertex vertex: list) {
-                    if (vertex.compareTo(depth, list.get(medianIndex))<0) {
-                        less.add(vertex);
-                    } else {
-                        more.add(vertex);
-                    }
+                //vertices before the first vertex with median coordinate are less than the median
+                int median = coordinate(g, list[medianIndex], axis);
+                int noOfLess = medianIndex;
+                while (noOfLess > 0 && coordinate(g, list[noOfLess-1], axis) == median) {
+                    noOfLess--;
                 }
 
-                node.lesser = createNode(less, depth + 1);
-                node.greater = createNode(more, depth + 1);
+                node= new KdNode();
+                node.lesser = createNode(g, Arrays.copyOfRange(list, 0, noOfLess), depth + 1);
+                node.greater = createNode(g, Arrays.copyOfRange(list, noOfLess, list.length), depth + 1);
             }
         }
 
         return node;
     }
 
+    //returns x (longitude) or y (latitude) coordinate of a vertex
+    private static int coordinate(Graph g, int vertexId, int axis) {
+        return axis == X_AXIS ? g.getLongitude(vertexId) : g.getLatitude(vertexId);
+    }
+
 
     public List<KdNode> getLeafNodes(){
         return getTree(this.root);
@@ -91,7 +101,7 @@ public class KdTree{
 
     public static class KdNode{
 
-        private final List<Vertex> vertices;
+        private final int[] vertices; //ids of vertices
         private KdNode lesser = null;
         private KdNode greater = null;
 
@@ -99,11 +109,11 @@ public class KdTree{
             this.vertices = null;
         }
 
-        public KdNode(List<Vertex> vertices) {
+        public KdNode(int[] vertices) {
             this.vertices = vertices;
         }
 
-        public List<Vertex> getVertices(){
+        public int[] getVertices(){
             return vertices;
         }
     }
@@ -0,0 +1,211 @@
+import java.util.Arrays;
+import java.util.Random;
+
+//Landmarks of the ALT algorithm (A* search, landmarks and triangle inequality)
+//shortest path distances from every landmark L to all vertices and from all vertices to L are calculated once;
+//by the triangle inequality d(v,w) >= d(L,w) - d(L,v) and d(v,w) >= d(v,L) - d(w,L)
+//distances of a vertex to and from all landmarks are stored next to each other in one int array, so a lower bound
+//reads two short runs of memory
+public class Landmarks implements DistanceLowerBound {
+
+    //landmark selection methods (landmark_selection config parameter)
+    public static final int FARTHEST=0; //vertex farthest from the landmarks selected so far
+    public static final int AVOID=1; //leaf of the shortest path tree region worst covered by the landmarks selected so far
+
+    private static final int UNREACHABLE=SearchState.INFINITY;
+    private static final long SEED=1; //landmarks of a graph are the same in every run
+
+    private final int K; //number of landmarks
+    private final int[] landmarks; //vertex id of every landmark
+    private final int[] dist; //d(L_i,v) at index 2Kv+2i and d(v,L_i) at index 2Kv+2i+1
+    private final Dijkstra forward; //shortest path trees from a vertex
+    private final Dijkstra backward; //shortest path trees to a vertex (on the reverse view)
+    private final StatsForQuerying treeStats=new StatsForQuerying(); //node scans of the last shortest path tree
+    private int noOfNodeScans;
+
+
+    //select landmarks of graph g (revGraph is its reverse view) and calculate their distances
+    public Landmarks(Graph g, Graph revGraph, int noOfLandmarks, int selection){
+        int V=g.V();
+        K=Math.max(1, Math.min(noOfLandmarks, V));
+        landmarks=new int[K];
+        dist=new int[2*K*(V+1)];
+        Arrays.fill(dist, UNREACHABLE); //landmarks which are not selected yet give no bound
+        forward=new Dijkstra(g);
+        backward=new Dijkstra(revGraph);
+
+        Random rand=new Random(SEED);
+        for(int i=0;i<K;i++){
+            int landmark= selection==AVOID ? selectAvoid(g, i, rand) : selectFarthest(g, i, rand);
+            landmarks[i]=landmark;
+            System.out.println("Landmark " + (i+1) + " of " + K + ": " + g.getVertex(landmark));
+
+            //distances from the landmark
+            SearchState tree=shortestPathTree(forward, g.getVertex(landmark));
+            for(int v=1;v<=V;v++)
+                dist[2*K*v + 2*i]=tree.getDistance(v);
+
+            //distances to the landmark
+            tree=shortestPathTree(backward, g.getVertex(landmark));
+            for(int v=1;v<=V;v++)
+                dist[2*K*v + 2*i + 1]=tree.getDistance(v);
+        }
+    }
+
+
+    //lower bound of the distance from vertex v to vertex w, or INFINITY if w cannot be reached from v
+    @Override
+    public int get(int v, int w){
+        int best=0;
+        int a=2*K*v;
+        int b=2*K*w;
+        for(int i=0;i<K;i++, a+=2, b+=2){
+            //d(v,w) >= d(L,w) - d(L,v)
+            int fromV=dist[a];
+            int fromW=dist[b];
+            if(fromV != UNREACHABLE){
+                if(fromW == UNREACHABLE)
+                    return SearchState.INFINITY; //v is reached from L, w is not
+                best=Math.max(best, fromW-fromV);
+            }
+
+            //d(v,w) >= d(v,L) - d(w,L)
+            int toV=dist[a+1];
+            int toW=dist[b+1];
+            if(toW != UNREACHABLE){
+                if(toV == UNREACHABLE)
+                    return SearchState.INFINITY; //w reaches L, v does not
+                best=Math.max(best, toV-toW);
+            }
+        }
+        return best;
+    }
+
+    public int getNoOfLandmarks(){
+        return K;
+    }
+
+    //number of nodes scanned by the shortest path trees of the landmark selection and distance calculation
+    public int getNoOfNodeScans(){
+        return noOfNodeScans;
+    }
+
+
+    private SearchState shortestPathTree(Dijkstra dijkstra, Vertex root){
+        SearchState tree=dijkstra.shortestPathTree(root, treeStats);
+        noOfNodeScans+=treeStats.getNoOfNodesScanned();
+        return tree;
+    }
+
+    //vertex whose smallest distance from the landmarks selected so far is the largest
+    //(the first landmark is the vertex farthest from a random vertex)
+    private int selectFarthest(Graph g, int noOfSelected, Random rand){
+        int V=g.V();
+        SearchState tree= noOfSelected==0 ? shortestPathTree(forward, g.getVertex(rand.nextInt(V)+1)) : null;
+
+        int farthest=SearchState.NO_PARENT;
+        int maxDist=-1;
+        for(int v=1;v<=V;v++){
+            int d;
+            if(tree != null){
+                d=tree.getDistance(v);
+            }else{
+                d=UNREACHABLE;
+                for(int i=0;i<noOfSelected;i++)
+                    d=Math.min(d, dist[2*K*v + 2*i]);
+            }
+
+            if(d != UNREACHABLE && d>maxDist){
+                maxDist=d;
+                farthest=v;
+            }
+        }
+
+        return farthest==SearchState.NO_PARENT || isLandmark(farthest, noOfSelected) ? randomVertex(V, noOfSelected, rand) : farthest;
+    }
+
+    //avoid method of Goldberg and Werneck: in the shortest path tree of a random root every vertex v gets the weight
+    //d(root,v) - bound(root,v), the size of a subtree is the sum of its weights (zero if it contains a landmark) and the
+    //new landmark is the leaf reached by following the child with the largest size from the root
+    private int selectAvoid(Graph g, int noOfSelected, Random rand){
+        int V=g.V();
+        int root=randomVertex(V, noOfSelected, rand);
+        SearchState tree=shortestPathTree(forward, g.getVertex(root));
+
+        //children of every vertex of the tree in CSR layout
+        int[] firstChild=new int[V+2];
+        for(int v=1;v<=V;v++){
+            int p=tree.getParent(v);
+            if(p != SearchState.NO_PARENT)
+                firstChild[p+1]++;
+        }
+        int[] noOfChildren=new int[V+1];
+        for(int v=1;v<=V;v++){
+            noOfChildren[v]=firstChild[v+1];
+            firstChild[v+1]+=firstChild[v];
+        }
+        int[] children=new int[Math.max(firstChild[V+1], 1)];
+        int[] next=Arrays.copyOf(firstChild, V+1);
+        for(int v=1;v<=V;v++){
+            int p=tree.getParent(v);
+            if(p != SearchState.NO_PARENT)
+                children[next[p]++]=v;
+        }
+
+        //sizes of subtrees, leaves first
+        long[] size=new long[V+1];
+        boolean[] hasLandmark=new boolean[V+1];
+        int[] queue=new int[V];
+        int head=0, tail=0;
+        for(int v=1;v<=V;v++){
+            if(tree.getDistance(v) != UNREACHABLE && noOfChildren[v]==0)
+                queue[tail++]=v;
+        }
+        while(head<tail){
+            int v=queue[head++];
+            hasLandmark[v]|=isLandmark(v, noOfSelected);
+            int bound=get(root, v);
+            size[v]= hasLandmark[v] ? 0 : size[v] + tree.getDistance(v) - Math.min(bound, tree.getDistance(v));
+
+            int p=tree.getParent(v);
+            if(p != SearchState.NO_PARENT){
+                size[p]+=size[v];
+                hasLandmark[p]|=hasLandmark[v];
+                if(--noOfChildren[p]==0)
+                    queue[tail++]=p;
+            }
+        }
+
+        //follow the child with the largest size down to a leaf
+        int v=root;
+        while(true){
+            int maxChild=SearchState.NO_PARENT;
+            for(int c=firstChild[v]; c<firstChild[v+1]; c++){
+                if(size[children[c]]>0 && (maxChild==SearchState.NO_PARENT || size[children[c]]>size[maxChild]))
+                    maxChild=children[c];
+            }
+            if(maxChild==SearchState.NO_PARENT)
+                break;
+            v=maxChild;
+        }
+
+        return isLandmark(v, noOfSelected) ? randomVertex(V, noOfSelected, rand) : v;
+    }
+
+    private boolean isLandmark(int v, int noOfSelected){
+        for(int i=0;i<noOfSelected;i++){
+            if(landmarks[i]==v)
+                return true;
+        }
+        return false;
+    }
+
+    //random vertex which is not a landmark yet
+    private int randomVertex(int V, int noOfSelected, Random rand){
+        int v;
+        do{
+            v=rand.nextInt(V)+1;
+        }while(isLandmark(v, noOfSelected));
+        return v;
+    }
+}
@@ -1,13 +1,14 @@
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.FileInputStream;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.Scanner;
 import java.util.List;
 import java.util.Properties;
+import java.util.Random;
 
 public class Main {
 
@@ -18,12 +19,22 @@ public class Main {
     public static int ROWS, COLUMNS;
     public static int MAX_VERTICES_PER_QUADRANT;
     public static int MAX_VERTICES_PER_REGION;
+    public static int GRAPH_LAYOUT;
+    public static int LOADER_THREADS;
+    public static int GRAPH_SNAPSHOT;
+    public static int GRAPH_STORAGE;
+    public static int VERTEX_ORDER;
+    public static int HEAP_ARITY;
+    public static int PRIORITY_QUEUE;
+    public static int LANDMARKS;
+    public static int LANDMARK_SELECTION;
+    public static int ALT_SEARCH;
+    public static int OVERLAY_LEVELS;
+    public static int OVERLAY_UPDATE_INTERVAL;
+    public static int OVERLAY_WEIGHT_UPDATES;
 
     public static void main(String[] args) {
 
-        Scanner scanner1=null; //read graph files (with .gr extension)
-        Scanner scanner2=null; //read coordinate files (with .co extension)
-        Scanner scanner3=null; //read problem specification file (with .p2p extension)
         List<Query> p2pQueries; //array of p2p query pairs (either local or random pairs)
         Properties prop=new Properties();
         InputStream input = null; //read configuration file (config.txt)
@@ -37,14 +48,11 @@ public class Main {
             probFile=new File(args[2]); //file which contains data about p2p queries from src to dest nodes
             input = new FileInputStream("config.txt"); //in the root folder of a project
 
-            if (graphFile.exists())
-                scanner1 = new Scanner(graphFile);
-
-            if (coordFile.exists())
-                scanner2 = new Scanner(coordFile);
-
-            if (probFile.exists())
-                scanner3 = new Scanner(probFile);
+            //graph files (with .gr extension), coordinate files (with .co extension) and problem specification files (with .p2p extension) are read by DimacsReader
+            for(File f: new File[]{graphFile, coordFile, probFile}){
+                if (!f.exists())
+                    throw new FileNotFoundException(f.getPath());
+            }
 
             //load config file
             prop.load(input);
@@ -70,30 +78,89 @@ public class Main {
         COLUMNS=Integer.parseInt(prop.getProperty("columns","5"));
         MAX_VERTICES_PER_QUADRANT=Integer.parseInt(prop.getProperty("max_vertices_per_quadrant","6"));
         MAX_VERTICES_PER_REGION=Integer.parseInt(prop.getProperty("max_vertices_per_region","4"));
+        GRAPH_LAYOUT=Integer.parseInt(prop.getProperty("graph_layout","1"));
+        LOADER_THREADS=Integer.parseInt(prop.getProperty("loader_threads","0"));
+        GRAPH_SNAPSHOT=Integer.parseInt(prop.getProperty("graph_snapshot","0"));
+        GRAPH_STORAGE=Integer.parseInt(prop.getProperty("graph_storage","0"));
+        VERTEX_ORDER=Integer.parseInt(prop.getProperty("vertex_order","0"));
+        HEAP_ARITY=Integer.parseInt(prop.getProperty("heap_arity","4"));
+        PRIORITY_QUEUE=Integer.parseInt(prop.getProperty("priority_queue","1"));
+        LANDMARKS=Integer.parseInt(prop.getProperty("landmarks","16"));
+        LANDMARK_SELECTION=Integer.parseInt(prop.getProperty("landmark_selection","1"));
+        ALT_SEARCH=Integer.parseInt(prop.getProperty("alt_search","1"));
+        OVERLAY_LEVELS=Integer.parseInt(prop.getProperty("overlay_levels","2"));
+        OVERLAY_UPDATE_INTERVAL=Integer.parseInt(prop.getProperty("overlay_update_interval","0"));
+        OVERLAY_WEIGHT_UPDATES=Integer.parseInt(prop.getProperty("overlay_weight_updates","100"));
+
+
+        Graph g;
+        Graph revGraph;
+        File snapshotFile=GraphSnapshot.getSnapshotFile(graphFile);
+        GraphSnapshot snapshot= GRAPH_SNAPSHOT==1 ? GraphSnapshot.open(snapshotFile, graphFile, coordFile) : null;
+
+        if(snapshot != null){
+            //graph and its reverse view are restored from binary snapshot
+            g=snapshot.getGraph();
+        }else{
+            //read file which contains data about nodes, edges and edge weight and build a graph
+            //read .co file which contains data about node coordinates alongside and enrich nodes in the graph with coordinates
+            g = GraphLoader.load(graphFile, coordFile, LOADER_THREADS);
+
+            //write snapshot, so next runs do not have to parse text files
+            if(GRAPH_SNAPSHOT==1)
+                GraphSnapshot.write(snapshotFile, g, graphFile, coordFile);
+        }
+
+        //renumber vertices along a space-filling curve (queries and results keep the ids of the input files)
+        if(VERTEX_ORDER != 0)
+            g.reorderVertices(VERTEX_ORDER);
 
+        //select priority queue from weight range and size of the graph
+        if(PRIORITY_QUEUE==4)
+            PRIORITY_QUEUE=choosePriorityQueue(g);
 
-        //read file which contains data about nodes, edges and edge weight and build a graph
-        Graph g = new Graph(scanner1);
+        System.out.println("Priority queue: " + getPriorityQueueName());
 
-        //read .co file which contains data about node coordinates
-        //enrich nodes in the graph with coordinates
-        g.addNodeCoordinates(scanner2);
+        //reverse view to be used by bidirectional algorithms
+        revGraph=g.getReverseView();
 
-        //generate reverse graph to be used by bidirectional algorithms
-        Graph revGraph=g.generateReverseGraph();
+        //compressed adjacency layout replaces head and weight arrays of both graphs
+        if(GRAPH_LAYOUT==2){
+            g.compressArcs();
+            revGraph.compressArcs();
+        }
 
         //read queries from file
-        p2pQueries = loadQueries(scanner3);
+        p2pQueries = loadQueries(probFile);
 
         System.out.println("Queries read from file");
-        System.out.println("Printing graph...");
-        System.out.println(g.toString());
+        //only the size of the graph is printed, printing every arc would build the Edge object view of the whole graph
+        System.out.println("Vertices: " + g.V() + "   Edges: " + g.E());
 
         List<StatsForQuerying> qryStatsList=new ArrayList<>();
         StatsForPreprocessing prepStats=null; //preprocessing is done only once
 
+        //arc weights of compressed layout cannot be changed
+        boolean updateWeights= ALGORITHM==7 && OVERLAY_UPDATE_INTERVAL>0;
+        if(updateWeights && GRAPH_LAYOUT==2)
+            throw new IllegalArgumentException("Arc weights cannot be updated in compressed layout (graph_layout=2)");
+
+        //create the query engine once, it is reused by all queries
+        QueryEngine engine=createQueryEngine(g, revGraph, graphFile);
+        if(engine.getStatsForPrep() != null && !engine.getStatsForPrep().isReadFromFile()) {
+            prepStats = engine.getStatsForPrep();
+        }
+
+        Random random=new Random(1); //fixed seed, so every run applies the same weight updates
+        int noOfQueriesRun=0;
+
         for(Query q: p2pQueries){
 
+            //change arc weights between batches of queries and customize the overlay before the next batch
+            if(updateWeights && noOfQueriesRun>0 && noOfQueriesRun%OVERLAY_UPDATE_INTERVAL==0)
+                updateArcWeights((DijkstraWithOverlay)engine, g, random);
+            noOfQueriesRun++;
+
             //throw an IndexOutOfBoundsException unless 1 <= vertexId <= V
             if (q.getSrcVertex() < 1 || q.getSrcVertex() > g.V())
                 throw new IndexOutOfBoundsException("Source vertex " + q.getSrcVertex() + " is not between 1 and " + g.V());
@@ -101,49 +168,14 @@ public class Main {
             if (q.getDestVertex() < 1 || q.getDestVertex() > g.V())
                 throw new IndexOutOfBoundsException("Destination vertex " + q.getDestVertex() + " is not between 1 and " + g.V());
 
-            Vertex src=g.getVertex(q.getSrcVertex()); //src vertex
-            Vertex dest=g.getVertex(q.getDestVertex()); //dest vertex
+            Vertex src=g.getVertexByOriginalId(q.getSrcVertex()); //src vertex
+            Vertex dest=g.getVertexByOriginalId(q.getDestVertex()); //dest vertex
 
-            //compute shortest paths according to the specified algorithm
-            switch (ALGORITHM){
-                case 0:{
-                    Dijkstra algo0 = new Dijkstra(g, src, dest, q.getId());
-                    //algo0.printShortestPath(g, src, dest);
-                    qryStatsList.add(algo0.getStatsForQuery());
-                    break;
-                }
-                case 1:{
-                    DijkstraBidirectional algo1 = new DijkstraBidirectional(g, revGraph, src, dest, q.getId());
-                    //algo1.printShortestPath(g, src, dest);
-                    qryStatsList.add(algo1.getStatsForQuery());
-                    break;
-                }
-                case 2:{
-                    DijkstraForGeoNets algo2 = new DijkstraForGeoNets(g, src, dest, q.getId());
-                    //algo2.printShortestPath(g, src, dest);
-                    qryStatsList.add(algo2.getStatsForQuery());
-                    break;
-                }
-                case 3:{
-                    DijkstraWithEdgeFlags algo3 = new DijkstraWithEdgeFlags(g, src, dest, q.getId());
-                    //algo3.printShortestPath(g, src, dest);
-                    if(!algo3.getStatsForPrep().isReadFromFile()) {
-                        prepStats = algo3.getStatsForPrep();
-                    }
-                    qryStatsList.add(algo3.getStatsForQuery());
-                    break;
-                }
-                case 4:{
-                    DijkstraBidirectionalWithEdgeFlags algo4 = new DijkstraBidirectionalWithEdgeFlags(g, revGraph, src, dest, q.getId());
-                    //algo4.printShortestPath(g, src, dest);
-                    if(!algo4.getStatsForPrep().isReadFromFile()) {
-                        prepStats = algo4.getStatsForPrep();
-                    }
-                    qryStatsList.add(algo4.getStatsForQuery());
-                    break;
-                }
-
-            } //end switch
+            //compute shortest path with the engine of the specified algorithm
+            System.out.println(engine.getName() + " running..." + q.getId());
+            QueryResult result=engine.query(src, dest);
+            //engine.printShortestPath(g, result);
+            qryStatsList.add(result.getStats());
         } //end for
 
         //calculate statistics and generate performance report files
@@ -152,6 +184,57 @@ public class Main {
     } //end method main
 
 
+    //change the weights of randomly chosen arcs to between half and twice their weight (e.g. traffic updates) and
+    //customize the cells of the overlay containing them
+    private static void updateArcWeights(DijkstraWithOverlay engine, Graph g, Random random){
+        if(g.E()==0)
+            return;
+
+        for(int i=0;i<OVERLAY_WEIGHT_UPDATES;i++){
+            int v;
+            do{
+                v=random.nextInt(g.V())+1;
+            }while(g.getFirstArc(v)==g.getEndArc(v));
+
+            int a=g.getFirstArc(v) + random.nextInt(g.getEndArc(v)-g.getFirstArc(v));
+            long newWeight=(long)g.getArcWeight(a) * (50+random.nextInt(151)) / 100;
+            engine.updateArcWeight(v, a, (int)Math.min(newWeight, Integer.MAX_VALUE));
+        }
+
+        System.out.println(OVERLAY_WEIGHT_UPDATES + " arc weights updated");
+        engine.customize();
+    }
+
+
+    //create the query engine of the specified algorithm (preprocessing is done here)
+    private static QueryEngine createQueryEngine(Graph g, Graph revGraph, File graphFile){
+        switch (ALGORITHM){
+            case 1:
+                return new DijkstraBidirectional(g, revGraph);
+            case 2:
+                return new DijkstraForGeoNets(g);
+            case 3:
+                return new DijkstraWithEdgeFlags(g);
+            case 4:
+                return new DijkstraBidirectionalWithEdgeFlags(g, revGraph);
+            case 5:
+                return new DijkstraWithLandmarks(g, revGraph);
+            case 6:
+                return new DijkstraWithContractionHierarchy(g);
+            case 7:
+                return new DijkstraWithOverlay(g, revGraph);
+            case 8:
+                return new DijkstraBidirectionalForGeoNets(g, revGraph);
+            case 9:
+                return new DijkstraWithTransitNodes(g, revGraph);
+            case 10:
+                return new DijkstraWithHubLabels(g, HubLabels.getLabelFile(graphFile));
+            default:
+                return new Dijkstra(g);
+        }
+    }
+
+
     //generate performance report file
     private static void calculateStats(
             int noOfQrys,
@@ -168,9 +251,15 @@ public class Main {
         //metrics to measure preprocessing
         long prepExecTime=0;
         int noOfNodesScanned=0;
+        int noOfWeightUpdates=0;
+        int noOfCellsRecalculated=0;
+        long customizationTime=0;
 
         if(prepStats != null){
             prepExecTime=prepStats.getPrepExecTime();
+            noOfWeightUpdates=prepStats.getNoOfWeightUpdates();
+            noOfCellsRecalculated=prepStats.getNoOfCellsRecalculated();
+            customizationTime=prepStats.getCustomizationTime();
             if(!prepStats.isReadFromFile()){
                 noOfNodesScanned=prepStats.getNoOfNodesScanned();
             }
@@ -181,18 +270,21 @@ public class Main {
         int ttlNoOfNodesScanned=0; double avgNoOfNodesScanned;
         int ttlNoOfArcsScanned=0; double avgNoOfArcsScanned;
         int ttlNoOfDistImprovements=0; double avgNoOfDistImprovements;
+        long ttlNoOfLabelEntries=0; double avgNoOfLabelEntries;
 
         for(StatsForQuerying st: qryStatsList){
             ttlQryExecTime += st.getQryExecTime();
             ttlNoOfNodesScanned +=st.getNoOfNodesScanned();
             ttlNoOfArcsScanned +=st.getNoOfArcsScanned();
             ttlNoOfDistImprovements +=st.getNoOfDistImprovements();
+            ttlNoOfLabelEntries +=st.getNoOfLabelEntries();
         }
 
         avgQryExecTime= (double)ttlQryExecTime/noOfQrys;
         avgNoOfNodesScanned= (double)ttlNoOfNodesScanned/noOfQrys;
         avgNoOfArcsScanned= (double)ttlNoOfArcsScanned/noOfQrys;
         avgNoOfDistImprovements= (double)ttlNoOfDistImprovements/noOfQrys;
+        avgNoOfLabelEntries= (double)ttlNoOfLabelEntries/noOfQrys;
 
         switch(ALGORITHM){
             case 0:{
@@ -224,13 +316,54 @@ public class Main {
                 perfReportForQueries=new File(".//results//"+perfReportForQueriesFileName);
                 break;
             }
+            case 5:{
+                String algorithmName= ALT_SEARCH==1 ? "_BidirectALT" : "_ALT";
+                perfReportForPreprocFileName=graphFileName.substring(0, graphFileName.indexOf('.'))+algorithmName+".p2p.p.res";
+                perfReportForQueriesFileName=graphFileName.substring(0, graphFileName.indexOf('.'))+algorithmName+".p2p.q.res";
+                perfReportForPreproc=new File(".//results//"+perfReportForPreprocFileName);
+                perfReportForQueries=new File(".//results//"+perfReportForQueriesFileName);
+                break;
+            }
+            case 6:{
+                perfReportForPreprocFileName=graphFileName.substring(0, graphFileName.indexOf('.'))+"_ContractionHierarchies.p2p.p.res";
+                perfReportForQueriesFileName=graphFileName.substring(0, graphFileName.indexOf('.'))+"_ContractionHierarchies.p2p.q.res";
+                perfReportForPreproc=new File(".//results//"+perfReportForPreprocFileName);
+                perfReportForQueries=new File(".//results//"+perfReportForQueriesFileName);
+                break;
+            }
+            case 7:{
+                perfReportForPreprocFileName=graphFileName.substring(0, graphFileName.indexOf('.'))+"_DijkstraWithOverlay.p2p.p.res";
+                perfReportForQueriesFileName=graphFileName.substring(0, graphFileName.indexOf('.'))+"_DijkstraWithOverlay.p2p.q.res";
+                perfReportForPreproc=new File(".//results//"+perfReportForPreprocFileName);
+                perfReportForQueries=new File(".//results//"+perfReportForQueriesFileName);
+                break;
+            }
+            case 8:{
+                perfReportForQueriesFileName=graphFileName.substring(0, graphFileName.indexOf('.'))+"_BidirectDijkstraForGeoNets.p2p.q.res";
+                perfReportForQueries=new File(".//results//"+perfReportForQueriesFileName);
+                break;
+            }
+            case 9:{
+                perfReportForPreprocFileName=graphFileName.substring(0, graphFileName.indexOf('.'))+"_TransitNodeRouting.p2p.p.res";
+                perfReportForQueriesFileName=graphFileName.substring(0, graphFileName.indexOf('.'))+"_TransitNodeRouting.p2p.q.res";
+                perfReportForPreproc=new File(".//results//"+perfReportForPreprocFileName);
+                perfReportForQueries=new File(".//results//"+perfReportForQueriesFileName);
+                break;
+            }
+            case 10:{
+                perfReportForPreprocFileName=graphFileName.substring(0, graphFileName.indexOf('.'))+"_HubLabels.p2p.p.res";
+                perfReportForQueriesFileName=graphFileName.substring(0, graphFileName.indexOf('.'))+"_HubLabels.p2p.q.res";
+                perfReportForPreproc=new File(".//results//"+perfReportForPreprocFileName);
+                perfReportForQueries=new File(".//results//"+perfReportForQueriesFileName);
+                break;
+            }
         }
 
         //write preprocessing stats into file
-        writeToFile(perfReportForPreproc, prepExecTime, noOfNodesScanned, g);
+        writeToFile(perfReportForPreproc, prepExecTime, noOfNodesScanned, noOfWeightUpdates, noOfCellsRecalculated, customizationTime, g);
 
         //write querying stats into file
-        writeToFile(perfReportForQueries, avgQryExecTime, avgNoOfNodesScanned, avgNoOfArcsScanned, avgNoOfDistImprovements, g);
+        writeToFile(perfReportForQueries, avgQryExecTime, avgNoOfNodesScanned, avgNoOfArcsScanned, avgNoOfDistImprovements, avgNoOfLabelEntries, g);
     }
 
 
@@ -238,6 +371,9 @@ public class Main {
             File file,
             long prepExecTime,
             int noOfNodesScanned,
+            int noOfWeightUpdates,
+            int noOfCellsRecalculated,
+            long customizationTime,
             Graph g){
 
         if(file != null){
@@ -253,12 +389,22 @@ public class Main {
                 writer.write("c g - graph configuration\n");
                 writer.write("c t - time spent to preprocessing (in milliseconds)\n");
                 writer.write("c v - number of nodes scanned during preprocessing\n");
+                if(ALGORITHM==7){
+                    writer.write("c w - number of arc weights updated between queries\n");
+                    writer.write("c r - number of cells recalculated by customizations after weight updates\n");
+                    writer.write("c k - time spent to customizations after weight updates (in milliseconds)\n");
+                }
                 writer.write("c\n");
                 writer.write("c\n");
                 writer.write("p res sp p2p p " + fileName.substring(0, fileName.indexOf('.'))+ "\n");
                 writer.write("g " + g.V() + " " + g.E() + "\n");
                 writer.write("t " + df.format(prepExecTime/1000000d) + "\n");
                 writer.write("v " + noOfNodesScanned + "\n");
+                if(ALGORITHM==7){
+                    writer.write("w " + noOfWeightUpdates + "\n");
+                    writer.write("r " + noOfCellsRecalculated + "\n");
+                    writer.write("k " + df.format(customizationTime/1000000d) + "\n");
+                }
                 writer.flush();
                 writer.close();
             }catch (IOException ex){
@@ -273,6 +419,7 @@ public class Main {
             double avgNoOfNodesScanned,
             double avgNoOfArcsScanned,
             double avgNoOfDistImprovements,
+            double avgNoOfLabelEntries,
             Graph g){
 
         if(file != null){
@@ -290,6 +437,13 @@ public class Main {
                 writer.write("c v - number of nodes scanned\n");
                 writer.write("c e - number of edges scanned\n");
                 writer.write("c i - number of distance improvements (aka number of effective relax operations)\n");
+                writer.write("c l - graph layout scanned by the algorithm (adj - adjacency lists of edge objects, csr - compressed sparse row arrays, compressed - delta/varint encoded arcs)\n");
+                writer.write("c o - vertex order (input - ids of the input files, hilbert/morton - vertices renumbered along a space-filling curve)\n");
+                writer.write("c q - priority queue used by the algorithm (binary, d-ary with its arity, pairing or radix heap)\n");
+                if(ALGORITHM==10){
+                    writer.write("c u - time spent to querying (in microseconds)\n");
+                    writer.write("c h - number of entries of the forward label of the source and the backward label of the destination\n");
+                }
                 writer.write("c\n");
                 writer.write("c\n");
                 writer.write("p res sp p2p q " + fileName.substring(0, fileName.indexOf('.'))+ "\n");
@@ -298,6 +452,13 @@ public class Main {
                 writer.write("v " + df.format(avgNoOfNodesScanned) + "\n");
                 writer.write("e " + df.format(avgNoOfArcsScanned) + "\n");
                 writer.write("i " + df.format(avgNoOfDistImprovements) + "\n");
+                writer.write("l " + getGraphLayoutName() + "\n");
+                writer.write("o " + getVertexOrderName() + "\n");
+                writer.write("q " + getPriorityQueueName() + "\n");
+                if(ALGORITHM==10){
+                    writer.write("u " + df.format(avgQryExecTime/1000) + "\n");
+                    writer.write("h " + df.format(avgNoOfLabelEntries) + "\n");
+                }
                 writer.flush();
                 writer.close();
             }catch (IOException ex){
@@ -307,60 +468,106 @@ public class Main {
     }
 
 
-    //read queries
-    //return the list of queries
-    private static List<Query> loadQueries(Scanner in){
+    //get the name of graph layout used
+    private static String getGraphLayoutName(){
+        String graphLayout=null;
+        switch(GRAPH_LAYOUT){
+            case 0:
+                graphLayout="adj";
+                break;
+            case 1:
+                graphLayout="csr";
+                break;
+            case 2:
+                graphLayout="compressed";
+                break;
+        }
 
-        int noOfQrys = 0;
-        int queryId=0;
-        List<Query> p2pQueries=null;
+        return graphLayout;
+    }
 
-        //read first byte in line
-        char c=in.next().charAt(0);
 
-        //iterate through queries
-        while(in.hasNextLine()){
-            switch (c){
-                case 'c':{
-                    //skip the line with comments
-                    in.nextLine();
+    //get the name of vertex order used
+    private static String getVertexOrderName(){
+        String vertexOrder=null;
+        switch(VERTEX_ORDER){
+            case 0:
+                vertexOrder="input";
+                break;
+            case 1:
+                vertexOrder="hilbert";
+                break;
+            case 2:
+                vertexOrder="morton";
+                break;
+        }
 
-                    //read the byte in the next line
-                    if (in.hasNext())
-                        c = in.next().charAt(0);
+        return vertexOrder;
+    }
 
-                    break;
-                }
 
-                case 'p':{
-                    //read the definition of a problem
-                    in.next(); //read the word 'aux'
-                    in.next(); //read the word 'sp'
-                    in.next(); //read the word 'p2p'
-                    noOfQrys = in.nextInt(); //get the number of vertices
-                    p2pQueries=new ArrayList<Query>(noOfQrys);
+    //get the name of priority queue used
+    private static String getPriorityQueueName(){
+        String priorityQueue=null;
+        switch(PRIORITY_QUEUE){
+            case 0:
+                priorityQueue="binary";
+                break;
+            case 1:
+                priorityQueue=HEAP_ARITY + "-ary";
+                break;
+            case 2:
+                priorityQueue="pairing";
+                break;
+            case 3:
+                priorityQueue="radix";
+                break;
+        }
 
-                    //read the byte in the next line
-                    if (in.hasNext())
-                        c = in.next().charAt(0);
+        return priorityQueue;
+    }
 
-                    break;
-                }
 
-                case 'q': {
-                    //read the query information
-                    int srcVertex = in.nextInt();
-                    int destVertex = in.nextInt();
+    //select priority queue for the graph (priority_queue=4)
+    //radix heap is faster on large graphs whose arc weights are small compared to the number of vertices (its cost
+    //depends on the number of bits of key differences), d-ary heap is faster on small graphs and on graphs with large weights
+    private static int choosePriorityQueue(Graph g){
+        int weightBits=32-Integer.numberOfLeadingZeros(g.getMaxArcWeight());
+        int vertexBits=32-Integer.numberOfLeadingZeros(g.V());
 
-                    p2pQueries.add(new Query(queryId++, srcVertex, destVertex));
+        if(g.V() >= 1<<16 && weightBits < vertexBits)
+            return 3; //radix heap
+        else
+            return 1; //d-ary heap
+    }
+
+
+    //read queries
+    //return the list of queries
+    static List<Query> loadQueries(File probFile){
 
-                    //read the byte in the next line
-                    if (in.hasNext())
-                        c = in.next().charAt(0);
+        final ArrayList<Query> p2pQueries=new ArrayList<Query>();
 
-                    break;
+        try{
+            //iterate through queries
+            DimacsReader.read(probFile, new DimacsReader.LineHandler() {
+                private int queryId=0;
+
+                @Override
+                public void problem(int[] values, int count){
+                    //read the definition of a problem: p aux sp p2p <number of queries>
+                    if(count>0)
+                        p2pQueries.ensureCapacity(values[0]);
+                }
+
+                @Override
+                public void query(int srcVertex, int destVertex){
+                    //read the query information
+                    p2pQueries.add(new Query(queryId++, srcVertex, destVertex));
                 }
-            }//end switch
+            });
+        }catch (IOException ex){
+            throw new IllegalArgumentException("Could not read queries from " + probFile.getName());
         }
 
         return p2pQueries;
@@ -1,6 +1,5 @@
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Set;
-import java.util.Map.Entry;
 
 //Minimum priority queue data structure
 //structure of priority queue was adapted from http://algs4.cs.princeton.edu/44sp/IndexMinPQ.java.html
@@ -9,39 +8,26 @@ public class MinPriorityQueue{
     private int N; //number of items in priority queue
     private HashMap<Vertex, Integer> reversePQ; //maps heap values to heap indexes
 
-    public MinPriorityQueue(Set<Entry<Vertex, Integer>> entries) {
-        N = entries.size();
-        pq = new HeapEntry[N + 1]; //pq[0] is unused, heap is from pq[1] through pq[N]
-        int i=0; //heap array index
-        reversePQ=new HashMap<Vertex, Integer>();
-
-        for(Entry<Vertex, Integer> e: entries){
-            HeapEntry he= new HeapEntry(e.getKey(), e.getValue());
-            pq[i+1]=he;
-
-            //keep the index of each vertex in pq in a hashmap
-            reversePQ.put(e.getKey(), i+1);
-
-            i++;
-        }
-
-        //restore min heap property after populating the heap
-        for (int k = N/2; k >= 1; k--) {
-            sink(k);
-        }
+    private static final int INITIAL_CAPACITY=64;
 
-        //check if min heap maintains invariants
-        assert isMinHeap();
+    //the queue only holds discovered vertices, they are added by insertOrDecreaseKey()
+    public MinPriorityQueue() {
+        N = 0;
+        pq = new HeapEntry[INITIAL_CAPACITY + 1]; //pq[0] is unused, heap is from pq[1] through pq[N]
+        reversePQ=new HashMap<Vertex, Integer>();
     }
 
     public boolean isEmpty() {
         return N == 0;
     }
 
+    //remove and return the entry with the smallest shortest path estimate
     public HeapEntry extractMin() {
         //before extracting, exchange the keys at root (smallest value) with one at the end of the array
         exch(1, N);
-        HeapEntry minEntry = pq[N--];
+        HeapEntry minEntry = pq[N];
+        pq[N--] = null;
+        reversePQ.remove(minEntry.getNode());
         sink(1);
 
         assert isMinHeap();
@@ -50,14 +36,25 @@ public class MinPriorityQueue{
     }
 
 
-    public void decreaseKey(Vertex srcNode, Integer newShortestDistance) {
+    //insert a node with the given shortest path estimate, or lower the estimate if the node is in the queue already
+    public void insertOrDecreaseKey(Vertex node, int newShortestDistance) {
         //find the relevant heap entry in the array
-        int index = reversePQ.get(srcNode);
-
-        HeapEntry he= pq[index];
-        he.setNewDistance(newShortestDistance);
+        Integer index = reversePQ.get(node);
+
+        if(index == null){
+            if(N+1 == pq.length)
+                pq = Arrays.copyOf(pq, 2*pq.length);
+
+            N++;
+            pq[N] = new HeapEntry(node, newShortestDistance);
+            reversePQ.put(node, N);
+            swim(N);
+        }else{
+            pq[index].setNewDistance(newShortestDistance);
+            swim(index);
+        }
 
-        swim(index);
+        assert isMinHeap();
     }
 
 
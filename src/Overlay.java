@@ -0,0 +1,310 @@
+import java.util.Arrays;
+
+//Multi-level overlay of customizable route planning (multi-level Dijkstra)
+//cells of level 1 are the regions of the graph partition, a cell of level l+1 groups CELL_FANOUT consecutive cells of
+//level l (regions are numbered in spatial order, so consecutive cells are close to each other)
+//boundary nodes of a level are the vertices incident to an arc between two cells of that level; for every cell the
+//overlay stores a clique matrix with the shortest path distances inside the cell between all its boundary nodes
+//the partition and the boundary nodes do not depend on arc weights, clique matrices are calculated by customization:
+//when arc weights change only the cells containing the changed arcs are recalculated
+//search graph of level 0 is the original graph; search graph of level l > 0 consists of the clique arcs of the cells of
+//level l and the arcs of the original graph between cells of level l
+public class Overlay {
+
+    public static final int CELL_FANOUT=4; //number of cells of level l grouped into one cell of level l+1
+    public static final int NO_CELL=-1; //cell of vertices which are not allocated to a region
+
+    private final Graph g; //graph with weighted edges
+    private final Graph revGraph; //reverse view of graph g used by backward searches
+    private final int L; //number of levels
+    private final int[] divisor; //region id divided by divisor[l] is the cell id at level l
+    private final int[] noOfCells; //number of cells of each level
+    private final int[][] boundaryFirst; //boundary nodes of cell c of level l are stored at boundary[l][boundaryFirst[l][c]] to boundary[l][boundaryFirst[l][c+1]-1]
+    private final int[][] boundary;
+    private final int[][] boundaryIndex; //position of a vertex among boundary nodes of its cell at level l, -1 if it is not a boundary node
+    private final int[][] cliqueFirst; //clique matrix of cell c of level l starts at clique[l][cliqueFirst[l][c]], distance from i-th to j-th boundary node at offset i*k+j
+    private final int[][] clique;
+    private final boolean[][] changed; //cells whose clique matrix has to be recalculated
+    private boolean customized; //true if no cell has changed since the last customization
+
+
+    //build the overlay of graph g with the given number of levels on top of the regions of g (g has to be partitioned)
+    public Overlay(Graph g, Graph revGraph, int noOfLevels){
+        this.g=g;
+        this.revGraph=revGraph;
+        this.L=Math.max(1, noOfLevels);
+        int V=g.V();
+
+        int noOfRegions=0;
+        for(int v=1;v<=V;v++)
+            noOfRegions=Math.max(noOfRegions, g.getRegion(v)+1);
+
+        divisor=new int[L+1];
+        noOfCells=new int[L+1];
+        divisor[1]=1;
+        noOfCells[1]=noOfRegions;
+        for(int l=2;l<=L;l++){
+            divisor[l]=divisor[l-1]*CELL_FANOUT;
+            noOfCells[l]=(noOfCells[l-1]+CELL_FANOUT-1)/CELL_FANOUT;
+        }
+
+        //boundary nodes of every level, grouped by cell (an arc between two cells of level l is also an arc between
+        //two cells of every lower level, so boundary nodes of level l are boundary nodes of all lower levels)
+        boundaryFirst=new int[L+1][];
+        boundary=new int[L+1][];
+        boundaryIndex=new int[L+1][];
+        cliqueFirst=new int[L+1][];
+        clique=new int[L+1][];
+        changed=new boolean[L+1][];
+        CompressedArcs.Cursor cursor= g.isCompressed() ? g.getArcCursor() : null;
+        for(int l=1;l<=L;l++){
+            boolean[] isBoundary=new boolean[V+1];
+            for(int v=1;v<=V;v++){
+                if(cursor != null){
+                    cursor.reset(v);
+                    while(cursor.next())
+                        markBoundary(isBoundary, l, v, cursor.getHead());
+                }else{
+                    for(int a=g.getFirstArc(v); a<g.getEndArc(v); a++)
+                        markBoundary(isBoundary, l, v, g.getArcHead(a));
+                }
+            }
+
+            boundaryFirst[l]=new int[noOfCells[l]+1];
+            boundaryIndex[l]=new int[V+1];
+            Arrays.fill(boundaryIndex[l], -1);
+            for(int v=1;v<=V;v++){
+                if(isBoundary[v] && getCell(l, v) != NO_CELL)
+                    boundaryIndex[l][v]=boundaryFirst[l][getCell(l, v)+1]++;
+            }
+            for(int c=0;c<noOfCells[l];c++)
+                boundaryFirst[l][c+1]+=boundaryFirst[l][c];
+
+            boundary[l]=new int[boundaryFirst[l][noOfCells[l]]];
+            for(int v=1;v<=V;v++){
+                if(boundaryIndex[l][v]>=0)
+                    boundary[l][boundaryFirst[l][getCell(l, v)] + boundaryIndex[l][v]]=v;
+            }
+
+            //clique matrices
+            cliqueFirst[l]=new int[noOfCells[l]+1];
+            for(int c=0;c<noOfCells[l];c++){
+                int k=getNoOfBoundaryNodes(l, c);
+                cliqueFirst[l][c+1]=cliqueFirst[l][c] + k*k;
+            }
+            clique[l]=new int[cliqueFirst[l][noOfCells[l]]];
+            changed[l]=new boolean[noOfCells[l]];
+            Arrays.fill(changed[l], true);
+
+            System.out.println("Overlay level " + l + ": " + noOfCells[l] + " cells, " + boundary[l].length + " boundary nodes, " + clique[l].length + " clique arcs");
+        }
+    }
+
+
+    //both vertices of an arc between two cells of level l are boundary nodes
+    private void markBoundary(boolean[] isBoundary, int l, int v, int w){
+        if(getCell(l, v) != getCell(l, w)){
+            isBoundary[v]=true;
+            isBoundary[w]=true;
+        }
+    }
+
+    public int getNoOfLevels(){
+        return L;
+    }
+
+    //cell of vertex v at level l, NO_CELL if the vertex is not allocated to a region
+    public int getCell(int l, int v){
+        int region=g.getRegion(v);
+        return region<0 ? NO_CELL : region/divisor[l];
+    }
+
+    private int getNoOfBoundaryNodes(int l, int c){
+        return boundaryFirst[l][c+1]-boundaryFirst[l][c];
+    }
+
+    //level of the search graph which is scanned at vertex v in a query from s to t: the highest level at which the cell
+    //of v contains neither s nor t, or 0 (original graph) if the cell of level 1 contains s or t
+    public int getQueryLevel(int v, int s, int t){
+        for(int l=L;l>=1;l--){
+            int c=getCell(l, v);
+            if(c != NO_CELL && c != getCell(l, s) && c != getCell(l, t))
+                return l;
+        }
+        return 0;
+    }
+
+
+    //set the weight of the arc (an outgoing arc of vertex tail) and mark the cells containing the arc, the overlay is
+    //updated by the next customization
+    public void updateArcWeight(int tail, int arc, int weight){
+        if(arc < g.getFirstArc(tail) || arc >= g.getEndArc(tail))
+            throw new IllegalArgumentException("Arc " + arc + " is not an outgoing arc of vertex " + tail);
+
+        int head=g.getArcHead(arc);
+        g.setArcWeight(arc, weight);
+
+        //the arc is inside the cell of every level at which both vertices are in the same cell
+        for(int l=1;l<=L;l++){
+            int c=getCell(l, tail);
+            if(c != NO_CELL && c==getCell(l, head)){
+                changed[l][c]=true;
+                customized=false;
+            }
+        }
+    }
+
+    public boolean isCustomized(){
+        return customized;
+    }
+
+    //recalculate clique matrices of changed cells, level by level from the bottom, returns the number of recalculated cells
+    //every boundary node of a cell of level l is the root of a Dijkstra's search on the search graph of level l-1 inside
+    //the cell, which ends when all boundary nodes of the cell are settled
+    public int customize(StatsForPreprocessing statsPrep){
+        int noOfCustomizedCells=0;
+        int noOfNodeScans=0;
+        StatsForQuerying scanStats=new StatsForQuerying();
+        CompressedArcs.Cursor cursor= g.isCompressed() ? g.getArcCursor() : null;
+
+        for(int l=1;l<=L;l++){
+            for(int c=0;c<noOfCells[l];c++){
+                if(!changed[l][c])
+                    continue;
+
+                int first=boundaryFirst[l][c];
+                int k=getNoOfBoundaryNodes(l, c);
+                for(int i=0;i<k;i++){
+                    SearchState state=SearchState.acquire(SearchState.PREPROCESSING, g.V());
+                    VertexPriorityQueue minPQ=state.getQueue();
+                    state.setDistance(boundary[l][first+i], 0);
+                    minPQ.insertOrDecreaseKey(boundary[l][first+i], 0);
+
+                    int noOfUnsettled=k;
+                    while(!minPQ.isEmpty() && noOfUnsettled>0){
+                        int vertex=minPQ.extractMin();
+                        noOfNodeScans++;
+                        state.setSettled(vertex);
+                        if(boundaryIndex[l][vertex]>=0)
+                            noOfUnsettled--;
+
+                        scan(state, vertex, l-1, true, l, c, cursor, scanStats);
+                    }
+
+                    for(int j=0;j<k;j++)
+                        clique[l][cliqueFirst[l][c] + i*k + j]=state.getDistance(boundary[l][first+j]);
+                }
+
+                changed[l][c]=false;
+                noOfCustomizedCells++;
+            }
+        }
+
+        customized=true;
+        statsPrep.setNoOfNodesScanned(noOfNodeScans);
+        return noOfCustomizedCells;
+    }
+
+
+    //relax arcs of vertex v on the search graph of the given level (forward or backward), heads outside of the cell
+    //cellId of level cellLevel are skipped unless cellLevel is 0
+    //v has to be a boundary node of the level unless level is 0
+    //arc scans and effective relax operations are added to stats
+    public void scan(SearchState state, int v, int level, boolean forward, int cellLevel, int cellId, CompressedArcs.Cursor cursor, StatsForQuerying stats){
+        int noOfArcScans=0;
+        int noOfDistImprovements=0;
+        int distance=state.getDistance(v);
+        int cell= level>0 ? getCell(level, v) : NO_CELL;
+
+        //clique arcs between boundary nodes of the cell of v
+        if(level>0){
+            int first=boundaryFirst[level][cell];
+            int k=getNoOfBoundaryNodes(level, cell);
+            int i=boundaryIndex[level][v];
+            int offset=cliqueFirst[level][cell];
+            for(int j=0;j<k;j++){
+                int weight=clique[level][forward ? offset + i*k + j : offset + j*k + i];
+                if(j != i && weight != SearchState.INFINITY){
+                    if(relax(state, v, boundary[level][first+j], distance + weight))
+                        noOfDistImprovements++;
+
+                    noOfArcScans++;
+                }
+            }
+        }
+
+        //arcs of the original graph, on levels above 0 only arcs to other cells of the level
+        Graph graph= forward ? g : revGraph;
+        if(cursor != null){
+            cursor.reset(v);
+            while(cursor.next()){
+                int head=cursor.getHead();
+                if((level==0 || getCell(level, head) != cell) && (cellLevel==0 || getCell(cellLevel, head)==cellId)){
+                    if(relax(state, v, head, distance + cursor.getWeight()))
+                        noOfDistImprovements++;
+
+                    noOfArcScans++;
+                }
+            }
+        }else{
+            for(int a=graph.getFirstArc(v); a<graph.getEndArc(v); a++){
+                int head=graph.getArcHead(a);
+                if((level==0 || getCell(level, head) != cell) && (cellLevel==0 || getCell(cellLevel, head)==cellId)){
+                    if(relax(state, v, head, distance + graph.getArcWeight(a)))
+                        noOfDistImprovements++;
+
+                    noOfArcScans++;
+                }
+            }
+        }
+
+        stats.setNoOfArcsScanned(stats.getNoOfArcsScanned() + noOfArcScans);
+        stats.setNoOfDistImprovements(stats.getNoOfDistImprovements() + noOfDistImprovements);
+    }
+
+    //relaxation of an arc from src to dest, returns true if shortest path estimate of dest was improved
+    private static boolean relax(SearchState state, int src, int dest, int distance){
+        if (state.getDistance(dest) > distance) {
+            state.update(dest, distance, src);
+            state.getQueue().insertOrDecreaseKey(dest, distance);
+            return true;
+        }
+        return false;
+    }
+
+
+    //append the vertices of the original path of the arc from u to v found by a search on the search graph of the
+    //given level to path (without u, with v)
+    //clique arcs (both vertices in the same cell of the level) are unpacked by a search on the level below inside the cell
+    public void unpack(int u, int v, int level, IntList path){
+        if(level==0 || getCell(level, u) != getCell(level, v)){
+            path.add(v); //arc of the original graph
+            return;
+        }
+
+        int cell=getCell(level, u);
+        SearchState state=SearchState.acquire(SearchState.PREPROCESSING, g.V());
+        VertexPriorityQueue minPQ=state.getQueue();
+        state.setDistance(u, 0);
+        minPQ.insertOrDecreaseKey(u, 0);
+        CompressedArcs.Cursor cursor= g.isCompressed() ? g.getArcCursor() : null;
+        StatsForQuerying scanStats=new StatsForQuerying();
+        while(!minPQ.isEmpty()){
+            int vertex=minPQ.extractMin();
+            state.setSettled(vertex);
+            if(vertex==v)
+                break;
+
+            scan(state, vertex, level-1, true, level, cell, cursor, scanStats);
+        }
+
+        //path of the level below, collected backwards before the state is reused by unpacking of its arcs
+        IntList subPath=new IntList();
+        for(int w=v; w != u; w=state.getParent(w))
+            subPath.add(w);
+        subPath.add(u);
+
+        for(int i=subPath.size()-1; i>0; i--)
+            unpack(subPath.get(i), subPath.get(i-1), level-1, path);
+    }
+}
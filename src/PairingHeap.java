@@ -0,0 +1,153 @@
+import java.util.Arrays;
+
+//Indexed minimum priority queue of vertex ids, stored as a pairing heap in primitive arrays
+//every vertex is a tree node linked to its first child, its next sibling and its previous sibling (or its parent
+//if it is the first child); insertOrDecreaseKey links the vertex with the root in O(1), extractMin pairs the children
+//of the root in two passes (left to right, then right to left)
+public class PairingHeap implements VertexPriorityQueue {
+
+    private static final int NIL=0; //vertex ids start from 1
+
+    private final int[] keys; //key (shortest path estimate) of every vertex in the heap
+    private final int[] child; //first child of every vertex
+    private final int[] sibling; //next sibling of every vertex
+    private final int[] prev; //previous sibling of every vertex, or its parent if it is the first child
+    private final boolean[] inHeap;
+    private int[] buffer=new int[64]; //children of the root while they are paired, vertices visited by clear()
+    private int root=NIL;
+    private int N; //number of items in the heap
+
+
+    //heap for vertex ids from 1 to noOfVertices
+    public PairingHeap(int noOfVertices){
+        keys=new int[noOfVertices+1];
+        child=new int[noOfVertices+1];
+        sibling=new int[noOfVertices+1];
+        prev=new int[noOfVertices+1];
+        inHeap=new boolean[noOfVertices+1];
+    }
+
+
+    @Override
+    public boolean isEmpty(){
+        return N==0;
+    }
+
+    @Override
+    public int size(){
+        return N;
+    }
+
+    @Override
+    public boolean contains(int v){
+        return inHeap[v];
+    }
+
+    //key of the vertex with the smallest key
+    @Override
+    public int getMinKey(){
+        return keys[root];
+    }
+
+    //insert vertex v with the given key, or lower its key if v is in the heap already
+    @Override
+    public void insertOrDecreaseKey(int v, int key){
+        keys[v]=key;
+
+        if(!inHeap[v]){
+            inHeap[v]=true;
+            N++;
+            child[v]=NIL;
+        }else if(v==root){
+            return;
+        }else{
+            //cut the subtree of v from its parent
+            int p=prev[v];
+            if(child[p]==v)
+                child[p]=sibling[v];
+            else
+                sibling[p]=sibling[v];
+            if(sibling[v]!=NIL)
+                prev[sibling[v]]=p;
+        }
+
+        sibling[v]=NIL;
+        prev[v]=NIL;
+        root= root==NIL ? v : link(root, v);
+    }
+
+    //remove the vertex with the smallest key and return its id
+    @Override
+    public int extractMin(){
+        int min=root;
+        inHeap[min]=false;
+        N--;
+
+        //collect children of the root
+        int n=0;
+        for(int c=child[min]; c!=NIL; c=sibling[c]){
+            if(n==buffer.length)
+                buffer=Arrays.copyOf(buffer, 2*buffer.length);
+            buffer[n++]=c;
+        }
+
+        //first pass: link pairs of children from left to right
+        int noOfPairs=0;
+        for(int i=0;i+1<n;i+=2)
+            buffer[noOfPairs++]=link(buffer[i], buffer[i+1]);
+        if(n%2==1)
+            buffer[noOfPairs++]=buffer[n-1];
+
+        //second pass: link pairs from right to left
+        root=NIL;
+        if(noOfPairs>0){
+            root=buffer[noOfPairs-1];
+            for(int i=noOfPairs-2;i>=0;i--)
+                root=link(buffer[i], root);
+            sibling[root]=NIL;
+            prev[root]=NIL;
+        }
+        return min;
+    }
+
+    //remove all vertices, in time proportional to the number of vertices left in the heap
+    @Override
+    public void clear(){
+        if(root!=NIL){
+            if(buffer.length<N)
+                buffer=new int[N];
+
+            //visit all tree nodes through child and sibling links
+            int n=0;
+            buffer[n++]=root;
+            while(n>0){
+                int v=buffer[--n];
+                inHeap[v]=false;
+                if(child[v]!=NIL)
+                    buffer[n++]=child[v];
+                if(sibling[v]!=NIL && v!=root)
+                    buffer[n++]=sibling[v];
+            }
+        }
+        root=NIL;
+        N=0;
+    }
+
+
+    //link two trees, the root with the greater key becomes the first child of the other root
+    private int link(int a, int b){
+        if(keys[b]<keys[a]){
+            int swap=a;
+            a=b;
+            b=swap;
+        }
+
+        int first=child[a];
+        sibling[b]=first;
+        if(first!=NIL)
+            prev[first]=b;
+        prev[b]=a;
+        child[a]=b;
+        return a;
+    }
+}
@@ -4,13 +4,15 @@ import java.util.ArrayList;
 public class QuadTree{
 
     private Quadrant root;
+    private Graph g; //graph which stores coordinates of vertices
 
-    public QuadTree(double minX, double minY, double maxX, double maxY) {
+    public QuadTree(Graph g, double minX, double minY, double maxX, double maxY) {
+        this.g = g;
         this.root = new Quadrant(minX, minY, maxX - minX, maxY - minY, null);
     }
 
-    public void insert(Vertex vertex) {
-        this.insert(this.root, vertex);
+    public void insert(int vertexId) {
+        this.insert(this.root, vertexId);
     }
 
 
@@ -38,23 +40,23 @@ public class QuadTree{
     }
 
 
-    private void insert(Quadrant quadrant, Vertex vertex) {
+    private void insert(Quadrant quadrant, int vertexId) {
         switch (quadrant.getQuadrantType()) {
             case EMPTY: {
-                quadrant.addVertex(vertex);
-                if(quadrant.getVertices().size()>=Main.MAX_VERTICES_PER_QUADRANT){
+                quadrant.addVertex(vertexId);
+                if(quadrant.getNoOfVertices()>=Main.MAX_VERTICES_PER_QUADRANT){
                     quadrant.setQuadrantType(QuadrantType.LEAF);
                 }
                 break;
             }
             case LEAF: {
                 this.split(quadrant);
-                this.insert(quadrant, vertex);
+                this.insert(quadrant, vertexId);
                 break;
             }
             case POINTER: {
-                Quadrant childQuadrant=this.getChildQuadrant(quadrant,vertex);
-                this.insert(childQuadrant, vertex);
+                Quadrant childQuadrant=this.getChildQuadrant(quadrant,vertexId);
+                this.insert(childQuadrant, vertexId);
                 break;
             }
             default:
@@ -64,8 +66,8 @@ public class QuadTree{
 
 
     private void split(Quadrant quadrant) {
-        ArrayList<Vertex> oldVertices = quadrant.getVertices();
-        quadrant.addVertex(null); //set the quadrant's vertices to null
+        int[] oldVertices = quadrant.getVertices();
+        quadrant.clearVertices(); //set the quadrant's vertices to null
 
         quadrant.setQuadrantType(QuadrantType.POINTER);
 
@@ -80,15 +82,15 @@ public class QuadTree{
         quadrant.setSw(new Quadrant(x, y + hh, hw, hh, quadrant));
         quadrant.setSe(new Quadrant(x + hw, y + hh, hw, hh, quadrant));
 
-        for(Vertex v: oldVertices){
+        for(int v: oldVertices){
             this.insert(quadrant, v);
         }
     }
 
 
-    private Quadrant getChildQuadrant(Quadrant parent, Vertex vertex) {
-        double x=(double)vertex.getLongitude()/1000000;
-        double y=(double)vertex.getLatitude()/1000000;
+    private Quadrant getChildQuadrant(Quadrant parent, int vertexId) {
+        double x=(double)g.getLongitude(vertexId)/1000000;
+        double y=(double)g.getLatitude(vertexId)/1000000;
 
         double mx = parent.getX() + parent.getW() / 2;
         double my = parent.getY() + parent.getH() / 2;
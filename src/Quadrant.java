@@ -1,4 +1,4 @@
-import java.util.ArrayList;
+import java.util.Arrays;
 
 //Quadrant class to be used by quad-tree data structure
 public class Quadrant {
@@ -8,7 +8,8 @@ public class Quadrant {
     private double w; //width of a quadrant
     private double h; //height of a quadrant
     private Quadrant parent; //parent of node
-    private ArrayList<Vertex> vertices; //list of vertices in this quadrant
+    private int[] vertices; //ids of vertices in this quadrant
+    private int noOfVertices;
     private QuadrantType quadrantType = QuadrantType.EMPTY;
     private Quadrant nw;
     private Quadrant ne;
@@ -22,7 +23,7 @@ public class Quadrant {
         this.w = w;
         this.h = h;
         this.parent = parent;
-        vertices=new ArrayList<>();
+        vertices=new int[16];
     }
 
     public double getX() {
@@ -41,16 +42,25 @@ public class Quadrant {
         return h;
     }
 
-    public void addVertex(Vertex v) {
-        if(v != null) {
-            this.vertices.add(v);
-        }else{ //if null vertex is added, then set the vertices to null as well
-            this.vertices=null;
-        }
+    public void addVertex(int vertexId) {
+        if(noOfVertices==vertices.length)
+            vertices=Arrays.copyOf(vertices, 2*noOfVertices);
+        vertices[noOfVertices++]=vertexId;
     }
 
-    public ArrayList<Vertex> getVertices() {
-        return this.vertices;
+    //remove vertices (when the quadrant is split, its vertices are moved to child quadrants)
+    public void clearVertices() {
+        this.vertices=null;
+        this.noOfVertices=0;
+    }
+
+    //returns ids of vertices in this quadrant
+    public int[] getVertices() {
+        return Arrays.copyOf(this.vertices, noOfVertices);
+    }
+
+    public int getNoOfVertices() {
+        return noOfVertices;
     }
 
     public void setQuadrantType(QuadrantType newType) {
@@ -0,0 +1,17 @@
+//Shortest path algorithm answering point-to-point queries on one graph
+//an engine is created once per graph and algorithm and called for every query; search state (distance arrays and
+//priority queue) is kept per thread in SearchState and reused by the next query, so a query only allocates its result
+public interface QueryEngine {
+
+    //name of the algorithm (printed while queries run)
+    String getName();
+
+    //compute the shortest path from src to dest
+    QueryResult query(Vertex src, Vertex dest);
+
+    //print the shortest path found by a query (valid until the next query of the same thread)
+    void printShortestPath(Graph g, QueryResult result);
+
+    //stats of preprocessing done when the engine was created, or null if the algorithm has no preprocessing
+    StatsForPreprocessing getStatsForPrep();
+}
@@ -1,16 +1,19 @@
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Random;
-import java.util.Scanner;
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.util.Set;
-import java.util.List;
 import java.util.HashSet;
 
 public class QueryGenerator{
+    //radius of the Earth (in meters) used by the distance formula of DIMACS coordinates (one degree is 60 nautical miles)
+    private static final double EARTH_RADIUS=60 * 1.1515 * 1.609344 * 1000 * 180 / Math.PI;
+
     private static int V;
-    private static List<Vertex> vertices;
+    private static boolean[] exists; //true if coordinates of the vertex were read
+    private static double[] xyz; //unit vector of each vertex at indices 3v, 3v+1 and 3v+2 (index 0 is unused)
+    private static double maxChordSquared; //squared chord length of radius+1 meters on the unit sphere
     private static Set<Query> setOfQueries;
 
     public static void main(String[] a){
@@ -19,8 +22,6 @@ public class QueryGenerator{
         //a[2] - radius (in meters)
         //a[3] - node coordinate (.co) file
 
-        Scanner sc=null;
-        vertices=new ArrayList<Vertex>();
         setOfQueries=new HashSet<Query>();
         int queryType=0;
         int noOfQueryPairs=0;
@@ -34,22 +35,27 @@ public class QueryGenerator{
             radius=Integer.parseInt(a[2]);
             nodeCoordFile=new File(a[3]);
 
-            if (nodeCoordFile.exists())
-                sc = new Scanner(nodeCoordFile);
+            if (!nodeCoordFile.exists())
+                throw new FileNotFoundException(nodeCoordFile.getPath());
+
+            //load nodes
+            addNodes(nodeCoordFile);
+
+            //chord length of a great circle arc of the given radius, so no trigonometric function is evaluated per query pair
+            //(distances are truncated to whole meters, so every distance below radius+1 is within the radius)
+            double maxChord=2 * Math.sin(Math.min((radius + 1.0) / EARTH_RADIUS, Math.PI) / 2);
+            maxChordSquared=maxChord * maxChord;
 
         }catch (IOException ex) {
             throw new IllegalArgumentException("Could not open file");
         }
 
-        //load nodes
-        addNodes(sc);
-
         switch(queryType){
             case 0:{
                 //randomly select a source vertex
                 Random rand=new Random();
                 int randSrcVertexId=rand.nextInt(V)+1;
-                Vertex s=vertices.get(randSrcVertexId); //source vertex
+                int s=randSrcVertexId; //source vertex
                 int queryId=0;
                 String nodeCoordFileName=nodeCoordFile.getName();
                 String fileName=nodeCoordFileName.substring(0, nodeCoordFileName.indexOf('.'))+"_queries.loc.p2p";
@@ -57,9 +63,9 @@ public class QueryGenerator{
 
                 while(setOfQueries.size()<noOfQueryPairs){
                     int randDestVertexId=rand.nextInt(V) +1;
-                    Vertex d=vertices.get(randDestVertexId); //potential destination vertex
-                    if(s != null && d != null && withinRadius(s, d, radius)){
-                        Query q=new Query(queryId++, s.getId(), d.getId());
+                    int d=randDestVertexId; //potential destination vertex
+                    if(exists[s] && exists[d] && withinRadius(s, d)){
+                        Query q=new Query(queryId++, s, d);
                         setOfQueries.add(q);
                     }
                 }
@@ -121,106 +127,46 @@ public class QueryGenerator{
     }
 
 
-    private static boolean withinRadius(Vertex s, Vertex t, int radius){
-        if(dist(s,t) <= radius)
-            return true;
-        return false;
+    //great circle distance between s and t is within the radius if the chord between their unit vectors is shorter
+    //than the chord of the radius
+    private static boolean withinRadius(int s, int t){
+        double dx=xyz[3*s]-xyz[3*t];
+        double dy=xyz[3*s+1]-xyz[3*t+1];
+        double dz=xyz[3*s+2]-xyz[3*t+2];
+        return dx*dx + dy*dy + dz*dz < maxChordSquared;
     }
 
-    //distance calculation code was taken from http://www.geodatasource.com/developers/java
-    //distance is returned in unit used by DIMACS
-    private static int dist(Vertex a, Vertex b){
-
-        //convert lon/lat into x/y coordinate system
-        double latA=(double)a.getLatitude() * 0.000001;
-        double lonA=(double)a.getLongitude() * 0.000001;
-
-        double latB=(double)b.getLatitude() * 0.000001;
-        double lonB=(double)b.getLongitude() * 0.000001;
-
-        double theta = lonA - lonB;
-        double dist = Math.sin(deg2rad(latA)) * Math.sin(deg2rad(latB)) +
-                Math.cos(deg2rad(latA)) * Math.cos(deg2rad(latB)) * Math.cos(deg2rad(theta));
-
-        dist = Math.acos(dist);
-        dist = rad2deg(dist);
-        dist = dist * 60 * 1.1515 * 1.609344;  //in kilometers
-        dist=dist*1000; //in meters
-
-        return (int)dist;
-    }
-
-    //this function converts decimal degrees to radians
-    private static double deg2rad(double deg) {
-        return (deg * Math.PI / 180.0);
-    }
-
-    //this function converts radians to decimal degrees
-    private static double rad2deg(double rad) {
-        return (rad * 180 / Math.PI);
-    }
-
-    private static void addNodes(Scanner in){
-        //read first byte in line
-        char c=in.next().charAt(0);
-
-        //add dummy vertex with id = 0 to the list
-        vertices.add(0, null);
-
+    private static void addNodes(File nodeCoordFile) throws IOException{
         //iterate through all nodes and add lon/lat data
-        while(in.hasNextLine()){
-            switch (c){
-                case 'c': {
-                    //skip the line
-                    in.nextLine();
-
-                    //read the byte in the next line
-                    if (in.hasNext())
-                        c = in.next().charAt(0);
-
-                    break;
-                }
-
-                case 'p': {
-                    //read the definition of a problem
-                    in.next(); //read the word 'aux'
-                    in.next(); //read the word 'sp'
-                    in.next(); //read the word 'co'
-                    int noOfVertices = in.nextInt(); //get the number of vertices
-                    if (noOfVertices < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
-                    V = noOfVertices;
-
-                    //skip to the next line
-                    in.nextLine();
-
-                    //read the byte in the next line
-                    if (in.hasNext())
-                        c = in.next().charAt(0);
-
-                    break;
-                }
-
-                case 'v': {
-                    //read the node information
-                    int nodeId = in.nextInt();
-                    validateVertex(nodeId);
-
-                    int lon = in.nextInt();
-                    int lat = in.nextInt();
-                    validateLongitude(lon);
-                    validateLatitude(lat);
-
-                    Vertex v=new Vertex(nodeId,""+nodeId,lon,lat);
-                    vertices.add(nodeId, v);
-
-                    //read the byte in the next line
-                    if (in.hasNext())
-                        c = in.next().charAt(0);
+        DimacsReader.read(nodeCoordFile, new DimacsReader.LineHandler() {
+            @Override
+            public void problem(int[] values, int count){
+                //read the definition of a problem: p aux sp co <number of vertices>
+                if (count < 1) throw new IllegalArgumentException("Problem line must define the number of vertices");
+                int noOfVertices = values[0]; //get the number of vertices
+                if (noOfVertices < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+                V = noOfVertices;
+                exists = new boolean[V+1];
+                xyz = new double[3*(V+1)];
+            }
 
-                    break;
-                }
-            }//end switch
-        }
+            @Override
+            public void vertex(int nodeId, int lon, int lat){
+                //read the node information
+                validateVertex(nodeId);
+                validateLongitude(lon);
+                validateLatitude(lat);
+
+                exists[nodeId]=true;
+
+                //unit vector of the vertex is calculated once when the vertex is read
+                double latRad=Math.toRadians(lat * 0.000001);
+                double lonRad=Math.toRadians(lon * 0.000001);
+                xyz[3*nodeId]=Math.cos(latRad) * Math.cos(lonRad);
+                xyz[3*nodeId+1]=Math.cos(latRad) * Math.sin(lonRad);
+                xyz[3*nodeId+2]=Math.sin(latRad);
+            }
+        });
     }
 
     //throw an exception unless 1 <= vertexId <= V
@@ -0,0 +1,52 @@
+//result of a point-to-point query answered by a QueryEngine
+public class QueryResult {
+    private final Vertex src;
+    private final Vertex dest;
+    private final int distance; //shortest path distance, SearchState.INFINITY if there is no path
+    private final Vertex meetingVertex; //vertex where searches of bidirectional algorithms meet (null for other algorithms)
+    private final SearchState forwardState; //search state of forward search
+    private final SearchState backwardState; //search state of backward search (null for unidirectional algorithms)
+    private final StatsForQuerying stats;
+
+    public QueryResult(Vertex src, Vertex dest, int distance, Vertex meetingVertex, SearchState forwardState, SearchState backwardState, StatsForQuerying stats) {
+        this.src = src;
+        this.dest = dest;
+        this.distance = distance;
+        this.meetingVertex = meetingVertex;
+        this.forwardState = forwardState;
+        this.backwardState = backwardState;
+        this.stats = stats;
+    }
+
+    public Vertex getSrc() {
+        return src;
+    }
+
+    public Vertex getDest() {
+        return dest;
+    }
+
+    public int getDistance() {
+        return distance;
+    }
+
+    public boolean hasPath() {
+        return distance < SearchState.INFINITY;
+    }
+
+    public Vertex getMeetingVertex() {
+        return meetingVertex;
+    }
+
+    public SearchState getForwardState() {
+        return forwardState;
+    }
+
+    public SearchState getBackwardState() {
+        return backwardState;
+    }
+
+    public StatsForQuerying getStats() {
+        return stats;
+    }
+}
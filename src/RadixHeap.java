@@ -0,0 +1,144 @@
+import java.util.Arrays;
+
+//Indexed monotone priority queue of vertex ids with integer keys (radix heap)
+//keys must not be smaller than the last extracted key, which holds for Dijkstra's algorithm with non-negative weights
+//a vertex with key k is kept in bucket i, where i is the position of the highest bit in which k differs from the last
+//extracted key (bucket 0 holds keys equal to the last extracted key); when bucket 0 is empty, the first non-empty
+//bucket is redistributed around its minimum, and every vertex only moves to lower buckets, at most 32 times
+public class RadixHeap implements VertexPriorityQueue {
+
+    private static final int NO_OF_BUCKETS=33; //bucket 0 and one bucket per bit of int keys
+    private static final int NOT_IN_HEAP=-1;
+
+    private final int[][] buckets; //vertex ids of every bucket
+    private final int[] bucketSize; //number of vertices in every bucket
+    private final int[] keys; //key (shortest path estimate) of every vertex in the heap
+    private final int[] bucketOf; //bucket of every vertex, or NOT_IN_HEAP
+    private final int[] pos; //position of every vertex in its bucket
+    private int N; //number of items in the heap
+    private int last; //last extracted key
+
+
+    //heap for vertex ids from 0 to noOfVertices
+    public RadixHeap(int noOfVertices){
+        buckets=new int[NO_OF_BUCKETS][16];
+        bucketSize=new int[NO_OF_BUCKETS];
+        keys=new int[noOfVertices+1];
+        bucketOf=new int[noOfVertices+1];
+        pos=new int[noOfVertices+1];
+        Arrays.fill(bucketOf, NOT_IN_HEAP);
+    }
+
+
+    @Override
+    public boolean isEmpty(){
+        return N==0;
+    }
+
+    @Override
+    public int size(){
+        return N;
+    }
+
+    @Override
+    public boolean contains(int v){
+        return bucketOf[v]!=NOT_IN_HEAP;
+    }
+
+    //key of the vertex with the smallest key
+    @Override
+    public int getMinKey(){
+        pull();
+        return last;
+    }
+
+    //insert vertex v with the given key, or lower its key if v is in the heap already
+    @Override
+    public void insertOrDecreaseKey(int v, int key){
+        if(key<last)
+            throw new IllegalArgumentException("Key " + key + " of vertex " + v + " is smaller than the last extracted key " + last);
+
+        int b=bucket(key);
+        keys[v]=key;
+        if(bucketOf[v]==NOT_IN_HEAP){
+            N++;
+        }else if(bucketOf[v]==b){
+            return; //lower key stays in the same bucket
+        }else{
+            remove(v);
+        }
+        add(v, b);
+    }
+
+    //remove the vertex with the smallest key and return its id
+    @Override
+    public int extractMin(){
+        pull();
+
+        int v=buckets[0][--bucketSize[0]];
+        bucketOf[v]=NOT_IN_HEAP;
+        N--;
+        return v;
+    }
+
+    //remove all vertices, in time proportional to the number of vertices left in the heap
+    @Override
+    public void clear(){
+        for(int b=0;b<NO_OF_BUCKETS;b++){
+            for(int i=0;i<bucketSize[b];i++)
+                bucketOf[buckets[b][i]]=NOT_IN_HEAP;
+            bucketSize[b]=0;
+        }
+        N=0;
+        last=0;
+    }
+
+
+    //make sure that bucket 0 holds the vertices with the smallest key
+    private void pull(){
+        if(bucketSize[0]>0)
+            return;
+
+        //first non-empty bucket holds the smallest keys
+        int b=1;
+        while(bucketSize[b]==0)
+            b++;
+
+        int[] members=buckets[b];
+        int size=bucketSize[b];
+        int min=Integer.MAX_VALUE;
+        for(int i=0;i<size;i++)
+            min=Math.min(min, keys[members[i]]);
+
+        //redistribute the bucket around its minimum, every vertex moves to a lower bucket
+        last=min;
+        bucketSize[b]=0;
+        for(int i=0;i<size;i++){
+            int v=members[i];
+            add(v, bucket(keys[v]));
+        }
+    }
+
+    private int bucket(int key){
+        return key==last ? 0 : 32-Integer.numberOfLeadingZeros(key^last);
+    }
+
+    private void add(int v, int b){
+        if(bucketSize[b]==buckets[b].length)
+            buckets[b]=Arrays.copyOf(buckets[b], 2*buckets[b].length);
+
+        int i=bucketSize[b]++;
+        buckets[b][i]=v;
+        bucketOf[v]=b;
+        pos[v]=i;
+    }
+
+    //remove vertex v from its bucket, the last vertex of the bucket takes its place
+    private void remove(int v){
+        int b=bucketOf[v];
+        int i=pos[v];
+        int moved=buckets[b][--bucketSize[b]];
+        buckets[b][i]=moved;
+        pos[moved]=i;
+    }
+}
@@ -1,25 +1,25 @@
 import java.awt.Point;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 public class Region {
     private int regionId; //region id based on 0-based index
     private Point p1; //bottom-left coordinate
     private Point p2; //top-right coordinate
-    private ArrayList<Vertex> vertices;
+    private int[] vertices; //ids of vertices in this region
+    private int noOfVertices;
 
     public Region(int regionId, Point p1, Point p2) {
         this.regionId=regionId;
         this.p1 = p1;
         this.p2 = p2;
-        this.vertices=new ArrayList<Vertex>();
+        this.vertices=new int[16];
     }
 
     public Region(int regionId){
         this.regionId=regionId;
         this.p1=null;
         this.p2=null;
-        this.vertices=new ArrayList<Vertex>();
+        this.vertices=new int[16];
     }
 
     public int getRegionId() {
@@ -34,12 +34,18 @@ public class Region {
         return p2;
     }
 
-    public void addVertex(Vertex vertex){
-        if(vertex != null)
-            vertices.add(vertex);
+    public void addVertex(int vertexId){
+        if(noOfVertices==vertices.length)
+            vertices=Arrays.copyOf(vertices, 2*noOfVertices);
+        vertices[noOfVertices++]=vertexId;
     }
 
-    public List<Vertex> getVertices(){
-        return vertices;
+    //returns ids of vertices in this region
+    public int[] getVertices(){
+        return Arrays.copyOf(vertices, noOfVertices);
+    }
+
+    public int getNoOfVertices(){
+        return noOfVertices;
     }
 }
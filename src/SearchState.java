@@ -0,0 +1,140 @@
+import java.util.Arrays;
+
+//Shortest path estimates, parents, settled marks and potentials of a search, stored in int arrays indexed by vertex id,
+//together with the priority queue of the search
+//every entry carries the generation (query number) in which it was written, entries of older generations read as
+//unvisited, so a new search starts in O(1) instead of refilling the arrays for every vertex
+//states are reused across queries: a state returned by acquire() is valid until the next acquire() of the same
+//slot on the same thread
+public class SearchState {
+
+    public static final int INFINITY=Integer.MAX_VALUE; //shortest path estimate of unvisited vertices
+    public static final int NO_PARENT=0; //vertex ids start from 1
+    public static final int NO_POTENTIAL=-1; //potential of vertices whose potential was not calculated in this search
+
+    //slots of states kept per thread
+    public static final int FORWARD=0; //(forward) search of a query
+    public static final int BACKWARD=1; //backward search of a bidirectional query
+    public static final int PREPROCESSING=2; //searches run by preprocessing (may run inside a query engine)
+    private static final int NO_OF_SLOTS=3;
+
+    private static final ThreadLocal<SearchState[]> states=new ThreadLocal<SearchState[]>(){
+        @Override
+        protected SearchState[] initialValue() {
+            return new SearchState[NO_OF_SLOTS];
+        }
+    };
+
+    private final int[] d; //shortest path estimate
+    private final int[] parent; //parent vertex id
+    private final int[] visited; //generation in which d and parent were written
+    private final int[] settled; //generation in which the vertex was settled
+    private int[] potential; //lower bound of the distance to the target (allocated by the first search which uses it)
+    private int[] potentialStamp; //generation in which the potential was calculated
+    private int generation;
+    private final int queueType; //priority_queue config parameter the queue was created for
+    private final VertexPriorityQueue queue; //priority queue of discovered vertices
+
+
+    private SearchState(int noOfVertices){
+        d=new int[noOfVertices+1];
+        parent=new int[noOfVertices+1];
+        visited=new int[noOfVertices+1];
+        settled=new int[noOfVertices+1];
+        queueType=Main.PRIORITY_QUEUE;
+        queue=createQueue(queueType, noOfVertices);
+    }
+
+
+    //returns the state of the given slot for a graph with noOfVertices vertices, reset for a new search
+    public static SearchState acquire(int slot, int noOfVertices){
+        SearchState[] slots=states.get();
+        SearchState state=slots[slot];
+        if(state==null || state.d.length != noOfVertices+1 || state.queueType != Main.PRIORITY_QUEUE){
+            state=new SearchState(noOfVertices);
+            slots[slot]=state;
+        }
+        state.reset();
+        return state;
+    }
+
+    //create priority queue of the given type (priority_queue config parameter) for vertex ids from 1 to noOfVertices
+    public static VertexPriorityQueue createQueue(int type, int noOfVertices){
+        switch(type){
+            case 0:
+                return new DAryHeap(noOfVertices, 2);
+            case 1:
+                return new DAryHeap(noOfVertices, Main.HEAP_ARITY);
+            case 2:
+                return new PairingHeap(noOfVertices);
+            case 3:
+                return new RadixHeap(noOfVertices);
+            default:
+                throw new IllegalArgumentException("Unknown priority queue type " + type);
+        }
+    }
+
+    //start a new search: all vertices become unvisited and the queue is emptied
+    public void reset(){
+        queue.clear();
+        generation++;
+        if(generation==Integer.MAX_VALUE){
+            //generation counter wrapped around, stamps are cleared once
+            Arrays.fill(visited, 0);
+            Arrays.fill(settled, 0);
+            if(potentialStamp != null)
+                Arrays.fill(potentialStamp, 0);
+            generation=1;
+        }
+    }
+
+
+    public VertexPriorityQueue getQueue(){
+        return queue;
+    }
+
+    public int getDistance(int v){
+        return visited[v]==generation ? d[v] : INFINITY;
+    }
+
+    public void setDistance(int v, int distance){
+        if(visited[v] != generation){
+            visited[v]=generation;
+            parent[v]=NO_PARENT;
+        }
+        d[v]=distance;
+    }
+
+    public int getParent(int v){
+        return visited[v]==generation ? parent[v] : NO_PARENT;
+    }
+
+    //set shortest path estimate and parent of vertex v
+    public void update(int v, int distance, int parentId){
+        visited[v]=generation;
+        d[v]=distance;
+        parent[v]=parentId;
+    }
+
+    public boolean isSettled(int v){
+        return settled[v]==generation;
+    }
+
+    public void setSettled(int v){
+        settled[v]=generation;
+    }
+
+    //potential of vertex v calculated in this search, or NO_POTENTIAL
+    public int getPotential(int v){
+        return potentialStamp != null && potentialStamp[v]==generation ? potential[v] : NO_POTENTIAL;
+    }
+
+    public void setPotential(int v, int p){
+        if(potential==null){
+            potential=new int[d.length];
+            potentialStamp=new int[d.length];
+        }
+        potential[v]=p;
+        potentialStamp[v]=generation;
+    }
+}
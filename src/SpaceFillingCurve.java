@@ -0,0 +1,40 @@
+//Space-filling curves used to renumber vertices, so vertices which are close in space get close ids
+//a curve of order k visits every cell of a 2^k x 2^k grid exactly once, the index of a cell is its position on the curve
+public class SpaceFillingCurve {
+
+    public static final int ORDER=16; //grid of 65536 x 65536 cells, cell index fits into 32 bits
+
+    //returns the position of cell (x, y) on the Hilbert curve of the given order
+    //iterative conversion adapted from https://en.wikipedia.org/wiki/Hilbert_curve
+    public static long hilbertIndex(int x, int y, int order){
+        int n=1<<order;
+        long index=0;
+        for(int s=n>>1; s>0; s>>=1){
+            int rx=(x & s)>0 ? 1 : 0;
+            int ry=(y & s)>0 ? 1 : 0;
+            index+=(long)s*s*((3*rx)^ry);
+
+            //rotate the quadrant, so the curve is continuous
+            if(ry==0){
+                if(rx==1){
+                    x=n-1-x;
+                    y=n-1-y;
+                }
+                int t=x;
+                x=y;
+                y=t;
+            }
+        }
+        return index;
+    }
+
+    //returns the position of cell (x, y) on the Morton (Z-order) curve of the given order
+    public static long mortonIndex(int x, int y, int order){
+        long index=0;
+        for(int i=0;i<order;i++){
+            index|=(long)((x>>i) & 1)<<(2*i);
+            index|=(long)((y>>i) & 1)<<(2*i+1);
+        }
+        return index;
+    }
+}
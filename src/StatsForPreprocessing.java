@@ -2,6 +2,9 @@ public class StatsForPreprocessing {
     private long prepExecTime; //in nanoseconds
     private int noOfNodesScanned;
     private boolean readFromFile;
+    private int noOfWeightUpdates; //arc weights changed between queries
+    private int noOfCellsRecalculated; //cells customized again after weight updates
+    private long customizationTime; //in nanoseconds, customizations after weight updates
 
     public long getPrepExecTime() {
         return prepExecTime;
@@ -15,6 +18,18 @@ public class StatsForPreprocessing {
         return readFromFile;
     }
 
+    public int getNoOfWeightUpdates() {
+        return noOfWeightUpdates;
+    }
+
+    public int getNoOfCellsRecalculated() {
+        return noOfCellsRecalculated;
+    }
+
+    public long getCustomizationTime() {
+        return customizationTime;
+    }
+
     public void setPrepExecTime(long prepExecTime) {
         this.prepExecTime = prepExecTime;
     }
@@ -26,4 +41,16 @@ public class StatsForPreprocessing {
     public void setReadFromFile(boolean readFromFile) {
         this.readFromFile = readFromFile;
     }
+
+    public void setNoOfWeightUpdates(int noOfWeightUpdates) {
+        this.noOfWeightUpdates += noOfWeightUpdates;
+    }
+
+    public void setNoOfCellsRecalculated(int noOfCellsRecalculated) {
+        this.noOfCellsRecalculated += noOfCellsRecalculated;
+    }
+
+    public void setCustomizationTime(long customizationTime) {
+        this.customizationTime += customizationTime;
+    }
 }
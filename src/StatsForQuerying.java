@@ -3,6 +3,7 @@ public class StatsForQuerying {
     private int noOfNodesScanned;
     private int noOfArcsScanned;
     private int noOfDistImprovements; //number of effective relax operations
+    private int noOfLabelEntries; //number of entries of the labels read by a hub label query
 
     //getters
     public long getQryExecTime() {
@@ -21,6 +22,10 @@ public class StatsForQuerying {
         return noOfDistImprovements;
     }
 
+    public int getNoOfLabelEntries() {
+        return noOfLabelEntries;
+    }
+
     //setters
     public void setQryExecTime(long qryExecTime) {
         this.qryExecTime = qryExecTime;
@@ -37,4 +42,8 @@ public class StatsForQuerying {
     public void setNoOfDistImprovements(int noOfDistImprovements) {
         this.noOfDistImprovements = noOfDistImprovements;
     }
+
+    public void setNoOfLabelEntries(int noOfLabelEntries) {
+        this.noOfLabelEntries = noOfLabelEntries;
+    }
 }
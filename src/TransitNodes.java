@@ -0,0 +1,214 @@
+import java.util.Arrays;
+
+//Transit nodes of transit node routing
+//transit nodes are the boundary nodes of the graph partition: every path between two regions passes through at least
+//one of them, so the distance between vertices of different regions is the minimum over forward access nodes a of the
+//source and backward access nodes b of the destination of d(s,a) + D(a,b) + d(b,t), where D is a table of the shortest
+//path distances between all transit nodes
+//forward access nodes of v are the transit nodes reached from v by a path without other transit nodes (a transit node
+//is its own only access node); an access node which the table reaches through another access node at no extra cost is
+//dominated and not stored
+public class TransitNodes {
+
+    private static final int FORWARD=0; //access nodes from a vertex
+    private static final int BACKWARD=1; //access nodes to a vertex
+    private static final int NOT_TRANSIT=-1;
+
+    private final int K; //number of transit nodes
+    private final int[] transit; //vertex id of every transit node
+    private final int[] transitIndex; //index of a vertex among transit nodes, NOT_TRANSIT for other vertices
+    private final int[] table; //distance from i-th to j-th transit node at index i*K+j
+    private final int[][] accessFirst; //access nodes of vertex v in direction dir are stored at indices accessFirst[dir][v] to accessFirst[dir][v+1]-1
+    private final int[][] accessNode; //transit node index of every access node
+    private final int[][] accessDist; //distance between the vertex and the access node
+    private final StatsForQuerying treeStats=new StatsForQuerying(); //node scans of the last shortest path tree
+    private int noOfNodeScans;
+
+
+    //select transit nodes of graph g (revGraph is its reverse view) and calculate the distance table and the access
+    //nodes (g has to be partitioned)
+    public TransitNodes(Graph g, Graph revGraph){
+        int V=g.V();
+
+        g.identifyBoundaryNodes();
+        transitIndex=new int[V+1];
+        Arrays.fill(transitIndex, NOT_TRANSIT);
+        int k=0;
+        for(int v=1;v<=V;v++){
+            if(g.isBoundaryNode(v))
+                transitIndex[v]=k++;
+        }
+        K=k;
+        if((long)K*K > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Distance table of " + K + " transit nodes is too large, use fewer regions");
+
+        transit=new int[K];
+        for(int v=1;v<=V;v++){
+            if(transitIndex[v] != NOT_TRANSIT)
+                transit[transitIndex[v]]=v;
+        }
+        System.out.println("Number of transit nodes: " + K);
+
+        //distance table, one shortest path tree per transit node
+        table=new int[K*K];
+        Dijkstra dijkstra=new Dijkstra(g);
+        for(int i=0;i<K;i++){
+            System.out.println("Transit node distance table using Dijkstra..." + (i+1));
+            SearchState tree=dijkstra.shortestPathTree(g.getVertex(transit[i]), treeStats);
+            noOfNodeScans+=treeStats.getNoOfNodesScanned();
+            for(int j=0;j<K;j++)
+                table[i*K+j]=tree.getDistance(transit[j]);
+        }
+
+        //forward access nodes are found by searches from every transit node on the reverse graph, backward access nodes
+        //by searches on the graph
+        accessFirst=new int[2][];
+        accessNode=new int[2][];
+        accessDist=new int[2][];
+        calculateAccessNodes(revGraph, FORWARD);
+        calculateAccessNodes(g, BACKWARD);
+    }
+
+
+    //run a search from every transit node which does not continue at other transit nodes, every vertex it settles gets
+    //the transit node as an access node; dominated access nodes are removed afterwards
+    private void calculateAccessNodes(Graph graph, int dir){
+        int V=graph.V();
+        IntList found=new IntList(); //vertex, transit node index and distance of every access node found
+        CompressedArcs.Cursor cursor= graph.isCompressed() ? graph.getArcCursor() : null;
+        for(int i=0;i<K;i++)
+            accessSearch(graph, cursor, i, found);
+
+        //group access nodes by vertex
+        int[] first=new int[V+2];
+        for(int e=0;e<found.size();e+=3)
+            first[found.get(e)+1]++;
+        for(int v=1;v<=V+1;v++)
+            first[v]+=first[v-1];
+
+        int[] node=new int[found.size()/3];
+        int[] dist=new int[found.size()/3];
+        int[] next=Arrays.copyOf(first, V+1);
+        for(int e=0;e<found.size();e+=3){
+            int v=found.get(e);
+            node[next[v]]=found.get(e+1);
+            dist[next[v]]=found.get(e+2);
+            next[v]++;
+        }
+
+        //remove dominated access nodes (they do not dominate others) and compact the arrays
+        for(int v=1;v<=V;v++){
+            for(int x=first[v];x<first[v+1];x++){
+                if(isDominated(node, dist, x, first[v], first[v+1], dir))
+                    dist[x]=SearchState.INFINITY;
+            }
+        }
+        int size=0;
+        for(int v=0;v<=V;v++){
+            int start=first[v];
+            int end=first[v+1];
+            first[v]=size;
+            for(int x=start;x<end;x++){
+                if(dist[x] != SearchState.INFINITY){
+                    node[size]=node[x];
+                    dist[size]=dist[x];
+                    size++;
+                }
+            }
+        }
+        first[V+1]=size;
+
+        accessFirst[dir]=first;
+        accessNode[dir]=Arrays.copyOf(node, size);
+        accessDist[dir]=Arrays.copyOf(dist, size);
+        System.out.println((dir==FORWARD ? "Forward" : "Backward") + " access nodes: " + size);
+    }
+
+    //search from the i-th transit node, vertices settled by the search are stored with their distance
+    private void accessSearch(Graph graph, CompressedArcs.Cursor cursor, int i, IntList found){
+        int root=transit[i];
+        SearchState state=SearchState.acquire(SearchState.PREPROCESSING, graph.V());
+        VertexPriorityQueue minPQ=state.getQueue();
+        state.setDistance(root, 0);
+        minPQ.insertOrDecreaseKey(root, 0);
+
+        while(!minPQ.isEmpty()){
+            int vertex=minPQ.extractMin();
+            noOfNodeScans++;
+            state.setSettled(vertex);
+
+            //paths through another transit node have that transit node as access node
+            if(vertex != root && transitIndex[vertex] != NOT_TRANSIT)
+                continue;
+
+            found.add(vertex);
+            found.add(i);
+            found.add(state.getDistance(vertex));
+
+            if(cursor != null){
+                cursor.reset(vertex);
+                while(cursor.next())
+                    relax(state, minPQ, vertex, cursor.getHead(), cursor.getWeight());
+            }else{
+                for(int a=graph.getFirstArc(vertex); a<graph.getEndArc(vertex); a++)
+                    relax(state, minPQ, vertex, graph.getArcHead(a), graph.getArcWeight(a));
+            }
+        }
+    }
+
+    private static void relax(SearchState state, VertexPriorityQueue minPQ, int src, int dest, int weight){
+        int distance=state.getDistance(src) + weight;
+        if (state.getDistance(dest) > distance) {
+            state.update(dest, distance, src);
+            minPQ.insertOrDecreaseKey(dest, distance);
+        }
+    }
+
+    //true if another access node (from start to end-1, dominated ones have INFINITY distance) of the same vertex reaches
+    //access node x through the table at no extra cost
+    private boolean isDominated(int[] node, int[] dist, int x, int start, int end, int dir){
+        for(int y=start;y<end;y++){
+            if(y==x || dist[y]==SearchState.INFINITY)
+                continue;
+
+            int d= dir==FORWARD ? table[node[y]*K + node[x]] : table[node[x]*K + node[y]];
+            if(d != SearchState.INFINITY && (long)dist[y] + d <= dist[x])
+                return true;
+        }
+        return false;
+    }
+
+
+    //shortest path distance from s to t for vertices of different regions, INFINITY if there is no path
+    //stats count the table entries read as scanned arcs
+    public int getDistance(int s, int t, StatsForQuerying stats){
+        int best=SearchState.INFINITY;
+        int noOfLookups=0;
+        for(int x=accessFirst[FORWARD][s]; x<accessFirst[FORWARD][s+1]; x++){
+            int row=accessNode[FORWARD][x]*K;
+            int toAccess=accessDist[FORWARD][x];
+            for(int y=accessFirst[BACKWARD][t]; y<accessFirst[BACKWARD][t+1]; y++){
+                int d=table[row + accessNode[BACKWARD][y]];
+                noOfLookups++;
+                if(d != SearchState.INFINITY && (long)toAccess + d + accessDist[BACKWARD][y] < best)
+                    best=toAccess + d + accessDist[BACKWARD][y];
+            }
+        }
+        stats.setNoOfArcsScanned(noOfLookups);
+        return best;
+    }
+
+    public int getNoOfTransitNodes(){
+        return K;
+    }
+
+    //average number of forward and backward access nodes per vertex
+    public double getAvgNoOfAccessNodes(){
+        return (double)(accessNode[FORWARD].length + accessNode[BACKWARD].length) / (2*(accessFirst[FORWARD].length-2));
+    }
+
+    //number of nodes scanned by the shortest path trees of the distance table and the access node searches
+    public int getNoOfNodeScans(){
+        return noOfNodeScans;
+    }
+}
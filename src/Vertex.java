@@ -1,73 +1,59 @@
-import java.util.Comparator;
-
 //Vertex class to represent nodes in the graph
+//attributes of the vertex (coordinates, region, boundary node flag) are stored in arrays of the graph, the vertex only holds its id
+//vertices are not stored, Graph.getVertex creates a handle on demand, so handles are compared with equals
 public class Vertex {
     final private int id;
-    final private String name;
-    private int lon; //longitude - x coordinate
-    private int lat; //latitude - y coordinate
-    private int region; //the region where this vertex belongs to (each vertex must belong to exactly one region)
-    private boolean isBoundaryNode;
-    private boolean isAssignedToRegion;
-
-    public Vertex(int id, String name) {
-        if (id < 0) throw new IndexOutOfBoundsException("Vertex id must be nonnegative integers");
-
-        this.id = id;
-        this.name = name;
-        this.region=-1; //initially nodes are not allocated to regions
-    }
+    final private Graph graph;
 
-    public Vertex(int id, String name, int lon, int lat) {
+    public Vertex(int id, Graph graph) {
         if (id < 0) throw new IndexOutOfBoundsException("Vertex id must be nonnegative integers");
 
         this.id = id;
-        this.name = name;
-        this.lon = lon;
-        this.lat = lat;
-        this.region=-1; //initially nodes are not allocated to regions
+        this.graph = graph;
     }
 
     public boolean isAssignedToRegion(){
-        return isAssignedToRegion;
+        return graph.getRegion(id) >= 0;
     }
 
     public void setRegion(int region) {
-        this.region = region;
-        isAssignedToRegion=true;
+        graph.setRegion(id, region);
     }
 
+    //the region where this vertex belongs to (each vertex must belong to exactly one region)
     public int getRegion() {
-        return region;
+        return graph.getRegion(id);
     }
 
     public int getId() {
         return id;
     }
 
+    //latitude - y coordinate
     public int getLatitude() {
-        return lat;
+        return graph.getLatitude(id);
     }
 
+    //longitude - x coordinate
     public int getLongitude() {
-        return lon;
+        return graph.getLongitude(id);
     }
 
     public void setLongitude(int lon) {
-        this.lon = lon;
+        graph.setLongitude(id, lon);
     }
 
     public void setLatitude(int lat) {
-        this.lat = lat;
+        graph.setLatitude(id, lat);
     }
 
 
     public boolean isBoundaryNode() {
-        return isBoundaryNode;
+        return graph.isBoundaryNode(id);
     }
 
     public void setBoundaryNode(){
-        this.isBoundaryNode=true;
+        graph.setBoundaryNode(id);
     }
 
     @Override
@@ -77,51 +63,17 @@ public class Vertex {
 
         Vertex vertex = (Vertex) o;
 
-        if (id != vertex.id) return false;
-        return name.equals(vertex.name);
-
+        return id == vertex.id;
     }
 
     @Override
     public int hashCode() {
-        int result = id;
-        result = 31 * result + name.hashCode();
-        return result;
+        return id;
     }
 
+    //vertex is printed with the id used in the input files
     @Override
     public String toString() {
-        return "v_" + name;
-    }
-
-    //compare vertices by values in x-axis
-    public static Comparator<Vertex> X_COMPARATOR = new Comparator<Vertex>() {
-        public int compare(Vertex v1, Vertex v2) {
-            if (v1.getLongitude()  < v2.getLongitude())
-                return -1;
-            if (v1.getLongitude() > v2.getLongitude())
-                return 1;
-            return 0;
-        }
-    };
-
-    //compare vertices by values in y-axis
-    public static Comparator<Vertex> Y_COMPARATOR = new Comparator<Vertex>() {
-        public int compare(Vertex v1, Vertex v2) {
-            if (v1.getLatitude() < v2.getLatitude())
-                return -1;
-            if (v1.getLatitude() > v2.getLatitude())
-                return 1;
-            return 0;
-        }
-    };
-
-    //choose how to compare the vertices (either by x-axis or by y-axis determined by value in depth)
-    public int compareTo(int depth, Vertex other) {
-        int axis = depth % 2;
-        if (axis == 0) //if even depth then compare by x axis
-            return X_COMPARATOR.compare(this, other);
-        else //if odd then compare by y axis
-            return Y_COMPARATOR.compare(this, other);
+        return "v_" + graph.getOriginalId(id);
     }
 }
@@ -0,0 +1,23 @@
+//Indexed minimum priority queue of vertex ids with int keys (shortest path estimates) used by Dijkstra's algorithms
+//implementations: DAryHeap (binary and d-ary heap), PairingHeap and RadixHeap (monotone keys only)
+//the implementation is selected by priority_queue config parameter, see SearchState.createQueue
+public interface VertexPriorityQueue {
+
+    boolean isEmpty();
+
+    int size();
+
+    boolean contains(int v);
+
+    //key of the vertex with the smallest key
+    int getMinKey();
+
+    //insert vertex v with the given key, or lower its key if v is in the queue already
+    void insertOrDecreaseKey(int v, int key);
+
+    //remove the vertex with the smallest key and return its id
+    int extractMin();
+
+    //remove all vertices
+    void clear();
+}